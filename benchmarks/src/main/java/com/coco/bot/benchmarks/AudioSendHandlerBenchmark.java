@@ -0,0 +1,157 @@
+package com.coco.bot.benchmarks;
+
+import com.coco.bot.handler.AudioPlayerSendHandler;
+import com.sedmelluq.discord.lavaplayer.filter.PcmFilterFactory;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音頻發送路徑：JDA 每 20ms 對每個伺服器呼叫一次 canProvide 與 provide20MsAudio
+ *
+ * 使用每次都提供固定 Opus 數據的合成播放器，只量測發送處理器本身的成本。
+ * prebufferMs 為 0 時直接向播放器取幀，大於 0 時從預先緩衝的環形緩衝取幀
+ * （環形緩衝讀空時 canProvide 返回 false，量測結果包含這些呼叫）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.QUIET_LOGGING)
+public class AudioSendHandlerBenchmark {
+
+    @Param({"0", "400"})
+    public int prebufferMs;
+
+    private AudioPlayerSendHandler handler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        handler = new AudioPlayerSendHandler(new FixedFramePlayer(new byte[160]), 0, prebufferMs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        handler.close();
+    }
+
+    @Benchmark
+    public int sendFrame() {
+        if (handler.canProvide()) {
+            ByteBuffer frame = handler.provide20MsAudio();
+            return frame.remaining();
+        }
+        return 0;
+    }
+
+    /**
+     * 每次都提供同一段 Opus 數據的播放器
+     */
+    static final class FixedFramePlayer implements AudioPlayer {
+        private final byte[] opusFrame;
+
+        FixedFramePlayer(byte[] opusFrame) {
+            this.opusFrame = opusFrame;
+        }
+
+        @Override
+        public boolean provide(MutableAudioFrame targetFrame) {
+            targetFrame.store(opusFrame, 0, opusFrame.length);
+            return true;
+        }
+
+        @Override
+        public boolean provide(MutableAudioFrame targetFrame, long timeout, TimeUnit unit) {
+            return provide(targetFrame);
+        }
+
+        @Override
+        public AudioFrame provide() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AudioFrame provide(long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AudioTrack getPlayingTrack() {
+            return null;
+        }
+
+        @Override
+        public void playTrack(AudioTrack track) {
+        }
+
+        @Override
+        public boolean startTrack(AudioTrack track, boolean noInterrupt) {
+            return false;
+        }
+
+        @Override
+        public void stopTrack() {
+        }
+
+        @Override
+        public int getVolume() {
+            return 100;
+        }
+
+        @Override
+        public void setVolume(int volume) {
+        }
+
+        @Override
+        public void setFilterFactory(PcmFilterFactory factory) {
+        }
+
+        @Override
+        public void setFrameBufferDuration(Integer duration) {
+        }
+
+        @Override
+        public boolean isPaused() {
+            return false;
+        }
+
+        @Override
+        public void setPaused(boolean value) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void addListener(AudioEventListener listener) {
+        }
+
+        @Override
+        public void removeListener(AudioEventListener listener) {
+        }
+
+        @Override
+        public void checkCleanup(long threshold) {
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.coco.bot.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 效能測試進入點
+ *
+ * 接受與 JMH 相同的命令列參數，並預設加上 GC profiler，
+ * 讓每個測試都輸出每次操作配置的記憶體（gc.alloc.rate.norm）。
+ */
+public class BenchmarkRunner {
+
+    /**
+     * 讓 fork 出的 JVM 改用 logback-benchmark.xml，只輸出 WARN 以上的日誌，
+     * 避免 INFO 日誌的成本混進測量結果
+     */
+    public static final String QUIET_LOGGING = "-Dlogback.configurationFile=logback-benchmark.xml";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
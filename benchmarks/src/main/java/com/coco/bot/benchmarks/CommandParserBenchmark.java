@@ -0,0 +1,47 @@
+package com.coco.bot.benchmarks;
+
+import com.coco.bot.util.CommandParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指令解析：每則訊息都會經過 CommandParser.parseCommand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.QUIET_LOGGING)
+public class CommandParserBenchmark {
+
+    @Param({
+            "!play https://www.youtube.com/watch?v=dQw4w9WgXcQ",
+            "!playhttps://youtu.be/dQw4w9WgXcQ",
+            "!playlist add 我的最愛 https://youtu.be/fJ9rUzIMcZQ",
+            "!queue 2",
+            "hello everyone, this is not a command"
+    })
+    public String message;
+
+    @Benchmark
+    public CommandParser.ParsedCommand parseCommand() {
+        return CommandParser.parseCommand(message);
+    }
+
+    /** 控制器在解析前的快速檢查，一般聊天訊息只會走到這裡 */
+    @Benchmark
+    public boolean isCommandCandidate() {
+        return CommandParser.isCommandCandidate(message);
+    }
+}
@@ -0,0 +1,95 @@
+package com.coco.bot.benchmarks;
+
+import com.coco.bot.handler.YouTubeResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * yt-dlp --dump-json 輸出的解析：每次解析與批次匯入的每一首歌都會解析一次
+ *
+ * 文件依照 yt-dlp 的欄位順序產生，格式清單、縮圖與字幕排在需要的欄位之前，
+ * 大小接近實際 YouTube 影片的輸出（formats=20 約 40 KB，formats=150 約 180 KB）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.QUIET_LOGGING)
+public class JsonEntryParseBenchmark {
+
+    @Param({"20", "150"})
+    public int formats;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = dumpJson(formats);
+    }
+
+    @Benchmark
+    public YouTubeResolver.JsonEntry parseJsonEntry() {
+        return YouTubeResolver.parseJsonEntry(json);
+    }
+
+    private static String dumpJson(int formatCount) {
+        StringBuilder json = new StringBuilder(formatCount * 2048);
+        json.append("{\"id\": \"dQw4w9WgXcQ\", \"title\": \"Rick Astley - Never Gonna Give You Up (Official Music Video)\", ");
+        json.append("\"formats\": [");
+        for (int i = 0; i < formatCount; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"format_id\": \"").append(i).append("\", \"format_note\": \"medium\", \"ext\": \"webm\", ")
+                    .append("\"acodec\": \"opus\", \"vcodec\": \"none\", \"abr\": 129.5, \"asr\": 48000, ")
+                    .append("\"url\": \"https://rr1---sn-example.googlevideo.com/videoplayback?expire=1700000000&itag=")
+                    .append(i).append("&source=youtube&requiressl=yes&mime=audio%2Fwebm&dur=212.061\", ")
+                    .append("\"fragments\": [");
+            for (int f = 0; f < 8; f++) {
+                if (f > 0) {
+                    json.append(", ");
+                }
+                json.append("{\"url\": \"https://rr1---sn-example.googlevideo.com/sq/").append(f)
+                        .append("\", \"duration\": 5.0}");
+            }
+            json.append("], \"http_headers\": {\"User-Agent\": \"Mozilla/5.0 (X11; Linux x86_64)\", ")
+                    .append("\"Accept\": \"text/html,application/xhtml+xml\", \"Accept-Language\": \"en-us,en;q=0.5\"}}");
+        }
+        json.append("], \"thumbnails\": [");
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"url\": \"https://i.ytimg.com/vi/dQw4w9WgXcQ/").append(i)
+                    .append(".jpg\", \"preference\": ").append(-i).append(", \"id\": \"").append(i).append("\"}");
+        }
+        json.append("], \"thumbnail\": \"https://i.ytimg.com/vi/dQw4w9WgXcQ/maxresdefault.jpg\", ");
+        json.append("\"description\": \"").append("The official video for Never Gonna Give You Up. ".repeat(40)).append("\", ");
+        json.append("\"automatic_captions\": {");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("\"l").append(i).append("\": [{\"ext\": \"json3\", \"url\": \"https://www.youtube.com/api/timedtext?lang=l")
+                    .append(i).append("\"}, {\"ext\": \"vtt\", \"url\": \"https://www.youtube.com/api/timedtext?fmt=vtt&lang=l")
+                    .append(i).append("\"}]");
+        }
+        json.append("}, \"duration\": 212, \"uploader\": \"Rick Astley\", \"is_live\": false, ");
+        json.append("\"webpage_url\": \"https://www.youtube.com/watch?v=dQw4w9WgXcQ\", ");
+        json.append("\"original_url\": \"https://youtu.be/dQw4w9WgXcQ\", \"playlist_id\": null, ");
+        json.append("\"url\": \"https://rr1---sn-example.googlevideo.com/videoplayback?expire=1700000000&itag=251\"}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.coco.bot.benchmarks;
+
+import com.coco.bot.handler.MusicQueue;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 播放佇列操作，佇列大小固定（每個操作都維持原本的音軌數量）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.QUIET_LOGGING)
+public class MusicQueueBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private MusicQueue queue;
+    private AudioTrack extraTrack;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        queue = new MusicQueue();
+        for (AudioTrack track : SyntheticTracks.tracks(size)) {
+            queue.addTrack(track);
+        }
+        extraTrack = SyntheticTracks.track(size);
+        random = new SplittableRandom(42);
+    }
+
+    /** 加入一首再取出一首（!play 與自動播放下一首） */
+    @Benchmark
+    public AudioTrack addThenAdvance() {
+        queue.addTrack(extraTrack);
+        AudioTrack next = queue.getNextTrack();
+        extraTrack = next;
+        return next;
+    }
+
+    /** 任意位置移動（!move） */
+    @Benchmark
+    public AudioTrack moveRandom() {
+        return queue.moveTrack(random.nextInt(size), random.nextInt(size));
+    }
+
+    /** 讀取任意位置（!remove 前的定位） */
+    @Benchmark
+    public AudioTrack getRandom() {
+        return queue.getTrack(random.nextInt(size));
+    }
+
+    /** 移除任意位置再加回佇列尾端（!remove） */
+    @Benchmark
+    public AudioTrack removeRandomThenAppend() {
+        AudioTrack removed = queue.removeTrack(random.nextInt(size));
+        queue.addTrack(removed);
+        return removed;
+    }
+
+    /** 取出中間一頁（!queue n） */
+    @Benchmark
+    public List<AudioTrack> pageFromMiddle() {
+        return queue.getPage(size / 20, 10);
+    }
+
+    /** 打亂整個佇列（!shuffle） */
+    @Benchmark
+    public int shuffle() {
+        queue.shuffle();
+        return queue.getQueueSize();
+    }
+}
@@ -0,0 +1,59 @@
+package com.coco.bot.benchmarks;
+
+import com.coco.bot.handler.MusicQueue;
+import com.coco.bot.service.MusicService;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * !queue 回覆內容的產生（MusicService.getQueueInfo 的格式化部分）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.QUIET_LOGGING)
+public class QueueRenderBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private MusicQueue queue;
+    private int middlePage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<AudioTrack> tracks = SyntheticTracks.tracks(size + 1);
+        queue = new MusicQueue();
+        queue.setCurrentTrack(tracks.get(size));
+        for (int i = 0; i < size; i++) {
+            queue.addTrack(tracks.get(i));
+        }
+        middlePage = Math.max(1, size / 20);
+    }
+
+    @Benchmark
+    public String firstPage() {
+        return MusicService.formatQueuePage(queue, 1);
+    }
+
+    @Benchmark
+    public String middlePage() {
+        return MusicService.formatQueuePage(queue, middlePage);
+    }
+}
@@ -0,0 +1,37 @@
+package com.coco.bot.benchmarks;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BaseAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 效能測試用的音軌，不會實際播放
+ */
+final class SyntheticTracks {
+
+    private SyntheticTracks() {
+    }
+
+    static AudioTrack track(int index) {
+        AudioTrackInfo info = new AudioTrackInfo("Benchmark Song " + index, "Benchmark Artist",
+                180_000L + index, "bench-" + index, false, "https://www.youtube.com/watch?v=bench" + index);
+        return new BaseAudioTrack(info) {
+            @Override
+            public void process(LocalAudioTrackExecutor executor) {
+                throw new UnsupportedOperationException("synthetic track");
+            }
+        };
+    }
+
+    static List<AudioTrack> tracks(int count) {
+        List<AudioTrack> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tracks.add(track(i));
+        }
+        return tracks;
+    }
+}
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# 原生映像煙霧測試：以 native-smoke 設定檔啟動原生執行檔，確認 Spring 容器能在內嵌資料庫上啟動完成，
+# 並輸出啟動時間與記憶體用量（RSS）。
+#
+# 使用方式：scripts/native-smoke-test.sh [執行檔路徑] [逾時秒數]
+set -u
+
+BINARY="${1:-target/discord-music-bot}"
+TIMEOUT_SECONDS="${2:-30}"
+LOG_FILE="$(mktemp)"
+
+if [[ ! -x "$BINARY" ]]; then
+    echo "❌ 找不到原生執行檔：$BINARY（請先執行 mvn -Pnative package 建置，或以 mvn -Pnative verify 建置並執行煙霧測試）"
+    exit 1
+fi
+
+"$BINARY" --spring.profiles.active=native-smoke > "$LOG_FILE" 2>&1 &
+PID=$!
+trap 'kill "$PID" 2>/dev/null; rm -f "$LOG_FILE"' EXIT
+
+for ((i = 0; i < TIMEOUT_SECONDS * 10; i++)); do
+    if grep -q "Started DiscordBotApplication" "$LOG_FILE"; then
+        RSS_KB=$(awk '/VmRSS/ {print $2}' "/proc/$PID/status" 2>/dev/null || echo "?")
+        echo "✅ 原生映像啟動成功：$(grep -o 'Started DiscordBotApplication in [0-9.]* seconds' "$LOG_FILE")，RSS ${RSS_KB} KB"
+        exit 0
+    fi
+    if ! kill -0 "$PID" 2>/dev/null; then
+        echo "❌ 原生映像在啟動完成前結束："
+        cat "$LOG_FILE"
+        exit 1
+    fi
+    sleep 0.1
+done
+
+echo "❌ 原生映像在 ${TIMEOUT_SECONDS} 秒內沒有啟動完成："
+cat "$LOG_FILE"
+exit 1
@@ -1,17 +1,28 @@
 package com.coco.bot;
 
+import com.coco.bot.config.NativeRuntimeHints;
 import com.coco.bot.service.DiscordBotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class DiscordBotApplication implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DiscordBotApplication.class);
 
     @Autowired
     private DiscordBotService discordBotService;
 
+    /** 是否連線到 Discord，關閉時只啟動 Spring 容器（原生映像煙霧測試使用） */
+    @Value("${discord.bot.enabled:true}")
+    private boolean botEnabled;
+
     private static DiscordBotService staticDiscordBotService;
 
     public static void main(String[] args) {
@@ -39,6 +50,10 @@ public class DiscordBotApplication implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        if (!botEnabled) {
+            logger.info("discord.bot.enabled=false，不連線到 Discord");
+            return;
+        }
         staticDiscordBotService = discordBotService;
         discordBotService.startBot();
     }
@@ -0,0 +1,68 @@
+package com.coco.bot.config;
+
+import com.coco.bot.service.MusicService;
+import com.coco.bot.service.PlaylistService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 快速啟動模式的背景初始化
+ *
+ * 啟用 spring.main.lazy-initialization 時，資料庫遷移、JPA 與音樂服務不會在啟動時建立，
+ * 應用程式就緒（機器人開始登入閘道）後在虛擬執行緒上依序建立，與閘道登入同時進行。
+ * 初始化完成前收到的指令會等待對應的元件建立完成；初始化失敗時與一般模式相同，關閉應用程式。
+ */
+@Component
+public class BackgroundInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundInitializer.class);
+
+    private final boolean lazyInitialization;
+    private final ObjectProvider<PlaylistSchemaVerifier> schemaVerifier;
+    private final ObjectProvider<PlaylistService> playlistService;
+    private final ObjectProvider<MusicService> musicService;
+    private final StartupTimingReport startupTimingReport;
+
+    @Autowired
+    public BackgroundInitializer(@Value("${spring.main.lazy-initialization:false}") boolean lazyInitialization,
+                                 ObjectProvider<PlaylistSchemaVerifier> schemaVerifier,
+                                 ObjectProvider<PlaylistService> playlistService,
+                                 ObjectProvider<MusicService> musicService,
+                                 StartupTimingReport startupTimingReport) {
+        this.lazyInitialization = lazyInitialization;
+        this.schemaVerifier = schemaVerifier;
+        this.playlistService = playlistService;
+        this.musicService = musicService;
+        this.startupTimingReport = startupTimingReport;
+    }
+
+    /**
+     * 應用程式就緒後開始背景初始化
+     * 在這之前主執行緒還在建立其他元件，同時建立會互相等待 Spring 的單例鎖
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!lazyInitialization) {
+            return;
+        }
+        Thread.ofVirtual().name("background-init").start(() -> initialize(event.getApplicationContext()));
+    }
+
+    private void initialize(ConfigurableApplicationContext context) {
+        try {
+            startupTimingReport.time("資料庫遷移（背景）", schemaVerifier::getObject);
+            startupTimingReport.time("JPA 初始化（背景）", playlistService::getObject);
+            startupTimingReport.time("音樂服務（背景）", musicService::getObject);
+            logger.info("背景初始化完成");
+        } catch (Exception e) {
+            logger.error("背景初始化失敗，關閉應用程式", e);
+            context.close();
+        }
+    }
+}
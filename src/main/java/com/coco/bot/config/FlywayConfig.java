@@ -0,0 +1,21 @@
+package com.coco.bot.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 資料庫遷移配置
+ * 遷移腳本位於 classpath:db/migration。已經手動建立過資料表的資料庫沒有 Flyway 歷史表，
+ * 第一次啟動時會以 V1 作為基準，只執行之後的遷移。
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchemaCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+}
@@ -0,0 +1,42 @@
+package com.coco.bot.config;
+
+import com.coco.bot.controller.DiscordEventController;
+import com.coco.bot.dto.PlaylistSummary;
+import com.coco.bot.entity.PlaylistHeader;
+import com.coco.bot.entity.PlaylistItem;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * GraalVM 原生映像的執行時提示
+ *
+ * Spring AOT 會自動處理 Spring 元件與 JPA 實體的掃描結果，這裡補上 AOT 無法推斷的部分：
+ * - JPQL 建構子表達式（new PlaylistSummary(...)）與實體由 Hibernate 反射建立
+ * - JDA 的 ListenerAdapter 以 MethodHandles 依事件類別名稱查找 onXxx 方法
+ * - 從 classpath 讀取的資源：logback 設定、資料庫遷移腳本、yt-dlp 工作程序腳本與 LavaPlayer 的原生函式庫
+ * 第三方函式庫（Hibernate、Caffeine、H2 等）的其餘提示來自 GraalVM reachability metadata repository。
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // JPA 實體與 JPQL 建構子表達式
+        hints.reflection().registerType(PlaylistItem.class, MemberCategory.values());
+        hints.reflection().registerType(PlaylistHeader.class, MemberCategory.values());
+        hints.reflection().registerType(PlaylistSummary.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // JDA 事件分派
+        hints.reflection().registerType(ListenerAdapter.class, MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.INVOKE_DECLARED_METHODS);
+        hints.reflection().registerType(DiscordEventController.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // classpath 資源
+        hints.resources().registerPattern("logback.xml");
+        hints.resources().registerPattern("db/migration/*.sql");
+        hints.resources().registerPattern("ytdlp/resolver_worker.py");
+        hints.resources().registerPattern("natives/*/*");
+    }
+}
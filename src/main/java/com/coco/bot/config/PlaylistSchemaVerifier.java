@@ -0,0 +1,90 @@
+package com.coco.bot.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 啟動時檢查 playlist_items 的查詢索引
+ * 所有播放清單查詢都依賴 (user_id, playlist_name, song_order) 索引；缺少時查詢會退化成全表掃描。
+ * 預設只記錄警告，設定 playlist.schema.require-lookup-index=true 時會中止啟動。
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class PlaylistSchemaVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistSchemaVerifier.class);
+
+    public static final List<String> LOOKUP_INDEX_COLUMNS = List.of("user_id", "playlist_name", "song_order");
+
+    private static final String INDEX_COLUMNS_QUERY =
+            "SELECT index_name, column_name FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = 'playlist_items' " +
+            "ORDER BY index_name, seq_in_index";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean requireLookupIndex;
+
+    @Autowired
+    public PlaylistSchemaVerifier(JdbcTemplate jdbcTemplate,
+                                  @Value("${playlist.schema.require-lookup-index:false}") boolean requireLookupIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requireLookupIndex = requireLookupIndex;
+    }
+
+    @PostConstruct
+    public void verify() {
+        Map<String, List<String>> indexes;
+        try {
+            indexes = new LinkedHashMap<>();
+            for (Map<String, Object> row : jdbcTemplate.queryForList(INDEX_COLUMNS_QUERY)) {
+                // queryForList 返回的 Map 不區分欄位名稱大小寫
+                String indexName = String.valueOf(row.get("INDEX_NAME"));
+                String columnName = String.valueOf(row.get("COLUMN_NAME"));
+                indexes.computeIfAbsent(indexName, k -> new ArrayList<>()).add(columnName.toLowerCase());
+            }
+        } catch (Exception e) {
+            logger.warn("無法檢查 playlist_items 索引: {}", e.getMessage());
+            return;
+        }
+
+        String indexName = findLookupIndex(indexes);
+        if (indexName != null) {
+            logger.info("playlist_items 查詢索引已就緒: {}", indexName);
+            return;
+        }
+
+        String message = "playlist_items 缺少 (user_id, playlist_name, song_order) 索引，播放清單查詢會進行全表掃描；" +
+                "請確認 Flyway 遷移 V3 已執行";
+        if (requireLookupIndex) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    /**
+     * 找出以查詢欄位為前綴的索引
+     *
+     * @param indexes 索引名稱對應依序排列的欄位
+     * @return 符合的索引名稱，沒有時返回 null
+     */
+    public static String findLookupIndex(Map<String, List<String>> indexes) {
+        for (Map.Entry<String, List<String>> entry : indexes.entrySet()) {
+            List<String> columns = entry.getValue();
+            if (columns.size() >= LOOKUP_INDEX_COLUMNS.size()
+                    && columns.subList(0, LOOKUP_INDEX_COLUMNS.size()).equals(LOOKUP_INDEX_COLUMNS)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+}
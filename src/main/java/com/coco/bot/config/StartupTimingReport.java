@@ -0,0 +1,114 @@
+package com.coco.bot.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 啟動時間報告
+ *
+ * 記錄啟動過程中每個階段花費的時間（Spring 容器、閘道登入、分片就緒、資料庫初始化、音訊來源註冊），
+ * 機器人可以接受指令時輸出一次報告。快速啟動模式下部分階段會在背景或第一次使用時才執行，
+ * 這些階段完成時會另外記錄一行日誌。
+ */
+@Component
+public class StartupTimingReport {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    /** 階段名稱 -> 花費時間（毫秒），依記錄順序排列 */
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private boolean reported;
+
+    /**
+     * Spring 容器啟動完成（CommandLineRunner 執行之前）
+     */
+    @EventListener
+    public void onApplicationStarted(ApplicationStartedEvent event) {
+        if (event.getTimeTaken() != null) {
+            record("Spring 容器", event.getTimeTaken().toMillis());
+        }
+    }
+
+    /**
+     * 執行並記錄一個階段
+     *
+     * @param phase 階段名稱
+     * @param action 階段內容
+     */
+    public void time(String phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * 記錄一個階段花費的時間
+     * 報告已經輸出後才完成的階段（背景初始化、第一次使用時才執行的階段）會直接記錄到日誌
+     *
+     * @param phase 階段名稱
+     * @param durationMillis 花費時間（毫秒）
+     */
+    public void record(String phase, long durationMillis) {
+        boolean late;
+        synchronized (this) {
+            phases.merge(phase, durationMillis, Long::sum);
+            late = reported;
+        }
+        if (late) {
+            logger.info("⏱️ 啟動階段「{}」完成，耗時 {} ms（JVM 已啟動 {} ms）", phase, durationMillis, getUptimeMillis());
+        }
+    }
+
+    /**
+     * 獲取已記錄的階段
+     *
+     * @return 階段名稱 -> 花費時間（毫秒）的副本
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * 輸出啟動時間報告，只輸出一次
+     */
+    public void logReport() {
+        String report;
+        synchronized (this) {
+            if (reported) {
+                return;
+            }
+            reported = true;
+            report = format(phases, getUptimeMillis());
+        }
+        logger.info(report);
+    }
+
+    /**
+     * 產生啟動時間報告
+     *
+     * @param phases 階段名稱 -> 花費時間（毫秒）
+     * @param uptimeMillis JVM 啟動到現在的時間（毫秒）
+     * @return 報告內容
+     */
+    public static String format(Map<String, Long> phases, long uptimeMillis) {
+        StringBuilder report = new StringBuilder("⏱️ 啟動時間報告：");
+        phases.forEach((phase, millis) -> report.append(String.format("%n  %-12s %6d ms", phase, millis)));
+        report.append(String.format("%n  JVM 啟動到可接受指令共 %d ms", uptimeMillis));
+        return report.toString();
+    }
+
+    private static long getUptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,59 @@
+package com.coco.bot.controller;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+
+/**
+ * 指令執行環境
+ *
+ * 前綴指令（!play）與斜線指令（/play）共用同一套處理邏輯，
+ * 處理器只透過此介面取得發送者資訊與回覆，不需要知道指令的來源。
+ */
+public interface CommandContext {
+
+    /**
+     * 獲取發送者的用戶 ID
+     */
+    String getUserId();
+
+    /**
+     * 獲取發送者的用戶名稱（用於日誌）
+     */
+    String getUserName();
+
+    /**
+     * 指令是否來自伺服器（而非私訊）
+     */
+    boolean isFromGuild();
+
+    /**
+     * 獲取指令所在的伺服器，只在 {@link #isFromGuild()} 為 true 時使用
+     */
+    Guild getGuild();
+
+    /**
+     * 獲取發送者在伺服器中的成員資訊，私訊時為 null
+     */
+    Member getMember();
+
+    /**
+     * 獲取指令所在的頻道
+     */
+    MessageChannelUnion getChannel();
+
+    /**
+     * 獲取指令所在的文字頻道，播放通知會發送到這裡
+     */
+    default TextChannel getTextChannel() {
+        return getChannel().asTextChannel();
+    }
+
+    /**
+     * 回覆指令
+     *
+     * @param message 回覆內容
+     */
+    void reply(String message);
+}
@@ -0,0 +1,217 @@
+package com.coco.bot.controller;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指令分派器
+ *
+ * 把指令處理從 JDA 的事件執行緒移到虛擬執行緒上執行，
+ * 避免單一伺服器的慢查詢（資料庫、音軌載入）拖慢所有伺服器的事件處理。
+ *
+ * 同一個伺服器（或私訊頻道）的指令會串成一條 CompletableFuture 鏈，
+ * 保證依照收到的順序執行；不同伺服器之間則互不影響。
+ */
+@Component
+public class CommandDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CommandDispatcher.class);
+
+    private final ExecutorService executor;
+    private final long slowCommandThresholdMillis;
+
+    /** 每個伺服器目前最後一個排隊中的指令 */
+    private final Map<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /** 已分派但尚未完成的指令數量 */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    /** 從分派到開始執行的等待時間 */
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    /** 指令處理時間 */
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    @Autowired
+    public CommandDispatcher(@Value("${discord.command.slow-threshold-ms:2000}") long slowCommandThresholdMillis) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), slowCommandThresholdMillis);
+    }
+
+    /**
+     * 建構子
+     *
+     * @param executor 執行指令的執行器
+     * @param slowCommandThresholdMillis 超過此時間的指令會記錄警告
+     */
+    public CommandDispatcher(ExecutorService executor, long slowCommandThresholdMillis) {
+        this.executor = executor;
+        this.slowCommandThresholdMillis = slowCommandThresholdMillis;
+    }
+
+    /**
+     * 分派指令
+     *
+     * @param key 排序鍵（伺服器 ID，私訊時為頻道 ID），相同鍵的指令依序執行
+     * @param commandName 指令名稱（用於日誌）
+     * @param handler 指令處理
+     * @return 指令完成時完成的 Future
+     */
+    public CompletableFuture<Void> dispatch(long key, String commandName, Runnable handler) {
+        long enqueuedAt = System.nanoTime();
+        dispatchedCount.increment();
+        maxQueueDepth.accumulate(queueDepth.incrementAndGet());
+
+        CompletableFuture<Void> future;
+        try {
+            future = tails.compute(key, (k, previous) -> {
+                // 不論前一個指令如何結束都接著執行，一個失敗不會讓後面排隊的指令被略過
+                CompletableFuture<?> predecessor = previous != null
+                        ? previous.handle((result, error) -> null)
+                        : CompletableFuture.completedFuture(null);
+                return predecessor.thenRunAsync(() -> run(key, commandName, handler, enqueuedAt), executor);
+            });
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            logger.warn("指令分派器已關閉，忽略指令: {}", commandName);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((ignored, throwable) -> {
+            // 鏈尾完成後移除，避免閒置的伺服器留在 Map 中
+            tails.remove(key, future);
+            if (throwable != null && throwable.getCause() instanceof RejectedExecutionException) {
+                queueDepth.decrementAndGet();
+                logger.warn("指令分派器已關閉，忽略指令: {}", commandName);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 執行單一指令並記錄統計
+     * 例外與 Error（例如 NoClassDefFoundError）都會在這裡被吞掉，確保同一個伺服器後續的指令仍會執行，
+     * 排隊深度也一定會減少
+     */
+    private void run(long key, String commandName, Runnable handler, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        totalWaitNanos.add(startedAt - enqueuedAt);
+        try {
+            handler.run();
+            completedCount.increment();
+        } catch (Throwable e) {
+            failedCount.increment();
+            logger.error("處理指令時發生錯誤: {} (鍵: {})", commandName, key, e);
+        } finally {
+            long latency = System.nanoTime() - startedAt;
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            queueDepth.decrementAndGet();
+
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latency);
+            if (latencyMillis >= slowCommandThresholdMillis) {
+                logger.warn("指令處理過慢: {} 花費 {} ms (鍵: {})", commandName, latencyMillis, key);
+            }
+        }
+    }
+
+    /**
+     * 目前已分派但尚未完成的指令數量
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * 目前有指令排隊中的伺服器數量
+     */
+    public int getActiveKeyCount() {
+        return tails.size();
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 平均處理時間（毫秒）
+     */
+    public double getAverageLatencyMillis() {
+        long finished = completedCount.sum() + failedCount.sum();
+        return finished == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000.0 / finished;
+    }
+
+    /**
+     * 最長處理時間（毫秒）
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * 平均排隊等待時間（毫秒）
+     */
+    public double getAverageWaitMillis() {
+        long finished = completedCount.sum() + failedCount.sum();
+        return finished == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / finished;
+    }
+
+    /**
+     * 統計摘要
+     */
+    public String getStatsSummary() {
+        return String.format("分派 %d、完成 %d、失敗 %d、排隊中 %d (最高 %d)、平均等待 %.1f ms、平均處理 %.1f ms、最長處理 %.1f ms",
+                getDispatchedCount(), getCompletedCount(), getFailedCount(), getQueueDepth(), getMaxQueueDepth(),
+                getAverageWaitMillis(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    /**
+     * 關閉分派器，等待排隊中的指令完成
+     */
+    @PreDestroy
+    public void shutdown() {
+        logger.info("正在關閉指令分派器... ({})", getStatsSummary());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("指令分派器未能在時限內完成，強制關閉");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,12 +3,17 @@ package com.coco.bot.controller;
 import com.coco.bot.service.MusicService;
 import com.coco.bot.service.PlaylistService;
 import com.coco.bot.util.CommandParser;
+import com.coco.bot.util.SlashCommands;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
@@ -22,13 +27,24 @@ import java.util.List;
 public class DiscordEventController extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(DiscordEventController.class);
 
-    private final MusicService musicService;
-    private final PlaylistService playlistService;
+    private final ObjectProvider<MusicService> musicService;
+    private final ObjectProvider<PlaylistService> playlistService;
+    private final CommandDispatcher commandDispatcher;
 
+    /** 指令第一次使用時取得的音樂服務；在那之前機器人不可能在語音頻道中 */
+    private volatile MusicService activeMusicService;
+
+    /**
+     * 音樂與播放清單服務透過 ObjectProvider 取得：快速啟動模式下它們（以及 JPA、音源管理器）
+     * 不會因為控制器被建立而提前初始化，改在背景或第一次收到指令時建立。
+     * 不使用 @Lazy 代理，因為原生映像無法在執行時產生類別代理。
+     */
     @Autowired
-    public DiscordEventController(MusicService musicService, PlaylistService playlistService) {
+    public DiscordEventController(ObjectProvider<MusicService> musicService, ObjectProvider<PlaylistService> playlistService,
+                                  CommandDispatcher commandDispatcher) {
         this.musicService = musicService;
         this.playlistService = playlistService;
+        this.commandDispatcher = commandDispatcher;
     }
 
     /**
@@ -44,6 +60,11 @@ public class DiscordEventController extends ListenerAdapter {
 
         String message = event.getMessage().getContentRaw();
 
+        // 絕大多數訊息不是指令，只檢查第一個字元就返回
+        if (!CommandParser.isCommandCandidate(message)) {
+            return;
+        }
+
         // 使用 CommandParser 解析指令
         CommandParser.ParsedCommand parsedCommand = CommandParser.parseCommand(message);
 
@@ -52,102 +73,199 @@ public class DiscordEventController extends ListenerAdapter {
             return;
         }
 
-        String command = parsedCommand.getCommand();
-        List<String> args = parsedCommand.getArguments();
-        String userId = event.getAuthor().getId();
+        dispatchCommand(new MessageCommandContext(event), parsedCommand.getCommand(), parsedCommand.getArguments());
+    }
+
+    /**
+     * Discord 斜線指令事件處理器
+     * 斜線指令轉換為對應的前綴指令名稱與參數後，交給同一套處理器處理
+     *
+     * @param event 斜線指令事件，選項已由 Discord 依照指令定義檢查
+     */
+    @Override
+    public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+        String command = SlashCommands.toPrefixCommand(event.getName());
+        if (command == null) {
+            return;
+        }
+
+        // 先延遲回覆，指令排隊或執行較久時互動也不會逾時
+        SlashCommandContext context = new SlashCommandContext(event);
+        context.defer();
+
+        dispatchCommand(context, command, SlashCommands.toArguments(event));
+    }
+
+    /**
+     * 檢查指令是否可以在目前的頻道使用，並交給分派器執行
+     */
+    private void dispatchCommand(CommandContext context, String command, List<String> args) {
+        String userId = context.getUserId();
 
         logger.debug("收到指令: {} 參數: {} 用戶: {}", command, args, userId);
 
-        // 處理各種指令
+        // 音樂控制指令只能在伺服器中使用
+        if (!context.isFromGuild() && !command.equals("!help") && !command.equals("!playlist")) {
+            context.reply("❌ 此指令只能在伺服器中使用！");
+            return;
+        }
+
+        // 指令處理交給分派器在虛擬執行緒上執行，同一個伺服器的指令依收到順序執行
+        long orderingKey = context.isFromGuild() ? context.getGuild().getIdLong() : context.getChannel().getIdLong();
+        commandDispatcher.dispatch(orderingKey, command, () -> handleCommand(context, command, args, userId));
+    }
+
+    /**
+     * 執行指令
+     * 在分派器的虛擬執行緒上執行，可以安全地進行阻塞操作（資料庫查詢等）
+     */
+    private void handleCommand(CommandContext context, String command, List<String> args, String userId) {
         switch (command) {
             case "!play":
-                handlePlayCommand(event, args);
+                handlePlayCommand(context, args);
                 break;
             case "!playlist":
-                handlePlaylistCommand(event, args, userId);
+                handlePlaylistCommand(context, args, userId);
                 break;
             case "!stop":
-                handleStopCommand(event);
+                handleStopCommand(context);
                 break;
             case "!pause":
-                handlePauseCommand(event);
+                handlePauseCommand(context);
                 break;
             case "!resume":
-                handleResumeCommand(event);
+                handleResumeCommand(context);
                 break;
             case "!skip":
-                handleSkipCommand(event);
+                handleSkipCommand(context);
                 break;
             case "!queue":
-                handleQueueCommand(event);
+                handleQueueCommand(context, args);
+                break;
+            case "!move":
+                handleMoveCommand(context, args);
+                break;
+            case "!remove":
+                handleRemoveCommand(context, args);
+                break;
+            case "!shuffle":
+                handleShuffleCommand(context);
                 break;
             case "!help":
-                handleHelpCommand(event);
+                handleHelpCommand(context);
                 break;
         }
     }
 
+    /**
+     * 語音狀態更新事件處理器
+     * 當機器人自己離開語音頻道時，通知音樂服務釋放該伺服器的資源
+     *
+     * @param event 語音狀態更新事件
+     */
+    @Override
+    public void onGuildVoiceUpdate(GuildVoiceUpdateEvent event) {
+        if (event.getChannelJoined() != null) return;
+        if (event.getMember().getIdLong() != event.getGuild().getSelfMember().getIdLong()) return;
+
+        // 不在 JDA 執行緒上建立音樂服務：還沒建立就代表沒有任何語音連線需要清理
+        MusicService service = activeMusicService;
+        if (service == null) return;
+        service.onVoiceConnectionClosed(event.getGuild().getIdLong());
+    }
+
+    /**
+     * 離開伺服器事件處理器
+     * 機器人被移出伺服器時立即移除該伺服器的音樂管理器
+     *
+     * @param event 離開伺服器事件
+     */
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        MusicService service = activeMusicService;
+        if (service == null) return;
+        service.removeGuild(event.getGuild().getIdLong());
+    }
+
+    /**
+     * 取得音樂服務（快速啟動模式下第一次呼叫時建立），並記錄它已經建立
+     */
+    private MusicService musicService() {
+        MusicService service = activeMusicService;
+        if (service == null) {
+            service = musicService.getObject();
+            activeMusicService = service;
+        }
+        return service;
+    }
+
     /**
      * 處理播放指令
      */
-    private void handlePlayCommand(MessageReceivedEvent event, List<String> args) {
+    private void handlePlayCommand(CommandContext context, List<String> args) {
         if (args.isEmpty()) {
-            event.getChannel().sendMessage("❌ 請提供音樂網址！\n使用方法：`!play <網址>`").queue();
+            context.reply("❌ 請提供音樂網址！\n使用方法：`!play <網址>`");
             return;
         }
 
         String url = args.get(0);
-        Member member = event.getMember();
+        Member member = context.getMember();
 
-        logger.info("用戶 {} 請求播放: {}", event.getAuthor().getName(), url);
+        logger.info("用戶 {} 請求播放: {}", context.getUserName(), url);
 
         // 檢查用戶是否在語音頻道中
         if (member != null && member.getVoiceState() != null && member.getVoiceState().getChannel() != null) {
             VoiceChannel voiceChannel = member.getVoiceState().getChannel().asVoiceChannel();
 
             // 向用戶顯示載入訊息
-            event.getChannel().sendMessage("🔄 正在載入音樂...").queue();
+            context.reply("🔄 正在載入音樂...");
 
             // 委派給音樂服務處理
-            musicService.playMusic(voiceChannel, event.getChannel().asTextChannel(), url);
+            musicService().playMusic(voiceChannel, context.getTextChannel(), url);
         } else {
-            event.getChannel().sendMessage("❌ 您需要先加入一個語音頻道！").queue();
-            logger.warn("用戶 {} 不在語音頻道中", event.getAuthor().getName());
+            context.reply("❌ 您需要先加入一個語音頻道！");
+            logger.warn("用戶 {} 不在語音頻道中", context.getUserName());
         }
     }
 
     /**
      * 處理播放清單指令
      */
-    private void handlePlaylistCommand(MessageReceivedEvent event, List<String> args, String userId) {
+    private void handlePlaylistCommand(CommandContext context, List<String> args, String userId) {
         CommandParser.PlaylistCommand playlistCmd = CommandParser.parsePlaylistCommand(args);
         String subCommand = playlistCmd.getSubCommand();
         List<String> subArgs = playlistCmd.getArguments();
 
         switch (subCommand.toLowerCase()) {
             case "create":
-                handleCreatePlaylist(event, subArgs, userId);
+                handleCreatePlaylist(context, subArgs, userId);
                 break;
             case "add":
-                handleAddToPlaylist(event, subArgs, userId);
+                handleAddToPlaylist(context, subArgs, userId);
+                break;
+            case "import":
+                handleImportPlaylist(context, subArgs, userId);
                 break;
             case "list":
-                handleListPlaylists(event, userId);
+                handleListPlaylists(context, userId);
                 break;
             case "show":
-                handleShowPlaylist(event, subArgs, userId);
+                handleShowPlaylist(context, subArgs, userId);
                 break;
             case "delete":
-                handleDeletePlaylist(event, subArgs, userId);
+                handleDeletePlaylist(context, subArgs, userId);
                 break;
             case "remove":
-                handleRemoveFromPlaylist(event, subArgs, userId);
+                handleRemoveFromPlaylist(context, subArgs, userId);
+                break;
+            case "move":
+                handleMoveInPlaylist(context, subArgs, userId);
                 break;
             case "play":
-                handlePlayPlaylist(event, subArgs, userId);
+                handlePlayPlaylist(context, subArgs, userId);
                 break;
             default:
-                handlePlaylistHelp(event);
+                handlePlaylistHelp(context);
                 break;
         }
     }
@@ -155,94 +273,161 @@ public class DiscordEventController extends ListenerAdapter {
     /**
      * 處理停止指令
      */
-    private void handleStopCommand(MessageReceivedEvent event) {
-        musicService.stopMusic();
-        event.getChannel().sendMessage("⏹️ 已停止播放並清空佇列").queue();
+    private void handleStopCommand(CommandContext context) {
+        musicService().stopMusic(context.getGuild());
+        context.reply("⏹️ 已停止播放並清空佇列");
         logger.info("用戶停止播放並清空佇列");
     }
 
     /**
      * 處理暫停指令
      */
-    private void handlePauseCommand(MessageReceivedEvent event) {
-        musicService.pauseMusic();
-        event.getChannel().sendMessage("⏸️ 已暫停播放").queue();
+    private void handlePauseCommand(CommandContext context) {
+        musicService().pauseMusic(context.getGuild());
+        context.reply("⏸️ 已暫停播放");
         logger.info("用戶暫停播放");
     }
 
     /**
      * 處理恢復指令
      */
-    private void handleResumeCommand(MessageReceivedEvent event) {
-        musicService.resumeMusic();
-        event.getChannel().sendMessage("▶️ 已恢復播放").queue();
+    private void handleResumeCommand(CommandContext context) {
+        musicService().resumeMusic(context.getGuild());
+        context.reply("▶️ 已恢復播放");
         logger.info("用戶恢復播放");
     }
 
     /**
      * 處理跳過指令
      */
-    private void handleSkipCommand(MessageReceivedEvent event) {
-        String result = musicService.skipMusic();
-        event.getChannel().sendMessage(result).queue();
+    private void handleSkipCommand(CommandContext context) {
+        String result = musicService().skipMusic(context.getGuild());
+        context.reply(result);
     }
 
     /**
      * 處理佇列查詢指令
      */
-    private void handleQueueCommand(MessageReceivedEvent event) {
-        String queueInfo = musicService.getQueueInfo();
-        event.getChannel().sendMessage(queueInfo).queue();
+    private void handleQueueCommand(CommandContext context, List<String> args) {
+        int page = 1;
+        if (!args.isEmpty()) {
+            Integer parsed = parsePosition(args.get(0));
+            if (parsed == null) {
+                context.reply("❌ 無效的頁碼！\n使用方法：`!queue [頁碼]`");
+                return;
+            }
+            page = parsed;
+        }
+        String queueInfo = musicService().getQueueInfo(context.getGuild(), page);
+        context.reply(queueInfo);
+    }
+
+    /**
+     * 處理移動佇列音樂指令
+     */
+    private void handleMoveCommand(CommandContext context, List<String> args) {
+        Integer from = args.size() >= 2 ? parsePosition(args.get(0)) : null;
+        Integer to = args.size() >= 2 ? parsePosition(args.get(1)) : null;
+        if (from == null || to == null) {
+            context.reply("❌ 請提供正確的位置！\n使用方法：`!move <原位置> <新位置>`");
+            return;
+        }
+        context.reply(musicService().moveTrack(context.getGuild(), from, to));
+    }
+
+    /**
+     * 處理移除佇列音樂指令
+     */
+    private void handleRemoveCommand(CommandContext context, List<String> args) {
+        Integer position = args.isEmpty() ? null : parsePosition(args.get(0));
+        if (position == null) {
+            context.reply("❌ 請提供正確的位置！\n使用方法：`!remove <位置>`");
+            return;
+        }
+        context.reply(musicService().removeTrack(context.getGuild(), position));
+    }
+
+    /**
+     * 處理隨機排序佇列指令
+     */
+    private void handleShuffleCommand(CommandContext context) {
+        context.reply(musicService().shuffleQueue(context.getGuild()));
+    }
+
+    /**
+     * 解析從 1 開始的位置或頁碼
+     *
+     * @return 位置，無效時返回 null
+     */
+    private Integer parsePosition(String value) {
+        try {
+            int position = Integer.parseInt(value);
+            return position >= 1 ? position : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     /**
      * 處理幫助指令
      */
-    private void handleHelpCommand(MessageReceivedEvent event) {
+    private void handleHelpCommand(CommandContext context) {
         String helpMessage = "🎵 **音樂機器人指令：**\n" +
                 "`!play <網址>` - 播放音樂（支援 YouTube、SoundCloud 等）\n" +
                 "`!stop` - 停止播放並清空佇列\n" +
                 "`!pause` - 暫停播放\n" +
                 "`!resume` - 恢復播放\n" +
                 "`!skip` - 跳過目前音樂\n" +
-                "`!queue` - 查看播放佇列\n" +
+                "`!queue [頁碼]` - 查看播放佇列\n" +
+                "`!move <原位置> <新位置>` - 移動佇列中的音樂\n" +
+                "`!remove <位置>` - 從佇列移除音樂\n" +
+                "`!shuffle` - 隨機排序佇列\n" +
                 "`!playlist` - 播放清單管理\n" +
-                "`!help` - 顯示此幫助訊息\n\n" +
+                "`!help` - 顯示此幫助訊息\n" +
+                "所有指令也可以用斜線指令執行，例如 `/play`\n\n" +
                 "🎯 **使用範例：**\n" +
                 "`!play https://www.youtube.com/watch?v=dQw4w9WgXcQ`";
-        event.getChannel().sendMessage(helpMessage).queue();
+        context.reply(helpMessage);
     }
 
     // 播放清單相關方法委派給 PlaylistService 處理
-    private void handleCreatePlaylist(MessageReceivedEvent event, List<String> args, String userId) {
-        playlistService.handleCreatePlaylist(event, args, userId);
+    private void handleCreatePlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleCreatePlaylist(context, args, userId);
+    }
+
+    private void handleAddToPlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleAddToPlaylist(context, args, userId);
+    }
+
+    private void handleImportPlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleImportPlaylist(context, args, userId);
     }
 
-    private void handleAddToPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
-        playlistService.handleAddToPlaylist(event, args, userId);
+    private void handleListPlaylists(CommandContext context, String userId) {
+        playlistService.getObject().handleListPlaylists(context, userId);
     }
 
-    private void handleListPlaylists(MessageReceivedEvent event, String userId) {
-        playlistService.handleListPlaylists(event, userId);
+    private void handleShowPlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleShowPlaylist(context, args, userId);
     }
 
-    private void handleShowPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
-        playlistService.handleShowPlaylist(event, args, userId);
+    private void handleDeletePlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleDeletePlaylist(context, args, userId);
     }
 
-    private void handleDeletePlaylist(MessageReceivedEvent event, List<String> args, String userId) {
-        playlistService.handleDeletePlaylist(event, args, userId);
+    private void handleRemoveFromPlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleRemoveFromPlaylist(context, args, userId);
     }
 
-    private void handleRemoveFromPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
-        playlistService.handleRemoveFromPlaylist(event, args, userId);
+    private void handleMoveInPlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handleMoveInPlaylist(context, args, userId);
     }
 
-    private void handlePlayPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
-        playlistService.handlePlayPlaylist(event, args, userId, musicService);
+    private void handlePlayPlaylist(CommandContext context, List<String> args, String userId) {
+        playlistService.getObject().handlePlayPlaylist(context, args, userId, musicService());
     }
 
-    private void handlePlaylistHelp(MessageReceivedEvent event) {
-        playlistService.handlePlaylistHelp(event);
+    private void handlePlaylistHelp(CommandContext context) {
+        playlistService.getObject().handlePlaylistHelp(context);
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.coco.bot.controller;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+/**
+ * 前綴指令的執行環境，回覆直接發送到訊息所在的頻道
+ */
+class MessageCommandContext implements CommandContext {
+    private final MessageReceivedEvent event;
+
+    MessageCommandContext(MessageReceivedEvent event) {
+        this.event = event;
+    }
+
+    @Override
+    public String getUserId() {
+        return event.getAuthor().getId();
+    }
+
+    @Override
+    public String getUserName() {
+        return event.getAuthor().getName();
+    }
+
+    @Override
+    public boolean isFromGuild() {
+        return event.isFromGuild();
+    }
+
+    @Override
+    public Guild getGuild() {
+        return event.getGuild();
+    }
+
+    @Override
+    public Member getMember() {
+        return event.getMember();
+    }
+
+    @Override
+    public MessageChannelUnion getChannel() {
+        return event.getChannel();
+    }
+
+    @Override
+    public void reply(String message) {
+        event.getChannel().sendMessage(message).queue();
+    }
+}
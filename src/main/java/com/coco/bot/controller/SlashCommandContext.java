@@ -0,0 +1,63 @@
+package com.coco.bot.controller;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+/**
+ * 斜線指令的執行環境
+ *
+ * Discord 要求在 3 秒內回應互動，而指令可能在分派器中排隊或需要查詢資料庫、解析音軌，
+ * 所以收到互動時先延遲回覆（顯示「思考中」），之後的回覆都透過互動的 hook 發送：
+ * 第一則回覆會取代「思考中」的訊息，其餘作為後續訊息發送。
+ */
+class SlashCommandContext implements CommandContext {
+    private final SlashCommandInteractionEvent event;
+
+    SlashCommandContext(SlashCommandInteractionEvent event) {
+        this.event = event;
+    }
+
+    /**
+     * 延遲回覆互動，必須在 JDA 事件執行緒上、分派指令之前呼叫
+     */
+    void defer() {
+        event.deferReply().queue();
+    }
+
+    @Override
+    public String getUserId() {
+        return event.getUser().getId();
+    }
+
+    @Override
+    public String getUserName() {
+        return event.getUser().getName();
+    }
+
+    @Override
+    public boolean isFromGuild() {
+        return event.isFromGuild();
+    }
+
+    @Override
+    public Guild getGuild() {
+        return event.getGuild();
+    }
+
+    @Override
+    public Member getMember() {
+        return event.getMember();
+    }
+
+    @Override
+    public MessageChannelUnion getChannel() {
+        return event.getChannel();
+    }
+
+    @Override
+    public void reply(String message) {
+        event.getHook().sendMessage(message).queue();
+    }
+}
@@ -1,5 +1,6 @@
 package com.coco.bot.dao;
 
+import com.coco.bot.dto.PlaylistSummary;
 import com.coco.bot.entity.PlaylistItem;
 import java.util.List;
 
@@ -17,6 +18,17 @@ public interface PlaylistDao {
      */
     boolean save(PlaylistItem playlistItem);
 
+    /**
+     * 批次添加多首歌曲到播放清單末端
+     * 歌曲會依照清單順序接在目前最後一首之後，並以 JDBC 批次寫入
+     *
+     * @param userId 用戶ID
+     * @param playlistName 播放清單名稱
+     * @param songs 要添加的歌曲（只需設定標題、URL 與時長）
+     * @return 保存成功返回 true
+     */
+    boolean addSongsToPlaylist(String userId, String playlistName, List<PlaylistItem> songs);
+
     /**
      * 檢查播放清單是否存在
      *
@@ -34,6 +46,14 @@ public interface PlaylistDao {
      */
     List<String> findDistinctPlaylistNamesByUserId(String userId);
 
+    /**
+     * 獲取用戶所有播放清單的摘要
+     *
+     * @param userId 用戶ID
+     * @return 播放清單摘要列表（依名稱排序）
+     */
+    List<PlaylistSummary> findPlaylistSummariesByUserId(String userId);
+
     /**
      * 獲取播放清單中的所有歌曲
      *
@@ -62,22 +82,39 @@ public interface PlaylistDao {
     boolean deleteByUserIdAndPlaylistName(String userId, String playlistName);
 
     /**
-     * 刪除播放清單中的特定歌曲
+     * 獲取播放清單中指定播放位置的歌曲
      *
      * @param userId 用戶ID
      * @param playlistName 播放清單名稱
-     * @param songOrder 歌曲順序
+     * @param index 播放位置（從 0 開始，不包含空播放清單的標記項目）
+     * @return 歌曲，位置超出範圍時返回 null
+     */
+    PlaylistItem findSongAtPosition(String userId, String playlistName, int index);
+
+    /**
+     * 刪除單一歌曲
+     *
+     * @param song 要刪除的歌曲項目（依 ID、用戶ID 與播放清單名稱比對）
      * @return 刪除成功返回 true
      */
-    boolean deleteBySongOrder(String userId, String playlistName, Integer songOrder);
+    boolean deleteSong(PlaylistItem song);
+
+    /**
+     * 更新單一歌曲的順序鍵
+     *
+     * @param song 要更新的歌曲項目（依 ID、用戶ID 與播放清單名稱比對）
+     * @param songOrder 新的順序鍵
+     * @return 更新成功返回 true
+     */
+    boolean updateSongOrder(PlaylistItem song, Integer songOrder);
 
     /**
-     * 重新排序歌曲（當刪除歌曲後）
+     * 重新編號播放清單，讓順序鍵恢復為固定間隔
      *
      * @param userId 用戶ID
      * @param playlistName 播放清單名稱
-     * @param deletedOrder 被刪除的歌曲順序
-     * @return 重新排序成功返回 true
+     * @param gap 順序鍵間隔
+     * @return 重新編號成功返回 true
      */
-    boolean reorderSongsAfterDeletion(String userId, String playlistName, Integer deletedOrder);
+    boolean renumberPlaylist(String userId, String playlistName, int gap);
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.coco.bot.dao.impl;
+
+import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.dto.PlaylistSummary;
+import com.coco.bot.entity.PlaylistItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 帶讀取快取的播放清單數據訪問物件
+ *
+ * 播放清單很少變動，但 !playlist show / list / play 每次都會查詢資料庫。
+ * 這裡以 Caffeine 快取用戶的播放清單名稱、摘要與歌曲列表（有數量上限與過期時間），
+ * 所有寫入方法都會讓對應用戶或播放清單的快取失效，其餘方法直接交給下一層（TimedPlaylistDao → PlaylistDaoImpl）。
+ */
+@Repository
+@Primary
+public class CachingPlaylistDao implements PlaylistDao {
+    private static final Logger logger = LoggerFactory.getLogger(CachingPlaylistDao.class);
+
+    private record PlaylistKey(String userId, String playlistName) {
+    }
+
+    private final PlaylistDao delegate;
+
+    // 用戶ID -> 播放清單名稱（同時用於判斷播放清單是否存在）
+    private final Cache<String, List<String>> playlistNames;
+    // 用戶ID -> 播放清單摘要
+    private final Cache<String, List<PlaylistSummary>> summaries;
+    // (用戶ID, 播放清單名稱) -> 歌曲列表
+    private final Cache<PlaylistKey, List<PlaylistItem>> songs;
+
+    @Autowired
+    public CachingPlaylistDao(@Qualifier("timedPlaylistDao") PlaylistDao delegate,
+                              @Value("${playlist.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${playlist.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+                              MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.playlistNames = newCache(maximumSize, expireAfterWriteSeconds);
+        this.summaries = newCache(maximumSize, expireAfterWriteSeconds);
+        this.songs = newCache(maximumSize, expireAfterWriteSeconds);
+        CaffeineCacheMetrics.monitor(meterRegistry, playlistNames, "playlist.names");
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "playlist.summaries");
+        CaffeineCacheMetrics.monitor(meterRegistry, songs, "playlist.songs");
+        logger.info("播放清單快取已啟用: maximumSize={}, expireAfterWrite={}s", maximumSize, expireAfterWriteSeconds);
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, long expireAfterWriteSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // 讀取方法
+
+    @Override
+    public boolean existsByUserIdAndPlaylistName(String userId, String playlistName) {
+        return findDistinctPlaylistNamesByUserId(userId).contains(playlistName);
+    }
+
+    @Override
+    public List<String> findDistinctPlaylistNamesByUserId(String userId) {
+        return playlistNames.get(userId, key -> List.copyOf(delegate.findDistinctPlaylistNamesByUserId(key)));
+    }
+
+    @Override
+    public List<PlaylistSummary> findPlaylistSummariesByUserId(String userId) {
+        return summaries.get(userId, key -> List.copyOf(delegate.findPlaylistSummariesByUserId(key)));
+    }
+
+    @Override
+    public List<PlaylistItem> findByUserIdAndPlaylistNameOrderBySongOrder(String userId, String playlistName) {
+        return songs.get(new PlaylistKey(userId, playlistName),
+                key -> List.copyOf(delegate.findByUserIdAndPlaylistNameOrderBySongOrder(key.userId(), key.playlistName())));
+    }
+
+    // 以下讀取用於寫入前的定位，需要最新資料，不經過快取
+
+    @Override
+    public Integer findMaxSongOrderByUserIdAndPlaylistName(String userId, String playlistName) {
+        return delegate.findMaxSongOrderByUserIdAndPlaylistName(userId, playlistName);
+    }
+
+    @Override
+    public PlaylistItem findSongAtPosition(String userId, String playlistName, int index) {
+        return delegate.findSongAtPosition(userId, playlistName, index);
+    }
+
+    // 寫入方法
+
+    @Override
+    public boolean save(PlaylistItem playlistItem) {
+        try {
+            return delegate.save(playlistItem);
+        } finally {
+            invalidatePlaylist(playlistItem.getUserId(), playlistItem.getPlaylistName());
+        }
+    }
+
+    @Override
+    public boolean addSongsToPlaylist(String userId, String playlistName, List<PlaylistItem> songs) {
+        try {
+            return delegate.addSongsToPlaylist(userId, playlistName, songs);
+        } finally {
+            invalidatePlaylist(userId, playlistName);
+        }
+    }
+
+    @Override
+    public boolean deleteByUserIdAndPlaylistName(String userId, String playlistName) {
+        try {
+            return delegate.deleteByUserIdAndPlaylistName(userId, playlistName);
+        } finally {
+            invalidatePlaylist(userId, playlistName);
+        }
+    }
+
+    @Override
+    public boolean deleteSong(PlaylistItem song) {
+        try {
+            return delegate.deleteSong(song);
+        } finally {
+            invalidatePlaylist(song.getUserId(), song.getPlaylistName());
+        }
+    }
+
+    @Override
+    public boolean updateSongOrder(PlaylistItem song, Integer songOrder) {
+        try {
+            return delegate.updateSongOrder(song, songOrder);
+        } finally {
+            invalidatePlaylist(song.getUserId(), song.getPlaylistName());
+        }
+    }
+
+    @Override
+    public boolean renumberPlaylist(String userId, String playlistName, int gap) {
+        try {
+            return delegate.renumberPlaylist(userId, playlistName, gap);
+        } finally {
+            invalidatePlaylist(userId, playlistName);
+        }
+    }
+
+    /**
+     * 讓播放清單與所屬用戶的快取失效
+     * 在交易中寫入時，提交後會再失效一次，避免其他執行緒在提交前讀到舊資料並重新放回快取
+     */
+    private void invalidatePlaylist(String userId, String playlistName) {
+        evict(userId, playlistName);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId, playlistName);
+                }
+            });
+        }
+    }
+
+    private void evict(String userId, String playlistName) {
+        playlistNames.invalidate(userId);
+        summaries.invalidate(userId);
+        songs.invalidate(new PlaylistKey(userId, playlistName));
+    }
+
+    // 快取統計
+
+    public CacheStats getPlaylistNamesStats() {
+        return playlistNames.stats();
+    }
+
+    public CacheStats getSummariesStats() {
+        return summaries.stats();
+    }
+
+    public CacheStats getSongsStats() {
+        return songs.stats();
+    }
+
+    public long getEstimatedSize() {
+        return playlistNames.estimatedSize() + summaries.estimatedSize() + songs.estimatedSize();
+    }
+
+    /**
+     * 快取統計摘要
+     */
+    public String getStatsSummary() {
+        return String.format("播放清單快取: names %s, summaries %s, songs %s",
+                formatStats(playlistNames.stats()), formatStats(summaries.stats()), formatStats(songs.stats()));
+    }
+
+    @PreDestroy
+    public void logStats() {
+        logger.info(getStatsSummary());
+    }
+
+    private static String formatStats(CacheStats stats) {
+        return String.format("(hit=%d, miss=%d, hitRate=%.1f%%, evicted=%d)",
+                stats.hitCount(), stats.missCount(), stats.hitRate() * 100, stats.evictionCount());
+    }
+}
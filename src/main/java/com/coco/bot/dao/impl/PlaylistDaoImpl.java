@@ -1,10 +1,15 @@
 package com.coco.bot.dao.impl;
 
 import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.dto.PlaylistSummary;
 import com.coco.bot.entity.PlaylistItem;
+import com.coco.bot.repository.PlaylistHeaderRepository;
 import com.coco.bot.repository.PlaylistItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -16,16 +21,52 @@ import java.util.List;
 public class PlaylistDaoImpl implements PlaylistDao {
 
     private final PlaylistItemRepository playlistItemRepository;
+    private final PlaylistHeaderRepository playlistHeaderRepository;
 
     @Autowired
-    public PlaylistDaoImpl(PlaylistItemRepository playlistItemRepository) {
+    public PlaylistDaoImpl(PlaylistItemRepository playlistItemRepository, PlaylistHeaderRepository playlistHeaderRepository) {
         this.playlistItemRepository = playlistItemRepository;
+        this.playlistHeaderRepository = playlistHeaderRepository;
     }
 
     @Override
+    @Transactional
     public boolean save(PlaylistItem playlistItem) {
         try {
+            ensureHeader(playlistItem.getUserId(), playlistItem.getPlaylistName());
             playlistItemRepository.save(playlistItem);
+            // 表格 ID 產生器不會立即送出 INSERT，在此交易內送出讓錯誤可以在這裡被捕捉
+            playlistItemRepository.flush();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean addSongsToPlaylist(String userId, String playlistName, List<PlaylistItem> songs) {
+        if (songs.isEmpty()) {
+            return true;
+        }
+        try {
+            ensureHeader(userId, playlistName);
+            Integer maxOrder = playlistItemRepository.findMaxSongOrderByUserIdAndPlaylistName(userId, playlistName);
+            int nextOrder = (maxOrder == null ? 0 : maxOrder) + PlaylistItem.ORDER_GAP;
+
+            for (PlaylistItem song : songs) {
+                song.setUserId(userId);
+                song.setPlaylistName(playlistName);
+                song.setSongOrder(nextOrder);
+                nextOrder += PlaylistItem.ORDER_GAP;
+                if (song.getDuration() == null) {
+                    song.setDuration(0L);
+                }
+            }
+
+            // 在此交易內送出批次 INSERT，讓錯誤可以在這裡被捕捉
+            playlistItemRepository.saveAll(songs);
+            playlistItemRepository.flush();
             return true;
         } catch (Exception e) {
             return false;
@@ -34,17 +75,22 @@ public class PlaylistDaoImpl implements PlaylistDao {
 
     @Override
     public boolean existsByUserIdAndPlaylistName(String userId, String playlistName) {
-        return playlistItemRepository.existsByUserIdAndPlaylistName(userId, playlistName);
+        return playlistHeaderRepository.existsByUserIdAndPlaylistName(userId, playlistName);
     }
 
     @Override
     public List<String> findDistinctPlaylistNamesByUserId(String userId) {
-        return playlistItemRepository.findDistinctPlaylistNamesByUserId(userId);
+        return playlistHeaderRepository.findPlaylistNamesByUserId(userId);
+    }
+
+    @Override
+    public List<PlaylistSummary> findPlaylistSummariesByUserId(String userId) {
+        return playlistItemRepository.findPlaylistSummariesByUserId(userId);
     }
 
     @Override
     public List<PlaylistItem> findByUserIdAndPlaylistNameOrderBySongOrder(String userId, String playlistName) {
-        return playlistItemRepository.findByUserIdAndPlaylistNameOrderBySongOrder(userId, playlistName);
+        return playlistItemRepository.findByUserIdAndPlaylistNameOrderBySongOrderAscIdAsc(userId, playlistName);
     }
 
     @Override
@@ -53,9 +99,11 @@ public class PlaylistDaoImpl implements PlaylistDao {
     }
 
     @Override
+    @Transactional
     public boolean deleteByUserIdAndPlaylistName(String userId, String playlistName) {
         try {
             playlistItemRepository.deleteByUserIdAndPlaylistName(userId, playlistName);
+            playlistHeaderRepository.deleteByUserIdAndPlaylistName(userId, playlistName);
             return true;
         } catch (Exception e) {
             return false;
@@ -63,22 +111,58 @@ public class PlaylistDaoImpl implements PlaylistDao {
     }
 
     @Override
-    public boolean deleteBySongOrder(String userId, String playlistName, Integer songOrder) {
+    public PlaylistItem findSongAtPosition(String userId, String playlistName, int index) {
+        if (index < 0) {
+            return null;
+        }
+        List<PlaylistItem> songs = playlistItemRepository.findSongsInPlayOrder(userId, playlistName, PageRequest.of(index, 1));
+        return songs.isEmpty() ? null : songs.get(0);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteSong(PlaylistItem song) {
         try {
-            playlistItemRepository.deleteBySongOrder(userId, playlistName, songOrder);
-            return true;
+            return playlistItemRepository.deleteSong(song.getId(), song.getUserId(), song.getPlaylistName()) == 1;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean updateSongOrder(PlaylistItem song, Integer songOrder) {
+        try {
+            return playlistItemRepository.updateSongOrder(song.getId(), song.getUserId(), song.getPlaylistName(), songOrder) == 1;
         } catch (Exception e) {
             return false;
         }
     }
 
     @Override
-    public boolean reorderSongsAfterDeletion(String userId, String playlistName, Integer deletedOrder) {
+    @Transactional
+    public boolean renumberPlaylist(String userId, String playlistName, int gap) {
         try {
-            playlistItemRepository.reorderSongsAfterDeletion(userId, playlistName, deletedOrder);
+            List<PlaylistItem> songs = playlistItemRepository.findSongsInPlayOrder(userId, playlistName, Pageable.unpaged());
+            int order = gap;
+            for (PlaylistItem song : songs) {
+                // 只有順序鍵改變的項目才會被 Hibernate 寫回
+                if (song.getSongOrder() == null || song.getSongOrder() != order) {
+                    song.setSongOrder(order);
+                }
+                order += gap;
+            }
+            playlistItemRepository.flush();
             return true;
         } catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * 播放清單第一次寫入時建立表頭（INSERT IGNORE，兩個並發的第一次寫入不會互相衝突）
+     */
+    private void ensureHeader(String userId, String playlistName) {
+        playlistHeaderRepository.insertIfAbsent(userId, playlistName);
+    }
 }
\ No newline at end of file
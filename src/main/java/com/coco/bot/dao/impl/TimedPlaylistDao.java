@@ -0,0 +1,117 @@
+package com.coco.bot.dao.impl;
+
+import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.dto.PlaylistSummary;
+import com.coco.bot.entity.PlaylistItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 記錄每個資料庫操作耗時的播放清單 DAO
+ *
+ * 位於 CachingPlaylistDao 與 PlaylistDaoImpl 之間，只計算真正送到資料庫的操作，
+ * 快取命中不會出現在這裡。每個方法對應一個 playlist.dao{method=...} 計時器。
+ */
+@Repository
+public class TimedPlaylistDao implements PlaylistDao {
+
+    static final String TIMER_NAME = "playlist.dao";
+
+    private final PlaylistDao delegate;
+    private final MeterRegistry meterRegistry;
+
+    /** 方法名稱 -> 計時器 */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TimedPlaylistDao(@Qualifier("playlistDaoImpl") PlaylistDao delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean save(PlaylistItem playlistItem) {
+        return time("save", () -> delegate.save(playlistItem));
+    }
+
+    @Override
+    public boolean addSongsToPlaylist(String userId, String playlistName, List<PlaylistItem> songs) {
+        return time("addSongsToPlaylist", () -> delegate.addSongsToPlaylist(userId, playlistName, songs));
+    }
+
+    @Override
+    public boolean existsByUserIdAndPlaylistName(String userId, String playlistName) {
+        return time("existsByUserIdAndPlaylistName",
+                () -> delegate.existsByUserIdAndPlaylistName(userId, playlistName));
+    }
+
+    @Override
+    public List<String> findDistinctPlaylistNamesByUserId(String userId) {
+        return time("findDistinctPlaylistNamesByUserId", () -> delegate.findDistinctPlaylistNamesByUserId(userId));
+    }
+
+    @Override
+    public List<PlaylistSummary> findPlaylistSummariesByUserId(String userId) {
+        return time("findPlaylistSummariesByUserId", () -> delegate.findPlaylistSummariesByUserId(userId));
+    }
+
+    @Override
+    public List<PlaylistItem> findByUserIdAndPlaylistNameOrderBySongOrder(String userId, String playlistName) {
+        return time("findByUserIdAndPlaylistNameOrderBySongOrder",
+                () -> delegate.findByUserIdAndPlaylistNameOrderBySongOrder(userId, playlistName));
+    }
+
+    @Override
+    public Integer findMaxSongOrderByUserIdAndPlaylistName(String userId, String playlistName) {
+        return time("findMaxSongOrderByUserIdAndPlaylistName",
+                () -> delegate.findMaxSongOrderByUserIdAndPlaylistName(userId, playlistName));
+    }
+
+    @Override
+    public boolean deleteByUserIdAndPlaylistName(String userId, String playlistName) {
+        return time("deleteByUserIdAndPlaylistName",
+                () -> delegate.deleteByUserIdAndPlaylistName(userId, playlistName));
+    }
+
+    @Override
+    public PlaylistItem findSongAtPosition(String userId, String playlistName, int index) {
+        return time("findSongAtPosition", () -> delegate.findSongAtPosition(userId, playlistName, index));
+    }
+
+    @Override
+    public boolean deleteSong(PlaylistItem song) {
+        return time("deleteSong", () -> delegate.deleteSong(song));
+    }
+
+    @Override
+    public boolean updateSongOrder(PlaylistItem song, Integer songOrder) {
+        return time("updateSongOrder", () -> delegate.updateSongOrder(song, songOrder));
+    }
+
+    @Override
+    public boolean renumberPlaylist(String userId, String playlistName, int gap) {
+        return time("renumberPlaylist", () -> delegate.renumberPlaylist(userId, playlistName, gap));
+    }
+
+    private <T> T time(String method, Supplier<T> operation) {
+        Timer timer = timers.computeIfAbsent(method, name -> Timer.builder(TIMER_NAME)
+                .description("播放清單資料庫操作耗時")
+                .tag("method", name)
+                .register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.coco.bot.dto;
+
+/**
+ * 播放清單摘要
+ * 由 JPQL 建構子表達式直接建立，不需要載入播放清單項目實體
+ */
+public class PlaylistSummary {
+    private final String playlistName;
+    private final long songCount;
+    private final long totalDuration;
+
+    // JPQL 建構子表達式使用的建構子（COUNT 與 SUM 返回 Long）
+    public PlaylistSummary(String playlistName, Long songCount, Long totalDuration) {
+        this.playlistName = playlistName;
+        this.songCount = songCount != null ? songCount : 0L;
+        this.totalDuration = totalDuration != null ? totalDuration : 0L;
+    }
+
+    public String getPlaylistName() {
+        return playlistName;
+    }
+
+    /**
+     * 歌曲數量（不包含空播放清單的標記項目）
+     */
+    public long getSongCount() {
+        return songCount;
+    }
+
+    /**
+     * 總時長（毫秒），未知時長的歌曲不計入
+     */
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    @Override
+    public String toString() {
+        return "PlaylistSummary{" +
+                "playlistName='" + playlistName + '\'' +
+                ", songCount=" + songCount +
+                ", totalDuration=" + totalDuration +
+                '}';
+    }
+}
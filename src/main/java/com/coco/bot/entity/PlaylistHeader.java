@@ -0,0 +1,75 @@
+package com.coco.bot.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 播放清單表頭實體類
+ * 每個用戶的每個播放清單一筆，檢查播放清單是否存在與列出名稱時不需要掃描歌曲項目
+ */
+@Entity
+@Table(name = "playlist_headers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_playlist_headers_user_name", columnNames = {"user_id", "playlist_name"})
+})
+public class PlaylistHeader {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, length = 20)
+    private String userId;
+
+    @Column(name = "playlist_name", nullable = false, length = 100)
+    private String playlistName;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // 無參數建構子
+    public PlaylistHeader() {}
+
+    public PlaylistHeader(String userId, String playlistName) {
+        this.userId = userId;
+        this.playlistName = playlistName;
+    }
+
+    // Getter 和 Setter 方法
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getPlaylistName() {
+        return playlistName;
+    }
+
+    public void setPlaylistName(String playlistName) {
+        this.playlistName = playlistName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PlaylistHeader{" +
+                "id=" + id +
+                ", userId='" + userId + '\'' +
+                ", playlistName='" + playlistName + '\'' +
+                '}';
+    }
+}
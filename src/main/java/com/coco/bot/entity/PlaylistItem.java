@@ -9,10 +9,25 @@ import java.time.LocalDateTime;
  * 播放清單項目實體類
  */
 @Entity
-@Table(name = "playlist_items")
+@Table(name = "playlist_items", indexes = {
+        // 所有查詢都以 (user_id, playlist_name) 篩選並依 song_order 排序，由 V3 遷移建立
+        @Index(name = "idx_song_order", columnList = "user_id, playlist_name, song_order")
+})
 public class PlaylistItem {
+    /**
+     * 相鄰歌曲之間的順序鍵間隔
+     * song_order 只用來排序，顯示的序號在讀取時依位置計算；
+     * 保留間隔讓插入與移動只需要更新一筆資料
+     */
+    public static final int ORDER_GAP = 1024;
+
+    // MySQL 沒有序列，使用 id_generator 表配合 pooled 最佳化：每次取號保留 50 個 ID，
+    // 讓 Hibernate 可以批次 INSERT（IDENTITY 會迫使每筆資料單獨寫入以取得 ID）
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "playlist_item_id")
+    @TableGenerator(name = "playlist_item_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "playlist_items", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -1,10 +1,18 @@
 package com.coco.bot.handler;
 
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 音頻播放發送處理器
@@ -20,35 +28,120 @@ import java.nio.ByteBuffer;
  * 技術細節：
  * - 使用 Opus 編碼格式（Discord 的原生音頻格式）
  * - 每次提供 20ms 的音頻數據
- * - 使用 1024 字節的緩衝區來處理音頻數據
+ * - 使用一個可重複使用的直接內存緩衝區，大小為 Discord Opus 格式的最大幀長度；
+ *   每一幀都寫入同一個緩衝區，JDA 可以直接從原生內存讀取，不會產生每幀的垃圾物件
+ * - 預設以非阻塞方式向播放器取幀；設定等待時間後，幀緩衝暫時為空時最多等待該時間
+ * - 啟用預先緩衝時，由一個虛擬執行緒提前取幀放入 OpusFrameRing，
+ *   JDA 的發送迴圈只需要取出已經準備好的幀；停止或切換音軌時呼叫 flush() 丟棄舊的幀，
+ *   暫停時保留已緩衝的幀、暫停取出，恢復後從暫停的位置接著播放
+ * - 預先緩衝執行緒只在語音連線期間執行：連線時呼叫 start()，斷線時呼叫 stop()
  */
 public class AudioPlayerSendHandler implements AudioSendHandler {
+    private static final Logger logger = LoggerFactory.getLogger(AudioPlayerSendHandler.class);
+
+    /** 一個 Opus 幀的時長（毫秒） */
+    public static final int FRAME_DURATION_MS = 20;
+
+    /** 沒有播放中的音軌時，預先緩衝執行緒的等待時間 */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** 取幀等待時間的上限，停止後舊的預先緩衝執行緒最多這麼久就會結束 */
+    private static final long MAX_PROVIDE_TIMEOUT_MS = 500;
 
     /** LavaPlayer 音頻播放器實例 */
     private final AudioPlayer audioPlayer;
 
-    /** 音頻數據緩衝區 */
+    /** 取幀的最長等待時間（毫秒），0 表示不等待 */
+    private final long provideTimeoutMs;
+
+    /** 音頻數據緩衝區（直接內存，每幀重複使用） */
     private final ByteBuffer buffer;
 
     /** 可變音頻幀，用於從播放器獲取音頻數據 */
     private final MutableAudioFrame frame;
 
+    /** 預先緩衝的幀，未啟用時為 null */
+    private final OpusFrameRing ring;
+
+    /** 目前的預先緩衝執行緒，未啟用或未連線時為 null */
+    private volatile Thread prebufferThread;
+
+    /** 已通知停止但可能還沒結束的執行緒，下一個生產者會先等它結束 */
+    private Thread stoppingThread;
+
+    /** 緩衝已滿多久沒有被取走視為發送迴圈停滯（一整個緩衝的時間） */
+    private final long overrunNanos;
+
+    private volatile boolean closed;
+
+    /** 已送出的幀數 */
+    private final LongAdder providedFrames = new LongAdder();
+
+    /** 播放中（未暫停）卻沒有幀可送出的次數，每一次代表 20ms 的靜音或斷音 */
+    private final LongAdder missedFrames = new LongAdder();
+
     /**
      * 建構子
-     * 初始化音頻發送處理器
+     * 初始化非阻塞取幀的音頻發送處理器
      *
      * @param audioPlayer LavaPlayer 的音頻播放器實例
      */
     public AudioPlayerSendHandler(AudioPlayer audioPlayer) {
+        this(audioPlayer, 0, 0);
+    }
+
+    /**
+     * 建構子
+     *
+     * @param audioPlayer LavaPlayer 的音頻播放器實例
+     * @param provideTimeoutMs 取幀的最長等待時間（毫秒），0 表示不等待
+     * @param prebufferMs 預先緩衝的音頻長度（毫秒），0 表示不預先緩衝
+     */
+    public AudioPlayerSendHandler(AudioPlayer audioPlayer, long provideTimeoutMs, int prebufferMs) {
         this.audioPlayer = audioPlayer;
+        this.provideTimeoutMs = Math.min(Math.max(0, provideTimeoutMs), MAX_PROVIDE_TIMEOUT_MS);
 
-        // 分配 1024 字節的直接內存緩衝區
-        // 這個大小足以容納 20ms 的 Opus 音頻數據
-        this.buffer = ByteBuffer.allocate(1024);
+        // 分配直接內存緩衝區，大小足以容納任何一個 20ms 的 Opus 幀
+        this.buffer = ByteBuffer.allocateDirect(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
 
-        // 創建可變音頻幀並設置緩衝區
+        // 創建可變音頻幀並設置緩衝區，播放器會把幀數據直接寫入此緩衝區
         this.frame = new MutableAudioFrame();
         this.frame.setBuffer(buffer);
+
+        int prebufferFrames = Math.max(0, prebufferMs) / FRAME_DURATION_MS;
+        this.ring = prebufferFrames > 0 ? new OpusFrameRing(prebufferFrames, buffer.capacity()) : null;
+        this.overrunNanos = TimeUnit.MILLISECONDS.toNanos((long) prebufferFrames * FRAME_DURATION_MS);
+    }
+
+    /**
+     * 開始預先緩衝（語音連線建立時呼叫）
+     * 未啟用預先緩衝、已經在執行或已關閉時不做任何事。
+     * 上一個預先緩衝執行緒可能還卡在取幀，新的執行緒會先等它結束才開始寫入，
+     * 環形緩衝永遠只有一個生產者，呼叫者（JDA 的事件執行緒）也不需要等待
+     */
+    public synchronized void start() {
+        if (ring == null || closed || prebufferThread != null) {
+            return;
+        }
+        Thread previous = stoppingThread;
+        stoppingThread = null;
+        Thread thread = Thread.ofVirtual().name("opus-prebuffer").unstarted(() -> fillRing(previous));
+        prebufferThread = thread;
+        thread.start();
+    }
+
+    /**
+     * 停止預先緩衝並丟棄已緩衝的幀（語音連線關閉時呼叫），之後可以再次 start()
+     * 只通知執行緒停止，不等待它結束
+     */
+    public synchronized void stop() {
+        Thread thread = prebufferThread;
+        prebufferThread = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            stoppingThread = thread;
+        }
+        flush();
     }
 
     /**
@@ -61,9 +154,153 @@ public class AudioPlayerSendHandler implements AudioSendHandler {
      */
     @Override
     public boolean canProvide() {
-        // 嘗試從音頻播放器獲取下一幀數據
-        // 如果成功獲取，返回 true；如果沒有數據（如播放器停止），返回 false
-        return audioPlayer.provide(frame);
+        if (ring != null && audioPlayer.isPaused()) {
+            // 暫停時保留已緩衝的幀，恢復後接著播放
+            return false;
+        }
+        // 啟用預先緩衝時直接取出已經準備好的幀；沒有播放中的音軌時（例如音軌正常結束）讀空不算 underrun
+        boolean provided = ring != null ? ring.poll(buffer, audioPlayer.getPlayingTrack() != null) : pullFrame(frame);
+        if (provided) {
+            providedFrames.increment();
+        } else if (audioPlayer.getPlayingTrack() != null && !audioPlayer.isPaused()) {
+            missedFrames.increment();
+        }
+        return provided;
+    }
+
+    /**
+     * 從音頻播放器獲取下一幀數據
+     * 如果成功獲取，返回 true；如果沒有數據（如播放器停止），返回 false
+     */
+    private boolean pullFrame(MutableAudioFrame target) {
+        if (provideTimeoutMs == 0) {
+            return audioPlayer.provide(target);
+        }
+        try {
+            return audioPlayer.provide(target, provideTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 預先緩衝執行緒：在環形緩衝有空位時提前取幀
+     *
+     * @param previous 上一個預先緩衝執行緒，先等它結束再開始寫入；沒有時為 null
+     */
+    private void fillRing(Thread previous) {
+        awaitExit(previous);
+        MutableAudioFrame producerFrame = new MutableAudioFrame();
+        long fullSince = 0;
+        boolean fullCounted = false;
+        boolean full = false;
+        while (prebufferThread == Thread.currentThread()) {
+            try {
+                ByteBuffer slot = ring.claim();
+                if (slot == null) {
+                    // 緩衝已滿，等待發送迴圈取走一幀；暫停中的滿緩衝是預期的，不算停滯
+                    long now = System.nanoTime();
+                    if (!full || audioPlayer.isPaused()) {
+                        full = true;
+                        fullCounted = false;
+                        fullSince = now;
+                    } else if (!fullCounted && now - fullSince >= overrunNanos) {
+                        ring.recordOverrun();
+                        fullCounted = true;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FRAME_DURATION_MS / 2));
+                    continue;
+                }
+                full = false;
+                producerFrame.setBuffer(slot);
+                if (pullFrame(producerFrame)) {
+                    if (prebufferThread != Thread.currentThread()) {
+                        // 取幀期間已被停止，這一幀屬於已丟棄的緩衝
+                        break;
+                    }
+                    ring.publish(producerFrame.getDataLength());
+                } else if (audioPlayer.getPlayingTrack() == null || audioPlayer.isPaused()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                } else {
+                    // 解碼尚未跟上
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FRAME_DURATION_MS));
+                }
+            } catch (Exception e) {
+                logger.error("預先緩衝音頻幀時發生錯誤", e);
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // 停止後才放入的幀也要丟棄；下一個生產者在這個執行緒結束前不會寫入
+        flush();
+    }
+
+    /**
+     * 等待執行緒結束（最多約一次取幀的等待時間）
+     */
+    private static void awaitExit(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 丟棄已預先緩衝的幀
+     * 停止或切換音軌時呼叫，避免舊的音頻在之後繼續播放
+     */
+    public void flush() {
+        if (ring != null) {
+            ring.clear();
+        }
+    }
+
+    /**
+     * 永久停止預先緩衝執行緒（銷毀管理器時呼叫）
+     */
+    public synchronized void close() {
+        closed = true;
+        stop();
+    }
+
+    /**
+     * 預先緩衝執行緒是否正在執行
+     */
+    public boolean isPrebuffering() {
+        return prebufferThread != null;
+    }
+
+    /**
+     * 預先緩衝的環形緩衝，未啟用時返回 null
+     */
+    public OpusFrameRing getFrameRing() {
+        return ring;
+    }
+
+    /**
+     * 已送出的幀數
+     */
+    public long getProvidedFrames() {
+        return providedFrames.sum();
+    }
+
+    /**
+     * 播放中沒有幀可送出的次數（閒置與暫停時不計）
+     */
+    public long getMissedFrames() {
+        return missedFrames.sum();
     }
 
     /**
@@ -72,7 +309,7 @@ public class AudioPlayerSendHandler implements AudioSendHandler {
      * 當 canProvide() 返回 true 時，JDA 會調用這個方法來獲取實際的音頻數據
      * 這些數據將被發送到 Discord 語音頻道
      *
-     * @return 包含 20ms 音頻數據的 ByteBuffer
+     * @return 包含 20ms 音頻數據的 ByteBuffer（每次都是同一個直接緩衝區）
      */
     @Override
     public ByteBuffer provide20MsAudio() {
@@ -94,4 +331,4 @@ public class AudioPlayerSendHandler implements AudioSendHandler {
     public boolean isOpus() {
         return true;
     }
-}
\ No newline at end of file
+}
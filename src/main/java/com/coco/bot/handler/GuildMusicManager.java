@@ -0,0 +1,142 @@
+package com.coco.bot.handler;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 單一伺服器（Guild）的音樂管理器
+ *
+ * 每個伺服器各自擁有一組播放器、音頻發送處理器與播放佇列，
+ * 讓不同伺服器的播放互不干擾。
+ *
+ * 生命週期：
+ * - 第一次在該伺服器播放音樂時建立，建立時就開始閒置計時，連上語音頻道後才取消
+ * - 語音連線關閉後立即釋放佇列內容，只保留空的管理器
+ * - 未連線（或斷線）超過閒置時間後由 MusicService 移除並銷毀播放器
+ */
+public class GuildMusicManager {
+    private static final Logger logger = LoggerFactory.getLogger(GuildMusicManager.class);
+
+    /** 所屬伺服器 ID */
+    private final long guildId;
+
+    /** 此伺服器專用的音頻播放器 */
+    private final AudioPlayer audioPlayer;
+
+    /** 此伺服器專用的音頻發送處理器 */
+    private final AudioPlayerSendHandler sendHandler;
+
+    /** 此伺服器專用的播放佇列 */
+    private final MusicQueue musicQueue;
+
+    /** 開始閒置（建立後尚未連線，或語音連線關閉）的時間（毫秒），0 表示目前仍在使用中 */
+    private volatile long disconnectedAt = System.currentTimeMillis();
+
+    /**
+     * 建構子
+     *
+     * @param guildId 伺服器 ID
+     * @param audioPlayerManager 用於建立播放器的音頻播放管理器
+     */
+    public GuildMusicManager(long guildId, AudioPlayerManager audioPlayerManager) {
+        this(guildId, audioPlayerManager, 0, 0);
+    }
+
+    /**
+     * 建構子
+     *
+     * @param guildId 伺服器 ID
+     * @param audioPlayerManager 用於建立播放器的音頻播放管理器
+     * @param provideTimeoutMs 發送處理器取幀的最長等待時間（毫秒），0 表示不等待
+     * @param prebufferMs 發送處理器預先緩衝的音頻長度（毫秒），0 表示不預先緩衝
+     */
+    public GuildMusicManager(long guildId, AudioPlayerManager audioPlayerManager, long provideTimeoutMs, int prebufferMs) {
+        this.guildId = guildId;
+        this.audioPlayer = audioPlayerManager.createPlayer();
+        this.sendHandler = new AudioPlayerSendHandler(audioPlayer, provideTimeoutMs, prebufferMs);
+        this.musicQueue = new MusicQueue();
+
+        // 音軌自然結束時自動播放佇列中的下一首
+        audioPlayer.addListener(new AudioEventAdapter() {
+            @Override
+            public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) {
+                if (endReason.mayStartNext) {
+                    // 只有結束的音軌仍是目前音軌時才前進，避免與 !skip 同時發生時連跳兩首
+                    AudioTrack nextTrack = musicQueue.advanceFrom(track);
+                    if (nextTrack != null) {
+                        player.playTrack(nextTrack);
+                        logger.info("[{}] 自動播放下一首: {}", guildId, nextTrack.getInfo().title);
+                    } else if (!musicQueue.hasCurrentTrack()) {
+                        logger.info("[{}] 佇列已空，播放結束", guildId);
+                    }
+                } else {
+                    // 停止或被取代（!skip、!stop）時丟棄舊音軌尚未送出的幀；自然結束時讓剩餘的幀播完
+                    sendHandler.flush();
+                }
+            }
+        });
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public AudioPlayer getAudioPlayer() {
+        return audioPlayer;
+    }
+
+    public AudioPlayerSendHandler getSendHandler() {
+        return sendHandler;
+    }
+
+    public MusicQueue getMusicQueue() {
+        return musicQueue;
+    }
+
+    /**
+     * 標記語音連線已建立，取消閒置計時並開始預先緩衝
+     */
+    public void markConnected() {
+        disconnectedAt = 0;
+        sendHandler.start();
+    }
+
+    /**
+     * 標記語音連線已關閉，並釋放佇列中的音軌
+     * 閒置中的伺服器只保留空的播放器與佇列，不會持續佔用記憶體
+     *
+     * @param now 目前時間（毫秒）
+     */
+    public void markDisconnected(long now) {
+        disconnectedAt = now;
+        audioPlayer.stopTrack();
+        musicQueue.clearQueue();
+        sendHandler.stop();
+    }
+
+    /**
+     * 檢查此管理器是否已閒置超過指定時間，可以被移除
+     *
+     * @param now 目前時間（毫秒）
+     * @param idleTimeoutMillis 閒置逾時（毫秒）
+     * @return true 如果語音連線已關閉且超過閒置逾時
+     */
+    public boolean isEvictable(long now, long idleTimeoutMillis) {
+        long since = disconnectedAt;
+        return since != 0 && now - since >= idleTimeoutMillis;
+    }
+
+    /**
+     * 銷毀播放器並清空佇列
+     */
+    public void destroy() {
+        musicQueue.clearQueue();
+        sendHandler.close();
+        audioPlayer.destroy();
+    }
+}
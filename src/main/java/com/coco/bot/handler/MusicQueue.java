@@ -1,27 +1,46 @@
 package com.coco.bot.handler;
 
+import com.coco.bot.util.PersistentIndexedList;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * 音樂佇列管理系統
- * 負責管理播放佇列，支援佇列播放和跳過功能
+ * 負責管理播放佇列，支援佇列播放、跳過、移動、移除、洗牌與分頁查詢
+ * 每個伺服器由 GuildMusicManager 持有一個獨立的佇列
+ *
+ * 執行緒安全：
+ * 佇列同時會被 JDA 事件執行緒（!skip、!stop）和 LavaPlayer 的 onTrackEnd 回呼修改。
+ * 佇列內容與目前音軌一起存放在不可變的快照中，所有修改都以 compareAndSet 替換整個快照，
+ * 因此不需要鎖，讀取端也永遠看到一致的佇列與目前音軌。
+ * 「前進到下一首」只有在目前音軌仍是呼叫者看到的那首時才會生效，
+ * 避免跳過與自然結束同時發生時連續前進兩次或遺失音軌。
  */
-@Component
 public class MusicQueue {
     private static final Logger logger = LoggerFactory.getLogger(MusicQueue.class);
 
-    private final Queue<AudioTrack> queue;
-    private AudioTrack currentTrack;
+    /**
+     * 佇列快照：等待播放的音軌與目前播放的音軌
+     */
+    private record State(PersistentIndexedList<AudioTrack> queue, AudioTrack current) {
+        State withQueue(PersistentIndexedList<AudioTrack> newQueue) {
+            return new State(newQueue, current);
+        }
+    }
+
+    private static final State EMPTY = new State(PersistentIndexedList.empty(), null);
+
+    private final AtomicReference<State> state;
 
     public MusicQueue() {
-        this.queue = new LinkedList<>();
-        this.currentTrack = null;
+        this.state = new AtomicReference<>(EMPTY);
     }
 
     /**
@@ -30,34 +49,63 @@ public class MusicQueue {
      * @param track 要加入的音軌
      */
     public void addTrack(AudioTrack track) {
-        queue.offer(track);
-        logger.info("音軌已加入佇列: {} (佇列大小: {})", track.getInfo().title, queue.size());
+        State updated = update(s -> s.withQueue(s.queue().add(track)));
+        logger.info("音軌已加入佇列: {} (佇列大小: {})", track.getInfo().title, updated.queue().size());
     }
 
     /**
      * 獲取下一首音軌
+     * 不論目前播放的是哪一首，都會前進到下一首
      *
      * @return 下一首音軌，如果佇列為空則返回 null
      */
     public AudioTrack getNextTrack() {
-        AudioTrack nextTrack = queue.poll();
+        State updated = update(MusicQueue::advance);
+        AudioTrack nextTrack = updated.current();
         if (nextTrack != null) {
-            currentTrack = nextTrack;
             logger.info("開始播放下一首音軌: {}", nextTrack.getInfo().title);
         } else {
-            currentTrack = null;
             logger.info("佇列已空");
         }
         return nextTrack;
     }
 
+    /**
+     * 從指定的音軌前進到下一首
+     *
+     * 只有在目前音軌仍然是 expected 時才會前進；如果其他執行緒已經先前進了，
+     * 佇列保持不變並返回 null。
+     *
+     * @param expected 呼叫者認為目前正在播放的音軌
+     * @return 下一首音軌；佇列為空或其他執行緒已先前進時返回 null
+     */
+    public AudioTrack advanceFrom(AudioTrack expected) {
+        while (true) {
+            State current = state.get();
+            if (current.current() != expected) {
+                logger.debug("目前音軌已被其他操作更換，略過這次前進");
+                return null;
+            }
+            State updated = advance(current);
+            if (state.compareAndSet(current, updated)) {
+                AudioTrack nextTrack = updated.current();
+                if (nextTrack != null) {
+                    logger.info("開始播放下一首音軌: {}", nextTrack.getInfo().title);
+                } else {
+                    logger.info("佇列已空");
+                }
+                return nextTrack;
+            }
+        }
+    }
+
     /**
      * 獲取目前正在播放的音軌
      *
      * @return 目前播放的音軌
      */
     public AudioTrack getCurrentTrack() {
-        return currentTrack;
+        return state.get().current();
     }
 
     /**
@@ -66,30 +114,138 @@ public class MusicQueue {
      * @param track 要設定的音軌
      */
     public void setCurrentTrack(AudioTrack track) {
-        this.currentTrack = track;
+        update(s -> new State(s.queue(), track));
         if (track != null) {
             logger.info("設定目前播放音軌: {}", track.getInfo().title);
         }
     }
 
+    /**
+     * 如果目前沒有音軌在播放，將音軌設為目前播放的音軌
+     *
+     * @param track 要設定的音軌
+     * @return true 如果設定成功（呼叫者應該開始播放它），false 如果已有音軌在播放
+     */
+    public boolean setCurrentTrackIfIdle(AudioTrack track) {
+        while (true) {
+            State current = state.get();
+            if (current.current() != null) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(current.queue(), track))) {
+                logger.info("設定目前播放音軌: {}", track.getInfo().title);
+                return true;
+            }
+        }
+    }
+
     /**
      * 跳過目前音軌，播放下一首
      *
-     * @return 下一首音軌，如果佇列為空則返回 null
+     * @return 下一首音軌，如果佇列為空（或音軌已被其他操作更換）則返回 null
      */
     public AudioTrack skipCurrentTrack() {
-        if (currentTrack != null) {
-            logger.info("跳過目前音軌: {}", currentTrack.getInfo().title);
+        AudioTrack current = getCurrentTrack();
+        if (current != null) {
+            logger.info("跳過目前音軌: {}", current.getInfo().title);
+        }
+        return advanceFrom(current);
+    }
+
+    /**
+     * 獲取佇列中指定位置的音軌
+     *
+     * @param index 位置（從 0 開始）
+     * @return 音軌，如果位置超出範圍則返回 null
+     */
+    public AudioTrack getTrack(int index) {
+        PersistentIndexedList<AudioTrack> queue = state.get().queue();
+        if (index < 0 || index >= queue.size()) {
+            return null;
+        }
+        return queue.get(index);
+    }
+
+    /**
+     * 移除佇列中指定位置的音軌
+     *
+     * @param index 位置（從 0 開始）
+     * @return 被移除的音軌，如果位置超出範圍則返回 null
+     */
+    public AudioTrack removeTrack(int index) {
+        while (true) {
+            State current = state.get();
+            if (index < 0 || index >= current.queue().size()) {
+                return null;
+            }
+            AudioTrack removed = current.queue().get(index);
+            if (state.compareAndSet(current, current.withQueue(current.queue().remove(index)))) {
+                logger.info("已從佇列移除音軌: {} (位置: {})", removed.getInfo().title, index);
+                return removed;
+            }
+        }
+    }
+
+    /**
+     * 移動佇列中的音軌
+     *
+     * @param from 原本的位置（從 0 開始）
+     * @param to 移動後的位置（從 0 開始）
+     * @return 被移動的音軌，如果位置超出範圍則返回 null
+     */
+    public AudioTrack moveTrack(int from, int to) {
+        while (true) {
+            State current = state.get();
+            int size = current.queue().size();
+            if (from < 0 || from >= size || to < 0 || to >= size) {
+                return null;
+            }
+            AudioTrack moved = current.queue().get(from);
+            if (state.compareAndSet(current, current.withQueue(current.queue().move(from, to)))) {
+                logger.info("已移動音軌: {} ({} -> {})", moved.getInfo().title, from, to);
+                return moved;
+            }
+        }
+    }
+
+    /**
+     * 隨機打亂佇列順序（不影響目前播放的音軌）
+     */
+    public void shuffle() {
+        shuffle(ThreadLocalRandom.current());
+    }
+
+    /**
+     * 以指定的亂數來源打亂佇列順序
+     *
+     * @param random 亂數來源
+     */
+    public void shuffle(Random random) {
+        State updated = update(s -> s.withQueue(s.queue().shuffle(random)));
+        logger.info("佇列已隨機排序 (佇列大小: {})", updated.queue().size());
+    }
+
+    /**
+     * 獲取佇列中的一頁音軌
+     *
+     * @param page 頁碼（從 0 開始）
+     * @param pageSize 每頁數量
+     * @return 該頁的音軌，頁碼超出範圍時返回空清單
+     */
+    public List<AudioTrack> getPage(int page, int pageSize) {
+        PersistentIndexedList<AudioTrack> queue = state.get().queue();
+        int from = page * pageSize;
+        if (page < 0 || pageSize <= 0 || from >= queue.size()) {
+            return List.of();
         }
-        return getNextTrack();
+        return queue.slice(from, Math.min(queue.size(), from + pageSize));
     }
 
     /**
      * 清空佇列
      */
     public void clearQueue() {
-        queue.clear();
-        currentTrack = null;
+        state.set(EMPTY);
         logger.info("佇列已清空");
     }
 
@@ -99,7 +255,7 @@ public class MusicQueue {
      * @return 佇列中的音軌數量
      */
     public int getQueueSize() {
-        return queue.size();
+        return state.get().queue().size();
     }
 
     /**
@@ -108,7 +264,7 @@ public class MusicQueue {
      * @return true 如果佇列為空
      */
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return state.get().queue().isEmpty();
     }
 
     /**
@@ -117,6 +273,29 @@ public class MusicQueue {
      * @return true 如果有音軌正在播放
      */
     public boolean hasCurrentTrack() {
-        return currentTrack != null;
+        return state.get().current() != null;
+    }
+
+    /**
+     * 取出佇列最前面的音軌作為目前音軌
+     */
+    private static State advance(State s) {
+        if (s.queue().isEmpty()) {
+            return new State(s.queue(), null);
+        }
+        return new State(s.queue().remove(0), s.queue().get(0));
+    }
+
+    /**
+     * 以 compareAndSet 重試直到更新成功
+     */
+    private State update(UnaryOperator<State> operation) {
+        while (true) {
+            State current = state.get();
+            State updated = operation.apply(current);
+            if (state.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package com.coco.bot.handler;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 單一生產者、單一消費者的 Opus 幀環形緩衝
+ *
+ * 生產者（預先緩衝執行緒）先從播放器取出幀放入環形緩衝，消費者（JDA 的音頻發送迴圈）
+ * 每 20ms 只需要複製一個已經準備好的幀，不會因為解碼或網路短暫停頓而漏掉發送時機。
+ *
+ * 技術細節：
+ * - 所有幀的空間在建立時一次分配，之後寫入與讀取都不會配置記憶體
+ * - head 只由消費者寫入、tail 只由生產者寫入，以 lazySet 發布，不需要鎖
+ * - clear() 可以從任何執行緒呼叫，只記錄要丟棄到哪個序號，實際丟棄由消費者在下一次讀取時執行，
+ *   維持單一寫入者；呼叫之後才放入的幀（例如下一首音軌的開頭）不會被丟棄
+ */
+public class OpusFrameRing {
+
+    /** 每個位置的幀數據 */
+    private final byte[][] slots;
+
+    /** 每個位置的幀數據包裝，提供給生產者寫入 */
+    private final ByteBuffer[] slotBuffers;
+
+    /** 每個位置的幀長度 */
+    private final int[] lengths;
+
+    /** 下一個要讀取的序號（只由消費者寫入） */
+    private final AtomicLong head = new AtomicLong();
+
+    /** 下一個要寫入的序號（只由生產者寫入） */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** 序號小於此值的幀都要丟棄 */
+    private final AtomicLong discardBefore = new AtomicLong();
+
+    /** 上一次讀取是否成功，用來判斷空的緩衝是否屬於播放中斷 */
+    private boolean streaming;
+
+    /** 播放中緩衝被讀空的次數（只由消費者寫入） */
+    private final AtomicLong underruns = new AtomicLong();
+
+    /** 緩衝已滿且消費者停止取幀的次數（只由生產者寫入） */
+    private final AtomicLong overruns = new AtomicLong();
+
+    /** 因 clear() 被丟棄的幀數（只由消費者寫入） */
+    private final AtomicLong discardedFrames = new AtomicLong();
+
+    /**
+     * 建構子
+     *
+     * @param capacity 最多緩衝的幀數
+     * @param maxFrameSize 單一幀的最大長度（位元組）
+     */
+    public OpusFrameRing(int capacity, int maxFrameSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.slots = new byte[capacity][maxFrameSize];
+        this.slotBuffers = new ByteBuffer[capacity];
+        this.lengths = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slotBuffers[i] = ByteBuffer.wrap(slots[i]);
+        }
+    }
+
+    // 生產者方法
+
+    /**
+     * 取得下一個可寫入的位置
+     *
+     * @return 已清空的幀緩衝區；環形緩衝已滿時返回 null
+     */
+    public ByteBuffer claim() {
+        long t = tail.get();
+        if (t - head.get() >= slots.length) {
+            return null;
+        }
+        ByteBuffer slot = slotBuffers[index(t)];
+        slot.clear();
+        return slot;
+    }
+
+    /**
+     * 記錄一次 overrun：緩衝已滿，而且消費者超過一整個緩衝的時間沒有取走任何幀
+     * 由生產者在判斷發送迴圈停滯時呼叫
+     */
+    public void recordOverrun() {
+        overruns.lazySet(overruns.get() + 1);
+    }
+
+    /**
+     * 發布剛寫入 claim() 位置的幀
+     *
+     * @param length 幀長度（位元組）
+     */
+    public void publish(int length) {
+        long t = tail.get();
+        lengths[index(t)] = length;
+        tail.lazySet(t + 1);
+    }
+
+    // 消費者方法
+
+    /**
+     * 取出下一個幀並寫入目標緩衝區
+     * 成功時目標緩衝區的 position 位於幀數據之後，呼叫 flip() 即可讀取
+     *
+     * @param target 目標緩衝區
+     * @return true 如果取得幀，false 如果緩衝是空的
+     */
+    public boolean poll(ByteBuffer target) {
+        return poll(target, true);
+    }
+
+    /**
+     * 取出下一個幀並寫入目標緩衝區
+     *
+     * @param target 目標緩衝區
+     * @param playing 是否仍在播放；播放結束後緩衝被讀空是預期的，不計為 underrun
+     * @return true 如果取得幀，false 如果緩衝是空的
+     */
+    public boolean poll(ByteBuffer target, boolean playing) {
+        long h = head.get();
+        long discardUntil = discardBefore.get();
+        if (discardUntil > h) {
+            discardedFrames.lazySet(discardedFrames.get() + (discardUntil - h));
+            head.lazySet(discardUntil);
+            h = discardUntil;
+            streaming = false;
+        }
+
+        if (h == tail.get()) {
+            if (streaming && playing) {
+                underruns.lazySet(underruns.get() + 1);
+                streaming = false;
+            }
+            return false;
+        }
+
+        int i = index(h);
+        target.clear();
+        target.put(slots[i], 0, lengths[i]);
+        head.lazySet(h + 1);
+        streaming = true;
+        return true;
+    }
+
+    /**
+     * 要求丟棄目前已放入的所有幀（例如停止播放或切換音軌時）
+     * 可以從任何執行緒呼叫，消費者下一次讀取時生效
+     */
+    public void clear() {
+        discardBefore.accumulateAndGet(tail.get(), Math::max);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % slots.length);
+    }
+
+    /**
+     * 目前緩衝的幀數
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * 播放中緩衝被讀空的次數，每一次代表至少一個 20ms 的幀沒有準時送出
+     */
+    public long getUnderruns() {
+        return underruns.get();
+    }
+
+    /**
+     * 緩衝已滿而發送迴圈停滯的次數，每一次代表生產者至少有一整個緩衝的時間無法放入新的幀
+     */
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    /**
+     * 因停止或切換音軌而被丟棄的幀數
+     */
+    public long getDiscardedFrames() {
+        return discardedFrames.get();
+    }
+}
@@ -0,0 +1,188 @@
+package com.coco.bot.handler;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * 依序輸出的並行音軌載入器
+ *
+ * 同時透過 AudioPlayerManager.loadItem 載入多個網址（同時進行中的數量有上限），
+ * 但無論完成順序為何，都會依照原本的順序把結果交給 Listener。
+ * 第一首載入完成就會立即交出，不必等待整個清單載入完畢。
+ */
+public class OrderedTrackLoader {
+    private static final Logger logger = LoggerFactory.getLogger(OrderedTrackLoader.class);
+
+    /**
+     * 載入結果的接收者
+     * 所有方法都會依照網址的原始順序被呼叫，且不會同時被多個執行緒呼叫
+     */
+    public interface Listener {
+        /**
+         * 音軌載入成功
+         *
+         * @param index 網址在清單中的位置
+         * @param track 載入的音軌
+         */
+        void onTrackLoaded(int index, AudioTrack track);
+
+        /**
+         * 音軌載入失敗
+         *
+         * @param index 網址在清單中的位置
+         * @param url 網址
+         * @param reason 失敗原因
+         */
+        void onTrackFailed(int index, String url, String reason);
+
+        /**
+         * 所有網址都已處理完畢
+         *
+         * @param loaded 成功數量
+         * @param failed 失敗數量
+         */
+        void onComplete(int loaded, int failed);
+    }
+
+    private final AudioPlayerManager audioPlayerManager;
+    private final List<String> urls;
+    private final int maxInFlight;
+    private final Listener listener;
+
+    /** 每個位置的載入結果，null 表示失敗 */
+    private final AudioTrack[] results;
+
+    /** 每個位置的失敗原因 */
+    private final String[] failures;
+
+    /** 每個位置是否已完成 */
+    private final boolean[] completed;
+
+    /** 下一個要交給 Listener 的位置 */
+    private int nextToPublish;
+
+    /** 下一個要開始載入的位置 */
+    private int nextToStart;
+
+    private int loadedCount;
+    private int failedCount;
+
+    /**
+     * 建構子
+     *
+     * @param audioPlayerManager 音頻播放管理器
+     * @param urls 要載入的網址（依播放順序）
+     * @param maxInFlight 同時載入中的最大數量
+     * @param listener 結果接收者
+     */
+    public OrderedTrackLoader(AudioPlayerManager audioPlayerManager, List<String> urls, int maxInFlight, Listener listener) {
+        this.audioPlayerManager = audioPlayerManager;
+        this.urls = List.copyOf(urls);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.listener = listener;
+        this.results = new AudioTrack[urls.size()];
+        this.failures = new String[urls.size()];
+        this.completed = new boolean[urls.size()];
+    }
+
+    /**
+     * 開始載入
+     */
+    public void start() {
+        if (urls.isEmpty()) {
+            listener.onComplete(0, 0);
+            return;
+        }
+        for (int i = 0; i < maxInFlight; i++) {
+            startNext();
+        }
+    }
+
+    /**
+     * 開始載入下一個網址（如果還有）
+     */
+    private void startNext() {
+        int index;
+        synchronized (this) {
+            if (nextToStart >= urls.size()) {
+                return;
+            }
+            index = nextToStart++;
+        }
+
+        String url = urls.get(index);
+        try {
+            audioPlayerManager.loadItem(url, new AudioLoadResultHandler() {
+                @Override
+                public void trackLoaded(AudioTrack track) {
+                    complete(index, track, null);
+                }
+
+                @Override
+                public void playlistLoaded(AudioPlaylist playlist) {
+                    AudioTrack track = playlist.getSelectedTrack();
+                    if (track == null && !playlist.getTracks().isEmpty()) {
+                        track = playlist.getTracks().get(0);
+                    }
+                    complete(index, track, track == null ? "播放清單為空" : null);
+                }
+
+                @Override
+                public void noMatches() {
+                    complete(index, null, "找不到該音樂");
+                }
+
+                @Override
+                public void loadFailed(FriendlyException exception) {
+                    complete(index, null, exception.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            logger.error("無法開始載入音軌: {}", url, e);
+            complete(index, null, e.getMessage());
+        }
+    }
+
+    /**
+     * 記錄單一網址的結果，交出所有已可依序輸出的結果，並開始下一個載入
+     */
+    private void complete(int index, AudioTrack track, String failure) {
+        boolean finished;
+        synchronized (this) {
+            results[index] = track;
+            failures[index] = failure;
+            completed[index] = true;
+
+            while (nextToPublish < urls.size() && completed[nextToPublish]) {
+                int position = nextToPublish++;
+                AudioTrack ready = results[position];
+                if (ready != null) {
+                    loadedCount++;
+                    listener.onTrackLoaded(position, ready);
+                } else {
+                    failedCount++;
+                    listener.onTrackFailed(position, urls.get(position), failures[position]);
+                }
+                // 已交出的結果不再需要保留
+                results[position] = null;
+                failures[position] = null;
+            }
+
+            finished = nextToPublish == urls.size();
+            if (finished) {
+                listener.onComplete(loadedCount, failedCount);
+            }
+        }
+
+        if (!finished) {
+            startNext();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.coco.bot.handler;
+
+/**
+ * 音軌解析失敗
+ *
+ * YouTubeResolver.resolveAsync 以這個例外完成 Future，呼叫者可以依照失敗原因給使用者不同的回覆，
+ * 不必再從 null 猜測發生了什麼事。
+ */
+public class ResolutionException extends RuntimeException {
+
+    /**
+     * 失敗原因
+     */
+    public enum Reason {
+        /** 網址為空或格式錯誤 */
+        INVALID_URL,
+        /** yt-dlp 回報影片無法解析（私人影片、已刪除、地區限制等） */
+        UNAVAILABLE,
+        /** 超過解析期限，子程序已被終止 */
+        TIMEOUT,
+        /** yt-dlp 成功結束但輸出不完整 */
+        MALFORMED_OUTPUT,
+        /** 無法啟動 yt-dlp 或讀取它的輸出 */
+        PROCESS_ERROR
+    }
+
+    private final Reason reason;
+
+    /** yt-dlp 子程序的退出碼，沒有子程序退出碼時為 null */
+    private final Integer exitCode;
+
+    public ResolutionException(Reason reason, String message) {
+        this(reason, message, null, null);
+    }
+
+    public ResolutionException(Reason reason, String message, Integer exitCode) {
+        this(reason, message, exitCode, null);
+    }
+
+    public ResolutionException(Reason reason, String message, Integer exitCode, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+        this.exitCode = exitCode;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Integer getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,222 @@
+package com.coco.bot.handler;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 共用的音軌解析執行器
+ *
+ * 解析工作（yt-dlp 子程序）在虛擬執行緒上執行，並以 Semaphore 限制同時進行的數量；
+ * 超過上限的工作會排隊等待，排隊數量也有上限，超過時直接拒絕；
+ * 有工作在排隊時，新的工作也一律排隊，不會搶在排隊中的工作之前執行。
+ * 取代每個請求各自建立一條平台執行緒的做法，避免大量 !playlist add 建立數百條執行緒。
+ *
+ * 非同步工作（submitAsync）在開始後立即歸還執行緒，執行許可則保留到它返回的 Future 完成，
+ * 因此同時執行中的 yt-dlp 子程序數量仍然受到限制。
+ */
+@Component
+public class ResolutionExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ResolutionExecutor.class);
+
+    /**
+     * 提交結果
+     */
+    public enum Submission {
+        /** 立即開始執行 */
+        STARTED,
+        /** 已達同時執行上限，排隊等待中 */
+        QUEUED,
+        /** 排隊已滿或執行器已關閉，未執行 */
+        REJECTED
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxPending;
+    private final long shutdownTimeoutSeconds;
+
+    /** 等待執行許可的工作數量 */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /** 正在執行的工作數量 */
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    @Autowired
+    public ResolutionExecutor(@Value("${resolver.executor.max-concurrent:4}") int maxConcurrent,
+                              @Value("${resolver.executor.max-pending:50}") int maxPending,
+                              @Value("${resolver.executor.shutdown-timeout-seconds:10}") long shutdownTimeoutSeconds) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxPending = Math.max(0, maxPending);
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("resolver-", 0).factory());
+    }
+
+    /**
+     * 提交解析工作
+     *
+     * @param description 工作描述（用於日誌）
+     * @param task 工作內容
+     * @return 提交結果，呼叫者可依此告知使用者請求已排隊或被拒絕
+     */
+    public Submission submit(String description, Runnable task) {
+        return submitAsync(description, () -> {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * 提交非同步解析工作
+     *
+     * @param description 工作描述（用於日誌）
+     * @param task 開始工作並返回它的完成通知；執行許可在通知完成時才歸還
+     * @return 提交結果，呼叫者可依此告知使用者請求已排隊或被拒絕
+     */
+    public Submission submitAsync(String description, Supplier<? extends CompletionStage<?>> task) {
+        if (shutdown.get()) {
+            logger.warn("解析執行器已關閉，拒絕工作: {}", description);
+            return Submission.REJECTED;
+        }
+
+        Submission submission;
+        // 已有工作在排隊時不搶先取得許可，排隊中的工作不會被新提交的工作一直插隊
+        if (pending.get() == 0 && permits.tryAcquire()) {
+            submission = Submission.STARTED;
+        } else if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            logger.warn("解析佇列已滿 ({} 個等待中)，拒絕工作: {}", maxPending, description);
+            return Submission.REJECTED;
+        } else {
+            submission = Submission.QUEUED;
+            logger.info("解析工作已排隊: {} (等待中: {})", description, pending.get());
+        }
+
+        try {
+            executor.execute(() -> run(description, task, submission == Submission.QUEUED));
+        } catch (RejectedExecutionException e) {
+            if (submission == Submission.STARTED) {
+                permits.release();
+            } else {
+                pending.decrementAndGet();
+            }
+            logger.warn("解析執行器已關閉，拒絕工作: {}", description);
+            return Submission.REJECTED;
+        }
+        return submission;
+    }
+
+    /**
+     * 執行單一工作；排隊的工作會先等待執行許可
+     */
+    private void run(String description, Supplier<? extends CompletionStage<?>> task, boolean queued) {
+        if (queued) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                logger.warn("等待解析許可時被中斷，放棄工作: {}", description);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+        running.incrementAndGet();
+        CompletionStage<?> completion;
+        try {
+            completion = task.get();
+        } catch (Exception e) {
+            logger.error("解析工作發生錯誤: {}", description, e);
+            release();
+            return;
+        }
+        if (completion == null) {
+            release();
+            return;
+        }
+        completion.whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("解析工作發生錯誤: {}", description, error);
+            }
+            release();
+        });
+    }
+
+    private void release() {
+        running.decrementAndGet();
+        permits.release();
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public boolean isShutdown() {
+        return shutdown.get();
+    }
+
+    /**
+     * 關閉執行器
+     * 不再接受新工作，等待執行中與排隊中的工作完成，逾時後中斷剩餘工作。
+     * 可以重複呼叫。
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("正在關閉解析執行器... (執行中: {}，等待中: {})", running.get(), pending.get());
+        executor.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeoutSeconds);
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("解析工作未能在 {} 秒內完成，強制中斷", shutdownTimeoutSeconds);
+                executor.shutdownNow();
+                return;
+            }
+            // 非同步工作的執行緒已經結束，但它們的 Future 可能還沒完成
+            while (running.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            if (running.get() > 0) {
+                logger.warn("仍有 {} 個非同步解析工作未完成，不再等待", running.get());
+            } else {
+                logger.info("✅ 解析執行器已關閉");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.coco.bot.handler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * YouTube 解析結果快取
+ *
+ * 影片的標題與時長不會改變，但 yt-dlp 取得的直接串流 URL 帶有簽章與到期時間。
+ * 這個快取以正規化後的影片 ID 為鍵（youtu.be、youtube.com、shorts 等不同網址視為同一部影片）：
+ * - 標題與時長一直保留，直到被 LRU 淘汰
+ * - 串流 URL 只在到期前（扣除安全緩衝）有效，過期後需要重新解析
+ */
+@Component
+public class TrackInfoCache {
+
+    /** 串流 URL 到期前提早視為失效的緩衝時間 */
+    private static final long EXPIRY_SAFETY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** 串流 URL 沒有到期資訊時的預設有效時間 */
+    private static final long DEFAULT_STREAM_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    /** YouTube 影片 ID 長度 */
+    private static final int VIDEO_ID_LENGTH = 11;
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expiredStreams = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * 建構子
+     *
+     * @param maxEntries 最多保留的影片數量
+     */
+    @Autowired
+    public TrackInfoCache(@Value("${ytdlp.cache.max-entries:5000}") int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    /**
+     * 建構子
+     *
+     * @param maxEntries 最多保留的影片數量
+     * @param clock 用於判斷串流 URL 是否過期的時鐘
+     */
+    public TrackInfoCache(int maxEntries, Clock clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+        // accessOrder = true：最近讀取的項目排在最後，最久未使用的最先被淘汰
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > TrackInfoCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 查詢快取中仍有效的解析結果
+     *
+     * @param url 影片網址
+     * @return 串流 URL 尚未過期的 TrackInfo，否則返回 null
+     */
+    public YouTubeResolver.TrackInfo get(String url) {
+        String videoId = canonicalVideoId(url);
+        if (videoId == null) {
+            return null;
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(videoId);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (entry.streamUrl == null || clock.millis() >= entry.streamExpiresAt - EXPIRY_SAFETY_MILLIS) {
+                // 串流 URL 過期，只保留標題與時長
+                entry.streamUrl = null;
+                expiredStreams.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.toTrackInfo(entry.streamUrl);
+        }
+    }
+
+    /**
+     * 查詢快取中的標題與時長，不論串流 URL 是否過期
+     *
+     * @param url 影片網址
+     * @return 只包含標題與時長的 TrackInfo（url 為 null），沒有資料時返回 null
+     */
+    public YouTubeResolver.TrackInfo getMetadata(String url) {
+        String videoId = canonicalVideoId(url);
+        if (videoId == null) {
+            return null;
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(videoId);
+            return entry == null ? null : entry.toTrackInfo(null);
+        }
+    }
+
+    /**
+     * 儲存解析結果
+     *
+     * @param url 原始影片網址
+     * @param trackInfo 解析結果
+     */
+    public void put(String url, YouTubeResolver.TrackInfo trackInfo) {
+        String videoId = canonicalVideoId(url);
+        if (videoId == null || trackInfo == null) {
+            return;
+        }
+
+        long expiresAt = trackInfo.expiresAt > 0 ? trackInfo.expiresAt : parseStreamExpiry(trackInfo.url);
+        if (expiresAt <= 0) {
+            expiresAt = clock.millis() + DEFAULT_STREAM_TTL_MILLIS;
+        }
+
+        synchronized (entries) {
+            entries.put(videoId, new Entry(trackInfo, expiresAt));
+        }
+    }
+
+    /**
+     * 清空快取
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * 因串流 URL 過期而需要重新解析的次數（包含在 miss 次數內）
+     */
+    public long getExpiredStreamCount() {
+        return expiredStreams.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * 從各種 YouTube 網址格式取出影片 ID
+     *
+     * 支援：
+     * - https://youtu.be/ID?si=...
+     * - https://www.youtube.com/watch?v=ID&list=...
+     * - https://m.youtube.com/watch?v=ID、https://music.youtube.com/watch?v=ID
+     * - https://www.youtube.com/shorts/ID、/embed/ID、/live/ID、/v/ID
+     *
+     * @param url 影片網址
+     * @return 影片 ID，無法辨識時返回 null
+     */
+    public static String canonicalVideoId(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        String rest = url.trim();
+        int schemeEnd = rest.indexOf("://");
+        if (schemeEnd >= 0) {
+            rest = rest.substring(schemeEnd + 3);
+        }
+
+        int pathStart = indexOfAny(rest, '/', '?');
+        String host = (pathStart < 0 ? rest : rest.substring(0, pathStart)).toLowerCase(Locale.ROOT);
+        String pathAndQuery = pathStart < 0 ? "" : rest.substring(pathStart);
+
+        int fragment = pathAndQuery.indexOf('#');
+        if (fragment >= 0) {
+            pathAndQuery = pathAndQuery.substring(0, fragment);
+        }
+        int queryStart = pathAndQuery.indexOf('?');
+        String path = queryStart < 0 ? pathAndQuery : pathAndQuery.substring(0, queryStart);
+        String query = queryStart < 0 ? "" : pathAndQuery.substring(queryStart + 1);
+
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+
+        if (host.equals("youtu.be")) {
+            return validVideoId(firstPathSegment(path, 0));
+        }
+
+        if (!host.equals("youtube.com") && !host.endsWith(".youtube.com")
+                && !host.equals("youtube-nocookie.com")) {
+            return null;
+        }
+
+        if (path.equals("/watch") || path.equals("/watch/")) {
+            return validVideoId(queryParameter(query, "v"));
+        }
+
+        for (String prefix : new String[] {"/shorts/", "/embed/", "/live/", "/v/"}) {
+            if (path.startsWith(prefix)) {
+                return validVideoId(firstPathSegment(path, prefix.length() - 1));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 從串流 URL 取出簽章到期時間
+     * googlevideo 的 URL 以 expire=秒數 的查詢參數（或 /expire/秒數/ 路徑）表示
+     *
+     * @param streamUrl 直接串流 URL
+     * @return 到期時間（毫秒），找不到時返回 0
+     */
+    static long parseStreamExpiry(String streamUrl) {
+        if (streamUrl == null) {
+            return 0;
+        }
+
+        String value = null;
+        int queryStart = streamUrl.indexOf('?');
+        if (queryStart >= 0) {
+            value = queryParameter(streamUrl.substring(queryStart + 1), "expire");
+        }
+        if (value == null) {
+            int pathIndex = streamUrl.indexOf("/expire/");
+            if (pathIndex >= 0) {
+                value = firstPathSegment(streamUrl, pathIndex + "/expire".length());
+            }
+        }
+
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String queryParameter(String query, String name) {
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取出 slashIndex 位置的 '/' 之後的第一個路徑片段
+     */
+    private static String firstPathSegment(String path, int slashIndex) {
+        int start = slashIndex + 1;
+        if (start > path.length()) {
+            return null;
+        }
+        int end = indexOfAny(path.substring(start), '/', '?');
+        return end < 0 ? path.substring(start) : path.substring(start, start + end);
+    }
+
+    private static String validVideoId(String candidate) {
+        if (candidate == null || candidate.length() != VIDEO_ID_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            char c = candidate.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return null;
+            }
+        }
+        return candidate;
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == first || c == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 快取項目
+     */
+    private static class Entry {
+        private final String title;
+        private final long duration;
+        private final String thumbnail;
+        private final String uploader;
+        private final boolean live;
+        private final long streamExpiresAt;
+        private String streamUrl;
+
+        Entry(YouTubeResolver.TrackInfo trackInfo, long streamExpiresAt) {
+            this.title = trackInfo.title;
+            this.duration = trackInfo.duration;
+            this.thumbnail = trackInfo.thumbnail;
+            this.uploader = trackInfo.uploader;
+            this.live = trackInfo.live;
+            this.streamUrl = trackInfo.url;
+            this.streamExpiresAt = streamExpiresAt;
+        }
+
+        YouTubeResolver.TrackInfo toTrackInfo(String streamUrl) {
+            return new YouTubeResolver.TrackInfo(title, streamUrl, duration, thumbnail, uploader, live,
+                    streamUrl != null ? streamExpiresAt : 0);
+        }
+    }
+}
@@ -2,12 +2,40 @@ package com.coco.bot.handler;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -22,7 +50,9 @@ import org.springframework.stereotype.Component;
  * - 解析影片時長
  *
  * 技術實現：
- * - 使用 ProcessBuilder 執行 yt-dlp 命令
+ * - 優先透過 YtDlpWorkerPool 的常駐工作程序解析，省去每次啟動 Python 的成本
+ * - 工作程序池不可用時，退回使用 ProcessBuilder 執行 yt-dlp 命令，由 Process.onExit() 非同步通知結果
+ * - 子程序有解析期限，逾時或取消時終止整個程序樹
  * - 解析 yt-dlp 的輸出結果
  * - 處理各種錯誤情況
  */
@@ -30,9 +60,124 @@ import org.springframework.stereotype.Component;
 public class YouTubeResolver {
     private static final Logger logger = LoggerFactory.getLogger(YouTubeResolver.class);
 
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /** 批次解析時，每個播放清單最多展開的歌曲數量 */
+    static final int MAX_BATCH_PLAYLIST_ENTRIES = 200;
+
+    /** yt-dlp 的錯誤訊息，例如 "ERROR: [youtube] dQw4w9WgXcQ: Video unavailable" */
+    private static final Pattern ERROR_LINE = Pattern.compile("^ERROR: \\[[^\\]]+] ([^:\\s]+): (.*)$");
+
+    private static final Pattern PLAYLIST_ID = Pattern.compile("[?&]list=([A-Za-z0-9_-]+)");
+
+    private static final String WATCH_URL = "https://www.youtube.com/watch?v=";
+
+    /** yt-dlp 常駐工作程序池，可能為 null（直接啟動子程序） */
+    private final YtDlpWorkerPool workerPool;
+
+    /** 解析結果快取 */
+    private final TrackInfoCache cache;
+
+    /** yt-dlp 子程序的解析期限，超過時終止子程序 */
+    private final Duration resolveTimeout;
+
+    /** 批次解析的期限，超過時終止子程序，尚未完成的網址以逾時失敗 */
+    private final Duration batchTimeout;
+
+    /**
+     * 送出工作程序池請求與處理子程序結果的執行器（每個工作一條虛擬執行緒）
+     * Future 的後續動作（例如寫入資料庫）因此不會在共用的 ForkJoinPool 上執行
+     */
+    private final Executor callbackExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ytdlp-request-", 0).factory());
+
+    /** 監控指標登錄處 */
+    private final MeterRegistry meterRegistry;
+
+    /** 未命中快取的解析耗時，依解析方式（worker / process）分開 */
+    private final Timer workerLatency;
+    private final Timer processLatency;
+    private final Timer batchLatency;
+
+    /**
+     * 建構子，使用預設的解析期限
+     *
+     * @param workerPool yt-dlp 常駐工作程序池，null 表示每次解析都啟動新的 yt-dlp 子程序
+     * @param cache 解析結果快取
+     * @param meterRegistry 監控指標登錄處
+     */
+    public YouTubeResolver(YtDlpWorkerPool workerPool, TrackInfoCache cache, MeterRegistry meterRegistry) {
+        this(workerPool, cache, meterRegistry, 60, 600);
+    }
+
+    /**
+     * 建構子
+     *
+     * @param workerPool yt-dlp 常駐工作程序池
+     * @param cache 解析結果快取
+     * @param meterRegistry 監控指標登錄處
+     * @param processTimeoutSeconds yt-dlp 子程序的解析期限（秒）
+     * @param batchTimeoutSeconds 批次解析的期限（秒）
+     */
+    @Autowired
+    public YouTubeResolver(YtDlpWorkerPool workerPool, TrackInfoCache cache, MeterRegistry meterRegistry,
+                           @Value("${ytdlp.process.timeout-seconds:60}") long processTimeoutSeconds,
+                           @Value("${ytdlp.batch.timeout-seconds:600}") long batchTimeoutSeconds) {
+        this.workerPool = workerPool;
+        this.cache = cache;
+        this.resolveTimeout = Duration.ofSeconds(processTimeoutSeconds);
+        this.batchTimeout = Duration.ofSeconds(batchTimeoutSeconds);
+        this.meterRegistry = meterRegistry;
+        this.workerLatency = latencyTimer("worker");
+        this.processLatency = latencyTimer("process");
+        this.batchLatency = latencyTimer("batch");
+
+        FunctionCounter.builder("ytdlp.cache.requests", cache, TrackInfoCache::getHitCount)
+                .description("解析結果快取的查詢次數").tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("ytdlp.cache.requests", cache, TrackInfoCache::getMissCount)
+                .description("解析結果快取的查詢次數").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ytdlp.cache.size", cache, TrackInfoCache::size)
+                .description("解析結果快取的項目數量").register(meterRegistry);
+        if (workerPool != null) {
+            Gauge.builder("ytdlp.workers.alive", workerPool, YtDlpWorkerPool::getAliveWorkerCount)
+                    .description("已就緒的 yt-dlp 工作程序數量").register(meterRegistry);
+        }
+    }
+
+    private Timer latencyTimer(String path) {
+        return Timer.builder("ytdlp.resolve")
+                .description("yt-dlp 解析耗時（不含快取命中）")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 記錄一次解析失敗
+     *
+     * @param exitCode yt-dlp 子程序的退出碼；工作程序回報失敗時為 "worker"，超過期限時為 "timeout"，
+     *                 啟動或讀取子程序出錯時為 "exception"，批次解析中的單一網址失敗時為 "batch"
+     */
+    private void recordFailure(String exitCode) {
+        Counter.builder("ytdlp.resolve.failures")
+                .description("yt-dlp 解析失敗次數，依退出碼分開")
+                .tag("exit_code", exitCode)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 獲取解析結果快取（用於查看命中率等統計）
+     *
+     * @return 解析結果快取
+     */
+    public TrackInfoCache getCache() {
+        return cache;
+    }
+
     /**
      * 儲存 YouTube 影片資訊的資料類
-     * 包含標題、直接音頻 URL 和時長
+     * 包含標題、直接音頻 URL 和時長，以及 yt-dlp 提供的縮圖、上傳者、直播旗標與串流到期時間
      */
     public static class TrackInfo {
         /** 影片標題 */
@@ -44,6 +189,18 @@ public class YouTubeResolver {
         /** 影片時長（毫秒） */
         public final long duration;
 
+        /** 縮圖網址，沒有時為 null */
+        public final String thumbnail;
+
+        /** 上傳者，沒有時為 null */
+        public final String uploader;
+
+        /** 是否為直播 */
+        public final boolean live;
+
+        /** 串流 URL 的簽章到期時間（毫秒），未知時為 0 */
+        public final long expiresAt;
+
         /**
          * 建構子
          *
@@ -52,9 +209,29 @@ public class YouTubeResolver {
          * @param duration 影片時長（毫秒）
          */
         public TrackInfo(String title, String url, long duration) {
+            this(title, url, duration, null, null, false, 0);
+        }
+
+        /**
+         * 建構子
+         *
+         * @param title 影片標題
+         * @param url 直接音頻串流 URL
+         * @param duration 影片時長（毫秒）
+         * @param thumbnail 縮圖網址
+         * @param uploader 上傳者
+         * @param live 是否為直播
+         * @param expiresAt 串流 URL 的簽章到期時間（毫秒），未知時為 0
+         */
+        public TrackInfo(String title, String url, long duration, String thumbnail, String uploader,
+                         boolean live, long expiresAt) {
             this.title = title;
             this.url = url;
             this.duration = duration;
+            this.thumbnail = thumbnail;
+            this.uploader = uploader;
+            this.live = live;
+            this.expiresAt = expiresAt;
         }
     }
 
@@ -66,72 +243,746 @@ public class YouTubeResolver {
      * 2. 直接音頻串流 URL（最高品質）
      * 3. 影片時長
      *
+     * 同步版本，等待 resolveAsync 完成；失敗原因只記錄到日誌。
+     *
      * @param youtubeUrl YouTube 影片網址
      * @return TrackInfo 物件包含影片資訊，如果解析失敗則返回 null
      */
     public TrackInfo resolveYouTubeUrl(String youtubeUrl) {
+        if (youtubeUrl == null || youtubeUrl.isBlank()) {
+            return null;
+        }
+
+        CompletableFuture<TrackInfo> future = resolveAsync(youtubeUrl);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.error("YouTube URL 解析失敗: {} - {}", youtubeUrl, e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 非同步解析 YouTube URL
+     *
+     * 不佔用呼叫者的執行緒：工作程序池的請求在虛擬執行緒上送出，
+     * 子程序則由 Process.onExit() 在結束時通知。超過解析期限或 Future 被取消時，
+     * 會終止 yt-dlp 子程序以及它啟動的所有子程序。
+     *
+     * @param youtubeUrl YouTube 影片網址
+     * @return 完成時帶有影片資訊的 Future；失敗時以 ResolutionException 完成
+     */
+    public CompletableFuture<TrackInfo> resolveAsync(String youtubeUrl) {
+        if (youtubeUrl == null || youtubeUrl.isBlank()) {
+            return CompletableFuture.failedFuture(
+                    new ResolutionException(ResolutionException.Reason.INVALID_URL, "網址為空"));
+        }
+
+        TrackInfo cached = cache.get(youtubeUrl);
+        if (cached != null) {
+            logger.debug("解析快取命中: {}", youtubeUrl);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<TrackInfo> result = new CompletableFuture<>();
+        result.thenAccept(trackInfo -> cache.put(youtubeUrl, trackInfo));
+        if (workerPool != null && workerPool.isAvailable()) {
+            callbackExecutor.execute(() -> resolveWithWorker(youtubeUrl, result));
+        } else {
+            resolveWithProcess(youtubeUrl, result);
+        }
+        return result;
+    }
+
+    /**
+     * 非同步取得影片的標題與時長，不需要可播放的串流 URL 時使用
+     *
+     * 快取中的標題與時長不會隨串流 URL 過期，命中時不啟動 yt-dlp；
+     * 沒有快取時與 resolveAsync 相同，完整解析並寫入快取。
+     *
+     * @param youtubeUrl YouTube 影片網址
+     * @return 完成時帶有影片資訊的 Future；從快取取得時 url 為 null
+     */
+    public CompletableFuture<TrackInfo> resolveMetadataAsync(String youtubeUrl) {
+        if (youtubeUrl != null && !youtubeUrl.isBlank()) {
+            TrackInfo metadata = cache.getMetadata(youtubeUrl);
+            if (metadata != null) {
+                logger.debug("影片資訊快取命中: {}", youtubeUrl);
+                return CompletableFuture.completedFuture(metadata);
+            }
+        }
+        return resolveAsync(youtubeUrl);
+    }
+
+    /**
+     * 透過工作程序池解析影片
+     *
+     * 工作程序池已停止、沒有存活的工作程序，或所有工作程序都在忙碌時改用子程序；
+     * 請求逾時代表 yt-dlp 本身解析不完，再啟動子程序只會重複等待，直接以 TIMEOUT 失敗。
+     */
+    private void resolveWithWorker(String youtubeUrl, CompletableFuture<TrackInfo> result) {
+        if (result.isDone()) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            // 建立 yt-dlp 命令列表
-            List<String> command = new ArrayList<>();
-
-            // 使用 python -m yt_dlp 來執行 yt-dlp
-            String ytDlpPath = findYtDlpPath();
-            String[] pathParts = ytDlpPath.split(",");
-            for (String part : pathParts) {
-                command.add(part);
-            }
-
-            // 添加 yt-dlp 參數
-            command.add("--get-title");        // 獲取影片標題
-            command.add("--get-url");          // 獲取直接串流 URL
-            command.add("--get-duration");     // 獲取影片時長
-            command.add("--format");           // 指定格式
-            command.add("bestaudio/best");     // 最佳音頻品質，如果沒有則使用最佳品質
-            command.add("--no-playlist");      // 只下載單一影片，不處理播放列表
-            command.add(youtubeUrl);           // YouTube URL
-
-            // 建立並配置 Process
+            TrackInfo trackInfo = workerPool.resolve(youtubeUrl);
+            workerLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (trackInfo == null) {
+                recordFailure("worker");
+                result.completeExceptionally(new ResolutionException(ResolutionException.Reason.UNAVAILABLE,
+                        "yt-dlp 工作程序無法解析影片"));
+            } else {
+                result.complete(trackInfo);
+            }
+        } catch (YtDlpWorkerPool.WorkerBusyException e) {
+            logger.info("yt-dlp 工作程序都在忙碌，改用子程序解析: {}", youtubeUrl);
+            resolveWithProcess(youtubeUrl, result);
+        } catch (YtDlpWorkerPool.WorkerTimeoutException e) {
+            logger.error("yt-dlp 工作程序解析逾時: {} - {}", youtubeUrl, e.getMessage());
+            recordFailure("timeout");
+            result.completeExceptionally(new ResolutionException(ResolutionException.Reason.TIMEOUT,
+                    "yt-dlp 工作程序解析逾時", null, e));
+        } catch (IOException e) {
+            if (!workerPool.isAvailable()) {
+                logger.warn("yt-dlp 工作程序池無法使用，改用子程序解析: {}", e.getMessage());
+                resolveWithProcess(youtubeUrl, result);
+                return;
+            }
+            recordFailure("exception");
+            result.completeExceptionally(new ResolutionException(ResolutionException.Reason.PROCESS_ERROR,
+                    "yt-dlp 工作程序發生錯誤: " + e.getMessage(), null, e));
+        } catch (RuntimeException e) {
+            recordFailure("exception");
+            result.completeExceptionally(new ResolutionException(ResolutionException.Reason.PROCESS_ERROR,
+                    "yt-dlp 工作程序發生錯誤: " + e.getMessage(), null, e));
+        }
+    }
+
+    /**
+     * 啟動一個新的 yt-dlp 子程序解析影片
+     *
+     * 標準輸出（JSON）與錯誤輸出分別寫入暫存檔，子程序結束後才讀取，等待期間不佔用任何執行緒。
+     * 錯誤輸出中的警告不會混進 JSON，也就不會讓解析失敗。
+     *
+     * @param youtubeUrl YouTube 影片網址
+     * @param result 解析結果，完成（包含取消）後子程序如果還在執行會被終止
+     */
+    private void resolveWithProcess(String youtubeUrl, CompletableFuture<TrackInfo> result) {
+        if (result.isDone()) {
+            return;
+        }
+
+        // 建立 yt-dlp 命令列表
+        List<String> command = ytDlpCommand();
+
+        // 添加 yt-dlp 參數
+        command.add("--dump-json");        // 以 JSON 輸出影片資訊（標題、串流 URL、時長等）
+        command.add("--no-warnings");      // 警告只會寫到錯誤輸出，這裡直接略過
+        command.add("--format");           // 指定格式
+        command.add("bestaudio/best");     // 最佳音頻品質，如果沒有則使用最佳品質
+        command.add("--no-playlist");      // 只下載單一影片，不處理播放列表
+        command.add(youtubeUrl);           // YouTube URL
+
+        long start = System.nanoTime();
+        Path outputFile = null;
+        Path errorFile = null;
+        Process process;
+        try {
+            // 標準輸出與錯誤輸出分別寫入暫存檔，由作業系統持續排空
+            outputFile = Files.createTempFile("yt-dlp-", ".json");
+            errorFile = Files.createTempFile("yt-dlp-", ".err");
             ProcessBuilder pb = new ProcessBuilder(command);
-            pb.redirectErrorStream(true); // 將錯誤輸出重定向到標準輸出
-            Process process = pb.start();
+            pb.redirectOutput(outputFile.toFile());
+            pb.redirectError(errorFile.toFile());
+            process = pb.start();
+        } catch (IOException e) {
+            logger.error("無法啟動 yt-dlp: {}", e.getMessage(), e);
+            recordFailure("exception");
+            deleteQuietly(outputFile);
+            deleteQuietly(errorFile);
+            result.completeExceptionally(new ResolutionException(ResolutionException.Reason.PROCESS_ERROR,
+                    "無法啟動 yt-dlp: " + e.getMessage(), null, e));
+            return;
+        }
 
-            // 讀取 yt-dlp 的輸出
-            List<String> output = new ArrayList<>();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+        // 逾時、取消或其他原因完成時，終止仍在執行的子程序
+        result.whenComplete((trackInfo, error) -> {
+            if (process.isAlive()) {
+                destroyProcessTree(process);
+            }
+        });
+
+        Path output = outputFile;
+        Path errors = errorFile;
+        process.onExit()
+                .orTimeout(resolveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenCompleteAsync((exited, error) -> {
+                    try {
+                        processLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (result.isDone()) {
+                            return;
+                        }
+                        if (error != null) {
+                            logger.error("yt-dlp 超過 {} 秒未完成，已終止: {}", resolveTimeout.toSeconds(), youtubeUrl);
+                            recordFailure("timeout");
+                            result.completeExceptionally(new ResolutionException(ResolutionException.Reason.TIMEOUT,
+                                    "yt-dlp 超過 " + resolveTimeout.toSeconds() + " 秒未完成"));
+                            return;
+                        }
+                        int exitCode = exited.exitValue();
+                        if (exitCode != 0) {
+                            recordFailure(String.valueOf(exitCode));
+                        }
+                        List<String> errorLines = Files.readAllLines(errors, StandardCharsets.UTF_8);
+                        try (InputStream json = Files.newInputStream(output)) {
+                            result.complete(parseOutput(exitCode, json, errorLines));
+                        }
+                    } catch (ResolutionException e) {
+                        result.completeExceptionally(e);
+                    } catch (Exception e) {
+                        logger.error("讀取 yt-dlp 輸出時發生錯誤: {}", e.getMessage(), e);
+                        recordFailure("exception");
+                        result.completeExceptionally(new ResolutionException(ResolutionException.Reason.PROCESS_ERROR,
+                                "無法讀取 yt-dlp 輸出: " + e.getMessage(), null, e));
+                    } finally {
+                        deleteQuietly(output);
+                        deleteQuietly(errors);
+                    }
+                }, callbackExecutor);
+    }
+
+    /**
+     * 批次解析的結果通知
+     *
+     * 每個網址（YouTube 播放清單則是其中每一首）在解析出來時立即通知一次，
+     * 重複輸入的網址只解析一次，但每個輸入位置都會各自收到通知。
+     * 通知可能來自讀取標準輸出與錯誤輸出的兩條虛擬執行緒，實作需要是執行緒安全的。
+     */
+    public interface BatchListener {
+        /**
+         * @param index 對應的輸入網址位置；播放清單中的歌曲使用播放清單網址的位置
+         * @param url 影片網址（輸入的網址，或播放清單中歌曲的網頁網址）
+         * @param trackInfo 影片資訊
+         */
+        void onResolved(int index, String url, TrackInfo trackInfo);
+
+        /**
+         * @param index 對應的輸入網址位置
+         * @param url 解析失敗的網址
+         * @param error 失敗原因
+         */
+        void onFailed(int index, String url, ResolutionException error);
+
+        /**
+         * 播放清單中的某一首解析失敗
+         *
+         * yt-dlp 的錯誤訊息只有影片 ID，無法得知它屬於哪一個輸入的播放清單，
+         * 因此不對應到任何輸入位置，只用於統計失敗的歌曲數量。
+         *
+         * @param url 失敗歌曲的影片網址
+         * @param error 失敗原因
+         */
+        default void onPlaylistEntryFailed(String url, ResolutionException error) {
+        }
+    }
+
+    /**
+     * yt-dlp --dump-json 輸出的一首影片
+     *
+     * @param id 影片 ID
+     * @param playlistId 所屬播放清單 ID，不是從播放清單展開時為 null
+     * @param originalUrl 傳給 yt-dlp 的網址
+     * @param webpageUrl 影片網頁網址
+     * @param trackInfo 影片資訊，缺少標題或串流網址時為 null
+     */
+    public record JsonEntry(String id, String playlistId, String originalUrl, String webpageUrl, TrackInfo trackInfo) {
+    }
+
+    /**
+     * 以單一 yt-dlp 子程序批次解析多個網址
+     *
+     * 所有未命中快取的網址（也可以是 YouTube 播放清單網址）一次交給 yt-dlp，
+     * 只需要啟動一次 Python。yt-dlp 每解析完一首就輸出一行 JSON，這裡以串流方式逐個解析並立即通知；
+     * 個別影片的錯誤依影片 ID 對應回輸入的網址，不影響其他網址。
+     *
+     * 每個輸入網址都一定會收到至少一次通知（成功、失敗或逾時），所有通知完成後 Future 才完成。
+     * 取消 Future 會終止子程序，之後不再通知。
+     *
+     * @param urls 影片或播放清單網址
+     * @param listener 結果通知
+     * @return 全部網址處理完成時完成的 Future
+     */
+    public CompletableFuture<Void> resolveBatchAsync(List<String> urls, BatchListener listener) {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i);
+            if (url == null || url.isBlank()) {
+                listener.onFailed(i, url, new ResolutionException(ResolutionException.Reason.INVALID_URL, "網址為空"));
+                continue;
+            }
+            TrackInfo cached = cache.get(url);
+            if (cached != null) {
+                listener.onResolved(i, url, cached);
+            } else {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Thread.ofVirtual().name("ytdlp-batch").start(() -> runBatch(urls, pending, listener, result));
+        return result;
+    }
+
+    /**
+     * 執行一次批次解析，在虛擬執行緒上讀取標準輸出直到子程序結束
+     */
+    private void runBatch(List<String> urls, List<Integer> pending, BatchListener listener, CompletableFuture<Void> result) {
+        long start = System.nanoTime();
+        BatchRun run = new BatchRun(urls, pending, listener, result);
+
+        List<String> command = ytDlpCommand();
+        command.add("--dump-json");                   // 每首影片輸出一行 JSON
+        command.add("--ignore-errors");               // 單一影片失敗時繼續處理其他網址
+        command.add("--no-warnings");
+        command.add("--format");
+        command.add("bestaudio/best");
+        command.add("--no-playlist");                 // watch?v=...&list=... 只解析該影片，播放清單網址仍會展開
+        command.add("--playlist-end");
+        command.add(String.valueOf(MAX_BATCH_PLAYLIST_ENTRIES));
+        command.addAll(run.arguments);
+
+        Process process;
+        try {
+            process = new ProcessBuilder(command).start();
+        } catch (IOException e) {
+            logger.error("無法啟動 yt-dlp 批次解析: {}", e.getMessage(), e);
+            run.failRemaining(ResolutionException.Reason.PROCESS_ERROR, "無法啟動 yt-dlp: " + e.getMessage());
+            result.complete(null);
+            return;
+        }
+
+        // 逾時或取消時終止整個程序樹，讀取中的輸出隨之結束
+        AtomicBoolean timedOut = new AtomicBoolean();
+        result.whenComplete((ignored, error) -> {
+            if (process.isAlive()) {
+                destroyProcessTree(process);
+            }
+        });
+        process.onExit()
+                .orTimeout(batchTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((exited, error) -> {
+                    if (error != null && process.isAlive()) {
+                        timedOut.set(true);
+                        destroyProcessTree(process);
+                    }
+                });
+
+        Thread errorReader = Thread.ofVirtual().name("ytdlp-batch-stderr").start(() -> {
+            try (BufferedReader reader = process.errorReader(StandardCharsets.UTF_8)) {
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    output.add(line);
+                    run.onErrorLine(line);
                 }
+            } catch (IOException e) {
+                logger.debug("讀取 yt-dlp 錯誤輸出中斷: {}", e.getMessage());
             }
+        });
 
-            // 等待 process 完成並檢查退出代碼
+        try {
+            readBatchOutput(process.getInputStream(), run);
+            errorReader.join();
             int exitCode = process.waitFor();
+            batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (timedOut.get()) {
+                logger.error("yt-dlp 批次解析超過 {} 秒未完成，已終止", batchTimeout.toSeconds());
+                run.failRemaining(ResolutionException.Reason.TIMEOUT,
+                        "yt-dlp 批次解析超過 " + batchTimeout.toSeconds() + " 秒未完成");
+            } else {
+                run.failRemaining(ResolutionException.Reason.UNAVAILABLE, "yt-dlp 沒有回傳這個網址的結果（退出碼 " + exitCode + "）");
+            }
+            logger.info("yt-dlp 批次解析完成: {} 個網址，成功 {} 首，失敗 {} 個", pending.size(), run.resolved.get(), run.failed.get());
+        } catch (JsonProcessingException e) {
+            logger.error("yt-dlp 批次輸出不是有效的 JSON: {}", e.getOriginalMessage());
+            destroyProcessTree(process);
+            run.failRemaining(ResolutionException.Reason.MALFORMED_OUTPUT, "yt-dlp 輸出不是有效的 JSON");
+        } catch (IOException e) {
+            logger.error("讀取 yt-dlp 批次輸出時發生錯誤: {}", e.getMessage(), e);
+            run.failRemaining(ResolutionException.Reason.PROCESS_ERROR, "無法讀取 yt-dlp 輸出: " + e.getMessage());
+        } catch (InterruptedException e) {
+            destroyProcessTree(process);
+            run.failRemaining(ResolutionException.Reason.PROCESS_ERROR, "批次解析被中斷");
+            Thread.currentThread().interrupt();
+        } finally {
+            result.complete(null);
+        }
+    }
 
-            if (exitCode == 0 && output.size() >= 3) {
-                // 解析成功，提取資訊
-                // yt-dlp 的輸出順序：標題、URL、時長
-                String title = output.get(0);
-                String directUrl = output.get(1);
-                String durationStr = output.get(2);
+    /**
+     * 重播一次批次解析的 yt-dlp 標準輸出，把每一首對應回輸入的網址並通知
+     *
+     * 與 resolveBatchAsync 使用相同的對應規則，但不啟動 yt-dlp、不查詢快取（結果仍會寫入快取）；
+     * 讀完輸出後仍沒有收到通知的網址以 UNAVAILABLE 失敗。
+     *
+     * @param urls 影片或播放清單網址
+     * @param json yt-dlp --dump-json 的標準輸出
+     * @param listener 結果通知
+     * @throws IOException 輸出不是有效的 JSON 時
+     */
+    public void replayBatchOutput(List<String> urls, InputStream json, BatchListener listener) throws IOException {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            if (urls.get(i) != null && !urls.get(i).isBlank()) {
+                pending.add(i);
+            }
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        BatchRun run = new BatchRun(urls, pending, listener, result);
+        try {
+            readBatchOutput(json, run);
+            run.failRemaining(ResolutionException.Reason.UNAVAILABLE, "yt-dlp 沒有回傳這個網址的結果");
+        } finally {
+            result.complete(null);
+        }
+    }
 
-                // 解析時長字符串為毫秒
-                long duration = parseDuration(durationStr);
+    /**
+     * 標準輸出是一連串 JSON 物件（每首一行），直接從串流逐個解析，不需要先讀成字串
+     */
+    private void readBatchOutput(InputStream json, BatchRun run) throws IOException {
+        try (JsonParser parser = JSON.createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    run.onEntry(readEntry(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
 
-                return new TrackInfo(title, directUrl, duration);
+    /**
+     * 一次批次解析的狀態：把 yt-dlp 的每一行輸出對應回輸入的網址
+     */
+    private class BatchRun {
+        private final List<String> urls;
+        private final BatchListener listener;
+        private final CompletableFuture<Void> result;
+
+        /** 影片 ID / 播放清單 ID / 原始網址 -> 所有指向它的輸入位置（依輸入順序） */
+        private final Map<String, List<Integer>> indexesByVideoId = new ConcurrentHashMap<>();
+        private final Map<String, List<Integer>> indexesByPlaylistId = new ConcurrentHashMap<>();
+        private final Map<String, List<Integer>> indexesByUrl = new ConcurrentHashMap<>();
+
+        /** 交給 yt-dlp 的網址，同一部影片或播放清單只出現一次 */
+        private final List<String> arguments = new ArrayList<>();
+
+        /** 還沒有收到任何通知的輸入位置 */
+        private final Set<Integer> unreported = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger resolved = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        BatchRun(List<String> urls, List<Integer> pending, BatchListener listener, CompletableFuture<Void> result) {
+            this.urls = urls;
+            this.listener = listener;
+            this.result = result;
+            // 建構完成後才啟動讀取執行緒，之後這些對應表只會被讀取
+            for (int index : pending) {
+                String url = urls.get(index);
+                String videoId = TrackInfoCache.canonicalVideoId(url);
+                String playlistId = videoId == null ? playlistId(url) : null;
+                List<Integer> indexes = videoId != null ? indexesByVideoId.get(videoId)
+                        : playlistId != null ? indexesByPlaylistId.get(playlistId)
+                        : indexesByUrl.get(url);
+                if (indexes == null) {
+                    indexes = new ArrayList<>();
+                    if (videoId != null) {
+                        indexesByVideoId.put(videoId, indexes);
+                    } else if (playlistId != null) {
+                        indexesByPlaylistId.put(playlistId, indexes);
+                    }
+                    arguments.add(url);
+                }
+                indexesByUrl.putIfAbsent(url, indexes);
+                indexes.add(index);
+                unreported.add(index);
+            }
+        }
+
+        void onEntry(JsonEntry entry) {
+            if (result.isDone()) {
+                return;
+            }
+            if (entry.trackInfo() == null) {
+                logger.warn("略過缺少標題或串流網址的 yt-dlp 輸出: {}", entry.id());
+                return;
+            }
+
+            // 從輸入的播放清單展開的歌曲屬於該播放清單的位置，即使同一部影片也單獨出現在輸入中
+            // （yt-dlp 會各輸出一次，單獨的那一次沒有 playlist_id）
+            List<Integer> indexes = entry.playlistId() != null ? indexesByPlaylistId.get(entry.playlistId()) : null;
+            if (indexes == null) {
+                List<Integer> videoIndexes = entry.id() != null ? indexesByVideoId.get(entry.id()) : null;
+                if (videoIndexes != null) {
+                    for (int index : videoIndexes) {
+                        report(index, urls.get(index), entry.trackInfo());
+                    }
+                    return;
+                }
+            }
+            if (indexes == null && entry.originalUrl() != null) {
+                indexes = indexesByUrl.get(entry.originalUrl());
+            }
+            if (indexes == null) {
+                logger.warn("無法對應 yt-dlp 的結果到輸入網址: {}", entry.webpageUrl());
+                return;
+            }
+            for (int index : indexes) {
+                String url = entry.webpageUrl() != null ? entry.webpageUrl() : urls.get(index);
+                report(index, url, entry.trackInfo());
+            }
+        }
+
+        void onErrorLine(String line) {
+            Matcher matcher = ERROR_LINE.matcher(line);
+            if (!matcher.matches()) {
+                logger.debug("yt-dlp 批次輸出: {}", line);
+                return;
+            }
+            String id = matcher.group(1);
+            List<Integer> indexes = indexesByVideoId.get(id);
+            if (indexes == null) {
+                indexes = indexesByPlaylistId.get(id);
+            }
+            if (indexes != null) {
+                for (int index : indexes) {
+                    fail(index, ResolutionException.Reason.UNAVAILABLE, matcher.group(2));
+                }
+            } else if (!indexesByPlaylistId.isEmpty()) {
+                // 播放清單中的某一首失敗，無法得知屬於哪個播放清單，只計入失敗數量
+                logger.warn("yt-dlp 批次解析播放清單歌曲失敗: {}", line);
+                failPlaylistEntry(WATCH_URL + id, matcher.group(2));
             } else {
-                // 解析失敗，記錄錯誤資訊
-                logger.error("yt-dlp 失敗，退出碼: {}", exitCode);
-                for (String line : output) {
-                    logger.error("yt-dlp 輸出: {}", line);
+                logger.warn("yt-dlp 批次解析錯誤: {}", line);
+            }
+        }
+
+        private void report(int index, String url, TrackInfo trackInfo) {
+            if (result.isDone()) {
+                return;
+            }
+            unreported.remove(index);
+            resolved.incrementAndGet();
+            cache.put(url, trackInfo);
+            listener.onResolved(index, url, trackInfo);
+        }
+
+        private void fail(int index, ResolutionException.Reason reason, String message) {
+            if (result.isDone() || !unreported.remove(index)) {
+                return;
+            }
+            failed.incrementAndGet();
+            recordFailure("batch");
+            listener.onFailed(index, urls.get(index), new ResolutionException(reason, message));
+        }
+
+        private void failPlaylistEntry(String url, String message) {
+            if (result.isDone()) {
+                return;
+            }
+            failed.incrementAndGet();
+            recordFailure("batch");
+            listener.onPlaylistEntryFailed(url, new ResolutionException(ResolutionException.Reason.UNAVAILABLE, message));
+        }
+
+        /**
+         * 讓所有還沒有收到通知的網址以指定原因失敗
+         */
+        void failRemaining(ResolutionException.Reason reason, String message) {
+            for (Integer index : List.copyOf(unreported)) {
+                fail(index, reason, message);
+            }
+        }
+    }
+
+    /**
+     * 解析 yt-dlp --dump-json 輸出的一個 JSON 物件
+     *
+     * @param json 一個 JSON 物件（一首影片）
+     * @return 影片 ID、來源與影片資訊
+     * @throws ResolutionException JSON 格式錯誤或缺少標題、串流網址時
+     */
+    public static JsonEntry parseJsonEntry(String json) {
+        try (JsonParser parser = JSON.createParser(json)) {
+            return requireTrackInfo(parser.nextToken() == JsonToken.START_OBJECT ? readEntry(parser) : null);
+        } catch (IOException e) {
+            throw new ResolutionException(ResolutionException.Reason.MALFORMED_OUTPUT, "無法解析 JSON: " + e.getMessage(), null, e);
+        }
+    }
+
+    /**
+     * 以串流方式讀取一首影片的 JSON 物件，只取出需要的欄位
+     *
+     * yt-dlp 的輸出包含所有格式、字幕與縮圖清單，常常有數百 KB；
+     * 這裡逐個 token 讀取，不需要的欄位直接跳過，不會在記憶體中建立整棵 JSON 樹。
+     *
+     * @param parser 位於物件開頭（START_OBJECT）的解析器，返回時位於物件結尾
+     * @return 影片資訊；缺少標題或串流網址時 trackInfo 為 null
+     */
+    static JsonEntry readEntry(JsonParser parser) throws IOException {
+        String id = null;
+        String title = null;
+        String streamUrl = null;
+        double duration = 0;
+        String thumbnail = null;
+        String uploader = null;
+        boolean live = false;
+        String playlistId = null;
+        String originalUrl = null;
+        String webpageUrl = null;
+        String requestedFormatUrl = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "title" -> title = parser.getValueAsString();
+                case "url" -> streamUrl = parser.getValueAsString();
+                case "duration" -> duration = parser.getValueAsDouble(0);
+                case "thumbnail" -> thumbnail = parser.getValueAsString();
+                case "uploader" -> uploader = parser.getValueAsString();
+                case "is_live" -> live = parser.getValueAsBoolean(false);
+                case "playlist_id" -> playlistId = parser.getValueAsString();
+                case "original_url" -> originalUrl = parser.getValueAsString();
+                case "webpage_url" -> webpageUrl = parser.getValueAsString();
+                // 影音分開的格式（bestaudio 不存在時）沒有最上層的 url，改用第一個格式的 url
+                case "requested_formats" -> requestedFormatUrl = readFirstFormatUrl(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (streamUrl == null) {
+            streamUrl = requestedFormatUrl;
+        }
+        TrackInfo trackInfo = title == null || streamUrl == null ? null
+                : new TrackInfo(title, streamUrl, Math.round(duration * 1000), thumbnail, uploader, live,
+                        TrackInfoCache.parseStreamExpiry(streamUrl));
+        return new JsonEntry(id, playlistId, originalUrl, webpageUrl, trackInfo);
+    }
+
+    /**
+     * 讀取 requested_formats 陣列中第一個格式的 url，其餘內容跳過
+     */
+    private static String readFirstFormatUrl(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String url = null;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (url == null && "url".equals(field)) {
+                    url = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
                 }
             }
+        }
+        return url;
+    }
+
+    private static JsonEntry requireTrackInfo(JsonEntry entry) {
+        if (entry == null || entry.trackInfo() == null) {
+            throw new ResolutionException(ResolutionException.Reason.MALFORMED_OUTPUT, "yt-dlp 輸出缺少標題或串流網址");
+        }
+        return entry;
+    }
+
+    /**
+     * 取出網址中的 YouTube 播放清單 ID（list 參數）
+     */
+    private static String playlistId(String url) {
+        Matcher matcher = PLAYLIST_ID.matcher(url);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 解析 yt-dlp --dump-json 的輸出
+     *
+     * @param exitCode yt-dlp 的退出碼
+     * @param json yt-dlp 的標準輸出（一個 JSON 物件）
+     * @param errors yt-dlp 的錯誤輸出，失敗時用來說明原因
+     * @return 影片資訊
+     * @throws ResolutionException yt-dlp 失敗或輸出不完整時
+     */
+    public static TrackInfo parseOutput(int exitCode, InputStream json, List<String> errors) {
+        if (exitCode != 0) {
+            // 解析失敗，記錄錯誤資訊
+            logger.error("yt-dlp 失敗，退出碼: {}", exitCode);
+            for (String line : errors) {
+                logger.error("yt-dlp 輸出: {}", line);
+            }
+            String detail = errors.isEmpty() ? "" : "：" + errors.get(errors.size() - 1);
+            throw new ResolutionException(ResolutionException.Reason.UNAVAILABLE,
+                    "yt-dlp 失敗，退出碼 " + exitCode + detail, exitCode);
+        }
 
-        } catch (Exception e) {
-            // 捕獲任何意外錯誤
-            logger.error("YouTube URL 解析錯誤: {}", e.getMessage(), e);
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.error("yt-dlp 沒有輸出 JSON: {}", errors);
+                throw new ResolutionException(ResolutionException.Reason.MALFORMED_OUTPUT, "yt-dlp 沒有輸出 JSON", exitCode);
+            }
+            JsonEntry entry = readEntry(parser);
+            if (entry.trackInfo() == null) {
+                logger.error("yt-dlp 輸出缺少標題或串流網址: {}", entry.id());
+                throw new ResolutionException(ResolutionException.Reason.MALFORMED_OUTPUT,
+                        "yt-dlp 輸出缺少標題或串流網址", exitCode);
+            }
+            return entry.trackInfo();
+        } catch (IOException e) {
+            logger.error("yt-dlp 輸出不是有效的 JSON: {}", e.getMessage());
+            throw new ResolutionException(ResolutionException.Reason.MALFORMED_OUTPUT,
+                    "yt-dlp 輸出不是有效的 JSON: " + e.getMessage(), exitCode, e);
         }
+    }
 
-        return null; // 解析失敗
+    /**
+     * 終止子程序以及它啟動的所有子程序（python 可能再啟動 ffmpeg 等程序）
+     */
+    private static void destroyProcessTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("無法刪除 yt-dlp 暫存檔: {}", file);
+        }
+    }
+
+    /**
+     * 建立執行 yt-dlp 的命令開頭（之後加上參數）
+     */
+    private List<String> ytDlpCommand() {
+        // 使用 python -m yt_dlp 來執行 yt-dlp
+        return new ArrayList<>(List.of(findYtDlpPath().split(",")));
     }
 
     /**
@@ -147,43 +998,4 @@ public class YouTubeResolver {
         // 逗號分隔的格式用於後續 split 操作
         return "python,-m,yt_dlp";
     }
-
-    /**
-     * 解析時長字符串為毫秒數
-     *
-     * yt-dlp 返回的時長格式可能是：
-     * - MM:SS（如 "3:45"）
-     * - HH:MM:SS（如 "1:23:45"）
-     *
-     * @param durationStr 時長字符串
-     * @return 時長（毫秒），如果解析失敗則返回 0
-     */
-    private long parseDuration(String durationStr) {
-        try {
-            // 按冒號分割時間字符串
-            String[] parts = durationStr.split(":");
-            long totalSeconds = 0;
-
-            if (parts.length == 2) {
-                // MM:SS 格式
-                int minutes = Integer.parseInt(parts[0]);
-                int seconds = Integer.parseInt(parts[1]);
-                totalSeconds = minutes * 60 + seconds;
-            } else if (parts.length == 3) {
-                // HH:MM:SS 格式
-                int hours = Integer.parseInt(parts[0]);
-                int minutes = Integer.parseInt(parts[1]);
-                int seconds = Integer.parseInt(parts[2]);
-                totalSeconds = hours * 3600 + minutes * 60 + seconds;
-            }
-
-            // 轉換為毫秒（LavaPlayer 使用毫秒單位）
-            return totalSeconds * 1000;
-
-        } catch (NumberFormatException e) {
-            // 解析失敗，記錄錯誤並返回 0
-            logger.error("無法解析時長: {}", durationStr);
-            return 0;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,550 @@
+package com.coco.bot.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * yt-dlp 常駐工作程序池
+ *
+ * 每次解析都啟動 python -m yt_dlp 需要付出直譯器啟動與模組載入的成本（數百毫秒到數秒），
+ * 這個類別維護一組長時間運行的 Python 工作程序（resolver_worker.py），
+ * 透過 stdin/stdout 的「一行一個 JSON」協定送出解析請求。
+ *
+ * 主要功能：
+ * - 可設定的工作程序數量
+ * - 請求逾時：逾時的工作程序會被終止並重新啟動
+ * - 程序意外結束時自動重啟
+ * - 定期對閒置的工作程序做健康檢查（ping）
+ */
+@Component
+public class YtDlpWorkerPool {
+    private static final Logger logger = LoggerFactory.getLogger(YtDlpWorkerPool.class);
+
+    /** 內建工作程序腳本的 classpath 位置 */
+    private static final String WORKER_SCRIPT_RESOURCE = "/ytdlp/resolver_worker.py";
+
+    /** 重啟失敗時的重試間隔 */
+    private static final long RESTART_RETRY_SECONDS = 10;
+
+    /** 所有工作程序都在忙碌時最多等待的時間，超過時呼叫者改用子程序，而不是先等完整個請求期限 */
+    private static final Duration BORROW_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean enabled;
+    private final List<String> workerCommand;
+    private final int poolSize;
+    private final Duration requestTimeout;
+    private final Duration healthCheckInterval;
+
+    /** 目前可借用的工作程序 */
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+
+    /** 已完成啟動握手（收到 ready）且仍存活的工作程序數量 */
+    private final AtomicInteger aliveWorkers = new AtomicInteger();
+
+    private final AtomicInteger workerSequence = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    /**
+     * Spring 使用的建構子，從設定檔讀取參數
+     */
+    @Autowired
+    public YtDlpWorkerPool(@Value("${ytdlp.worker.enabled:true}") boolean enabled,
+                           @Value("${ytdlp.worker.python:python}") String python,
+                           @Value("${ytdlp.worker.script:}") String script,
+                           @Value("${ytdlp.worker.pool-size:2}") int poolSize,
+                           @Value("${ytdlp.worker.request-timeout-seconds:30}") long requestTimeoutSeconds,
+                           @Value("${ytdlp.worker.health-check-interval-seconds:60}") long healthCheckIntervalSeconds) {
+        // 停用時不需要啟動命令，也不必把內建腳本複製到暫存檔
+        this(enabled, enabled ? buildCommand(python, script) : List.of(), poolSize,
+                Duration.ofSeconds(requestTimeoutSeconds), Duration.ofSeconds(healthCheckIntervalSeconds));
+    }
+
+    /**
+     * 建構子
+     *
+     * @param enabled 是否啟用工作程序池
+     * @param workerCommand 啟動工作程序的完整命令
+     * @param poolSize 工作程序數量
+     * @param requestTimeout 單一請求的逾時時間
+     * @param healthCheckInterval 健康檢查間隔
+     */
+    public YtDlpWorkerPool(boolean enabled, List<String> workerCommand, int poolSize,
+                           Duration requestTimeout, Duration healthCheckInterval) {
+        this.enabled = enabled;
+        this.workerCommand = workerCommand;
+        this.poolSize = Math.max(1, poolSize);
+        this.requestTimeout = requestTimeout;
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    /**
+     * 啟動所有工作程序與健康檢查排程
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ytdlp-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // 在背景啟動工作程序，避免 Python 啟動時間拖慢應用程式啟動
+        for (int i = 0; i < poolSize; i++) {
+            scheduler.execute(this::spawnWorker);
+        }
+
+        long intervalMillis = healthCheckInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::healthCheck, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("yt-dlp 工作程序池已啟動 (大小: {}, 逾時: {} 秒)", poolSize, requestTimeout.toSeconds());
+    }
+
+    /**
+     * 關閉所有工作程序
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+
+        List<Worker> workers = new ArrayList<>();
+        idleWorkers.drainTo(workers);
+        workers.forEach(Worker::destroy);
+        logger.info("yt-dlp 工作程序池已關閉");
+    }
+
+    /**
+     * 工作程序池是否可用（已啟動且至少有一個已就緒的工作程序）
+     *
+     * 工作程序在收到 ready 訊息後才計入，yt-dlp 未安裝或腳本在匯入時崩潰時一直返回 false，
+     * 呼叫者會直接改用子程序，而不是每次都等到借用逾時。
+     *
+     * @return true 如果可以送出請求
+     */
+    public boolean isAvailable() {
+        return running && aliveWorkers.get() > 0;
+    }
+
+    /**
+     * 目前已就緒的工作程序數量
+     *
+     * @return 已就緒數量
+     */
+    public int getAliveWorkerCount() {
+        return aliveWorkers.get();
+    }
+
+    /**
+     * 透過工作程序解析影片
+     *
+     * @param url 影片網址
+     * @return 解析結果；如果 yt-dlp 回報影片無法解析則返回 null
+     * @throws WorkerBusyException 短時間內沒有閒置的工作程序
+     * @throws WorkerTimeoutException 工作程序回應逾時
+     * @throws IOException 工作程序池不可用或工作程序崩潰時
+     */
+    public YouTubeResolver.TrackInfo resolve(String url) throws IOException {
+        if (!running) {
+            throw new IOException("yt-dlp 工作程序池未啟動");
+        }
+
+        Worker worker = borrowWorker();
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("op", "resolve");
+        request.put("url", url);
+
+        JsonNode response;
+        try {
+            response = worker.send(request, requestTimeout);
+        } catch (IOException e) {
+            replaceWorker(worker);
+            throw e;
+        }
+        releaseWorker(worker);
+
+        if (!response.path("ok").asBoolean(false)) {
+            logger.error("yt-dlp 工作程序解析失敗: {} - {}", url, response.path("error").asText());
+            return null;
+        }
+
+        String title = response.path("title").asText(null);
+        String directUrl = response.path("url").asText(null);
+        long duration = Math.round(response.path("duration").asDouble(0) * 1000);
+        if (title == null || directUrl == null) {
+            logger.error("yt-dlp 工作程序回應缺少欄位: {}", response);
+            return null;
+        }
+        return new YouTubeResolver.TrackInfo(title, directUrl, duration,
+                response.path("thumbnail").asText(null), response.path("uploader").asText(null),
+                response.path("is_live").asBoolean(false), TrackInfoCache.parseStreamExpiry(directUrl));
+    }
+
+    /**
+     * 借用一個存活的工作程序，已死亡的會被替換
+     * 最多等待 BORROW_TIMEOUT（不超過請求期限），請求本身的期限從借到工作程序後才開始計算
+     */
+    private Worker borrowWorker() throws IOException {
+        long deadline = System.nanoTime() + Math.min(requestTimeout.toNanos(), BORROW_TIMEOUT.toNanos());
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            Worker worker;
+            try {
+                worker = idleWorkers.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("等待 yt-dlp 工作程序時被中斷", e);
+            }
+            if (worker == null) {
+                throw new WorkerBusyException("所有 yt-dlp 工作程序都在忙碌");
+            }
+            if (worker.isAlive()) {
+                return worker;
+            }
+            replaceWorker(worker);
+        }
+    }
+
+    /**
+     * 歸還工作程序
+     */
+    private void releaseWorker(Worker worker) {
+        if (running && worker.isAlive()) {
+            idleWorkers.offer(worker);
+        } else {
+            replaceWorker(worker);
+        }
+    }
+
+    /**
+     * 終止工作程序並在背景啟動新的取代它
+     */
+    private void replaceWorker(Worker worker) {
+        worker.destroy();
+        if (running) {
+            scheduler.execute(this::spawnWorker);
+        }
+    }
+
+    /**
+     * 啟動新的工作程序並放入池中；失敗時排程稍後重試
+     */
+    private void spawnWorker() {
+        try {
+            Worker worker = new Worker(workerSequence.incrementAndGet());
+            worker.start(requestTimeout);
+            idleWorkers.offer(worker);
+        } catch (IOException e) {
+            logger.error("無法啟動 yt-dlp 工作程序，{} 秒後重試: {}", RESTART_RETRY_SECONDS, e.getMessage());
+            if (running) {
+                scheduler.schedule(this::spawnWorker, RESTART_RETRY_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * 對閒置的工作程序送出 ping，沒有回應的會被重啟
+     */
+    private void healthCheck() {
+        int count = idleWorkers.size();
+        for (int i = 0; i < count; i++) {
+            Worker worker = idleWorkers.poll();
+            if (worker == null) {
+                return;
+            }
+            try {
+                ObjectNode ping = objectMapper.createObjectNode();
+                ping.put("op", "ping");
+                worker.send(ping, requestTimeout);
+                releaseWorker(worker);
+            } catch (IOException e) {
+                logger.warn("yt-dlp 工作程序 #{} 健康檢查失敗，重新啟動: {}", worker.id, e.getMessage());
+                replaceWorker(worker);
+            }
+        }
+    }
+
+    /**
+     * 工作程序意外結束時呼叫；如果它正閒置在池中則立即補上新的
+     */
+    private void onWorkerExit(Worker worker) {
+        if (running && idleWorkers.remove(worker)) {
+            logger.warn("yt-dlp 工作程序 #{} 意外結束，重新啟動", worker.id);
+            replaceWorker(worker);
+        }
+    }
+
+    /**
+     * 組合啟動工作程序的命令；未指定腳本時使用內建腳本
+     */
+    private static List<String> buildCommand(String python, String script) {
+        List<String> command = new ArrayList<>();
+        command.add(python);
+        command.add("-u");
+        command.add(script == null || script.isBlank() ? extractBundledScript().toString() : script);
+        return command;
+    }
+
+    /**
+     * 將內建的工作程序腳本複製到暫存檔
+     */
+    private static Path extractBundledScript() {
+        try (InputStream in = YtDlpWorkerPool.class.getResourceAsStream(WORKER_SCRIPT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("找不到內建的 yt-dlp 工作程序腳本: " + WORKER_SCRIPT_RESOURCE);
+            }
+            Path script = Files.createTempFile("resolver_worker", ".py");
+            Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+            script.toFile().deleteOnExit();
+            return script;
+        } catch (IOException e) {
+            throw new IllegalStateException("無法準備 yt-dlp 工作程序腳本", e);
+        }
+    }
+
+    /**
+     * 單一工作程序
+     * 同一時間只會被一個呼叫者借用，因此最多只有一個等待中的請求
+     */
+    private class Worker {
+        private final int id;
+        private final AtomicLong requestSequence = new AtomicLong();
+        private final AtomicReference<PendingRequest> pending = new AtomicReference<>();
+
+        private final AtomicBoolean alive = new AtomicBoolean();
+
+        /** 是否已計入 aliveWorkers（收到 ready 之後） */
+        private final AtomicBoolean counted = new AtomicBoolean();
+
+        private Process process;
+        private BufferedWriter stdin;
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        /**
+         * 啟動程序並等待 ready 訊息
+         */
+        void start(Duration timeout) throws IOException {
+            PendingRequest ready = new PendingRequest(0);
+            pending.set(ready);
+
+            process = new ProcessBuilder(workerCommand).start();
+            stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            alive.set(true);
+
+            startDaemon("ytdlp-worker-" + id + "-stdout", this::readResponses);
+            startDaemon("ytdlp-worker-" + id + "-stderr", this::drainStderr);
+
+            JsonNode response;
+            try {
+                response = await(ready, timeout);
+            } catch (IOException e) {
+                destroy();
+                throw e;
+            }
+            if (!response.path("ready").asBoolean(false)) {
+                destroy();
+                throw new IOException("yt-dlp 工作程序啟動失敗: " + response.path("error").asText());
+            }
+            countReady();
+            logger.debug("yt-dlp 工作程序 #{} 已就緒 (pid {})", id, process.pid());
+        }
+
+        boolean isAlive() {
+            return alive.get() && process.isAlive();
+        }
+
+        /**
+         * 送出請求並等待回應
+         */
+        JsonNode send(ObjectNode request, Duration timeout) throws IOException {
+            long requestId = requestSequence.incrementAndGet();
+            request.put("id", requestId);
+
+            PendingRequest pendingRequest = new PendingRequest(requestId);
+            pending.set(pendingRequest);
+            stdin.write(objectMapper.writeValueAsString(request));
+            stdin.newLine();
+            stdin.flush();
+
+            return await(pendingRequest, timeout);
+        }
+
+        private JsonNode await(PendingRequest request, Duration timeout) throws IOException {
+            try {
+                return request.future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new WorkerTimeoutException("yt-dlp 工作程序 #" + id + " 回應逾時", e);
+            } catch (ExecutionException e) {
+                throw new IOException("yt-dlp 工作程序 #" + id + " 發生錯誤: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("等待 yt-dlp 工作程序回應時被中斷", e);
+            } finally {
+                pending.compareAndSet(request, null);
+            }
+        }
+
+        /**
+         * 讀取 stdout 的回應並交給等待中的請求
+         */
+        private void readResponses() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JsonNode response;
+                    try {
+                        response = objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        logger.warn("yt-dlp 工作程序 #{} 輸出無法解析: {}", id, line);
+                        continue;
+                    }
+                    PendingRequest current = pending.get();
+                    if (current != null && response.path("id").asLong(-1) == current.id) {
+                        current.future.complete(response);
+                    } else {
+                        logger.warn("yt-dlp 工作程序 #{} 收到未預期的回應: {}", id, line);
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("yt-dlp 工作程序 #{} stdout 已關閉: {}", id, e.getMessage());
+            }
+            markDead();
+        }
+
+        /**
+         * 持續讀取 stderr，避免緩衝區塞滿卡住程序
+         */
+        private void drainStderr() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("yt-dlp 工作程序 #{}: {}", id, line);
+                }
+            } catch (IOException e) {
+                // 程序結束時會關閉 stderr，忽略即可
+            }
+        }
+
+        /**
+         * 計入已就緒的工作程序；如果程序在握手後立刻結束，markDead 可能已經先執行，這裡再撤銷
+         */
+        private void countReady() {
+            if (counted.compareAndSet(false, true)) {
+                aliveWorkers.incrementAndGet();
+            }
+            if (!alive.get()) {
+                uncount();
+            }
+        }
+
+        private void uncount() {
+            if (counted.compareAndSet(true, false)) {
+                aliveWorkers.decrementAndGet();
+            }
+        }
+
+        private void markDead() {
+            alive.set(false);
+            uncount();
+            PendingRequest current = pending.get();
+            if (current != null) {
+                current.future.completeExceptionally(new IOException("工作程序已結束"));
+            }
+            onWorkerExit(this);
+        }
+
+        void destroy() {
+            if (process != null) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+            alive.set(false);
+            uncount();
+        }
+
+        private void startDaemon(String name, Runnable task) {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * 短時間內借不到閒置的工作程序：工作程序池仍可使用，呼叫者可以改用子程序
+     */
+    public static class WorkerBusyException extends IOException {
+        WorkerBusyException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 請求超過期限：工作程序池本身仍可使用，只是這個請求沒有在期限內完成
+     */
+    public static class WorkerTimeoutException extends IOException {
+        WorkerTimeoutException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 等待中的請求
+     */
+    private static class PendingRequest {
+        private final long id;
+        private final CompletableFuture<JsonNode> future = new CompletableFuture<>();
+
+        PendingRequest(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.coco.bot.metrics;
+
+import com.coco.bot.controller.CommandDispatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 指令分派器的監控指標
+ *
+ * 把 CommandDispatcher 既有的統計數字註冊為 Micrometer 指標，抓取時才讀取，不增加分派的成本。
+ * 音樂服務、yt-dlp 解析器與播放清單 DAO 在快速啟動模式下會延後建立，
+ * 它們的指標在各自的建構子中註冊，這裡不引用它們，避免建立指標登錄處時提早建立這些元件。
+ */
+@Component
+public class BotMetrics implements MeterBinder {
+
+    private final CommandDispatcher commandDispatcher;
+
+    @Autowired
+    public BotMetrics(CommandDispatcher commandDispatcher) {
+        this.commandDispatcher = commandDispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("discord.commands", commandDispatcher, CommandDispatcher::getCompletedCount)
+                .description("已處理的指令數量").tag("result", "completed").register(registry);
+        FunctionCounter.builder("discord.commands", commandDispatcher, CommandDispatcher::getFailedCount)
+                .description("已處理的指令數量").tag("result", "failed").register(registry);
+        Gauge.builder("discord.commands.queued", commandDispatcher, CommandDispatcher::getQueueDepth)
+                .description("已分派但尚未完成的指令數量").register(registry);
+        Gauge.builder("discord.commands.latency.avg", commandDispatcher, CommandDispatcher::getAverageLatencyMillis)
+                .description("指令平均處理時間").baseUnit("milliseconds").register(registry);
+        Gauge.builder("discord.commands.wait.avg", commandDispatcher, CommandDispatcher::getAverageWaitMillis)
+                .description("指令平均排隊等待時間").baseUnit("milliseconds").register(registry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.coco.bot.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prometheus 抓取端點
+ *
+ * 機器人本身不是網頁應用程式，為了一個 /metrics 端點引入 Servlet 容器太重，
+ * 這裡使用 JDK 內建的 HttpServer，在獨立的連接埠上以 Prometheus 文字格式輸出所有 Micrometer 指標。
+ *
+ * 沒有其他 Bean 依賴這個類別，啟用 spring.main.lazy-initialization 時它永遠不會被建立，
+ * 因此以 @Lazy(false) 強制在啟動時建立。
+ */
+@Component
+@Lazy(false)
+public class PrometheusScrapeServer {
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusScrapeServer.class);
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry registry;
+    private final boolean enabled;
+    private final int port;
+    private final String path;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Autowired
+    public PrometheusScrapeServer(PrometheusMeterRegistry registry,
+                                  @Value("${metrics.prometheus.enabled:true}") boolean enabled,
+                                  @Value("${metrics.prometheus.port:9464}") int port,
+                                  @Value("${metrics.prometheus.path:/metrics}") String path) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.port = port;
+        this.path = path;
+    }
+
+    /**
+     * 啟動抓取端點，連接埠被佔用時只記錄錯誤，不影響機器人運作
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Prometheus 抓取端點已關閉");
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext(path, this::handleScrape);
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            server.setExecutor(executor);
+            server.start();
+            logger.info("Prometheus 抓取端點已啟動: http://0.0.0.0:{}{}", server.getAddress().getPort(), path);
+        } catch (IOException e) {
+            logger.error("無法啟動 Prometheus 抓取端點 (連接埠 {}): {}", port, e.getMessage());
+            server = null;
+        }
+    }
+
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * 實際監聽的連接埠，未啟動時返回 -1
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.coco.bot.repository;
+
+import com.coco.bot.entity.PlaylistHeader;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlaylistHeaderRepository extends JpaRepository<PlaylistHeader, Long> {
+
+    /**
+     * 檢查播放清單是否存在（唯一索引查詢）
+     */
+    boolean existsByUserIdAndPlaylistName(String userId, String playlistName);
+
+    /**
+     * 建立播放清單表頭，已經存在時不做任何事
+     * 並發的第一次寫入不會因為唯一索引衝突而讓外層交易只能回滾
+     *
+     * @return 新增的筆數（已存在時為 0）
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO playlist_headers (user_id, playlist_name, created_at) " +
+                   "VALUES (:userId, :playlistName, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") String userId, @Param("playlistName") String playlistName);
+
+    /**
+     * 獲取用戶的所有播放清單名稱
+     */
+    @Query("SELECT h.playlistName FROM PlaylistHeader h WHERE h.userId = :userId ORDER BY h.playlistName")
+    List<String> findPlaylistNamesByUserId(@Param("userId") String userId);
+
+    /**
+     * 刪除播放清單表頭
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistHeader h WHERE h.userId = :userId AND h.playlistName = :playlistName")
+    void deleteByUserIdAndPlaylistName(@Param("userId") String userId, @Param("playlistName") String playlistName);
+}
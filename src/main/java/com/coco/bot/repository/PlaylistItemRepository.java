@@ -1,6 +1,8 @@
 package com.coco.bot.repository;
 
+import com.coco.bot.dto.PlaylistSummary;
 import com.coco.bot.entity.PlaylistItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -23,10 +25,22 @@ public interface PlaylistItemRepository extends JpaRepository<PlaylistItem, Long
     @Query("SELECT DISTINCT p.playlistName FROM PlaylistItem p WHERE p.userId = :userId ORDER BY p.playlistName")
     List<String> findDistinctPlaylistNamesByUserId(@Param("userId") String userId);
 
+    /**
+     * 獲取用戶所有播放清單的摘要（名稱、歌曲數量、總時長），只需一次查詢
+     * 空播放清單的標記項目（song_url 為空字串）不計入數量與時長
+     */
+    @Query("SELECT new com.coco.bot.dto.PlaylistSummary(p.playlistName, " +
+           "COUNT(CASE WHEN p.songUrl <> '' THEN 1 END), " +
+           "COALESCE(SUM(CASE WHEN p.songUrl <> '' THEN p.duration END), 0L)) " +
+           "FROM PlaylistItem p WHERE p.userId = :userId " +
+           "GROUP BY p.playlistName ORDER BY p.playlistName")
+    List<PlaylistSummary> findPlaylistSummariesByUserId(@Param("userId") String userId);
+
     /**
      * 獲取播放清單中的所有歌曲，按順序排列
+     * 順序鍵相同時（例如同時加入的歌曲）以 id 決定先後，與 findSongsInPlayOrder 的順序一致
      */
-    List<PlaylistItem> findByUserIdAndPlaylistNameOrderBySongOrder(String userId, String playlistName);
+    List<PlaylistItem> findByUserIdAndPlaylistNameOrderBySongOrderAscIdAsc(String userId, String playlistName);
 
     /**
      * 獲取播放清單中的最大順序號
@@ -42,17 +56,26 @@ public interface PlaylistItemRepository extends JpaRepository<PlaylistItem, Long
     void deleteByUserIdAndPlaylistName(@Param("userId") String userId, @Param("playlistName") String playlistName);
 
     /**
-     * 刪除播放清單中的特定歌曲
+     * 依播放順序查詢播放清單中的歌曲（不包含空播放清單的標記項目）
+     * 搭配分頁參數只取出指定位置的歌曲
+     */
+    @Query("SELECT p FROM PlaylistItem p WHERE p.userId = :userId AND p.playlistName = :playlistName " +
+           "AND p.songUrl <> '' ORDER BY p.songOrder, p.id")
+    List<PlaylistItem> findSongsInPlayOrder(@Param("userId") String userId, @Param("playlistName") String playlistName, Pageable pageable);
+
+    /**
+     * 刪除單一歌曲（同時比對用戶與播放清單，避免刪除其他用戶的資料）
      */
     @Modifying
-    @Query("DELETE FROM PlaylistItem p WHERE p.userId = :userId AND p.playlistName = :playlistName AND p.songOrder = :songOrder")
-    void deleteBySongOrder(@Param("userId") String userId, @Param("playlistName") String playlistName, @Param("songOrder") Integer songOrder);
+    @Query("DELETE FROM PlaylistItem p WHERE p.id = :id AND p.userId = :userId AND p.playlistName = :playlistName")
+    int deleteSong(@Param("id") Long id, @Param("userId") String userId, @Param("playlistName") String playlistName);
 
     /**
-     * 重新排序歌曲（當刪除歌曲後）
+     * 更新單一歌曲的順序鍵
      */
     @Modifying
-    @Query("UPDATE PlaylistItem p SET p.songOrder = p.songOrder - 1 " +
-           "WHERE p.userId = :userId AND p.playlistName = :playlistName AND p.songOrder > :deletedOrder")
-    void reorderSongsAfterDeletion(@Param("userId") String userId, @Param("playlistName") String playlistName, @Param("deletedOrder") Integer deletedOrder);
+    @Query("UPDATE PlaylistItem p SET p.songOrder = :songOrder " +
+           "WHERE p.id = :id AND p.userId = :userId AND p.playlistName = :playlistName")
+    int updateSongOrder(@Param("id") Long id, @Param("userId") String userId,
+                        @Param("playlistName") String playlistName, @Param("songOrder") Integer songOrder);
 }
\ No newline at end of file
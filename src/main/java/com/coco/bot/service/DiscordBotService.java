@@ -1,9 +1,16 @@
 package com.coco.bot.service;
 
+import com.coco.bot.config.StartupTimingReport;
 import com.coco.bot.controller.DiscordEventController;
+import com.coco.bot.handler.ResolutionExecutor;
+import com.coco.bot.util.SlashCommands;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,31 +18,69 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PreDestroy;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class DiscordBotService {
     private static final Logger logger = LoggerFactory.getLogger(DiscordBotService.class);
 
+    /** 關閉時等待所有分片斷線的總時間 */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 3000;
+
     @Value("${discord.bot.token}")
     private String botToken;
 
+    /** 是否接受前綴指令（!play），關閉後不再訂閱訊息事件與 MESSAGE_CONTENT */
+    @Value("${discord.commands.prefix-enabled:true}")
+    private boolean prefixCommandsEnabled;
+
+    /** 是否註冊斜線指令（/play） */
+    @Value("${discord.commands.slash-enabled:true}")
+    private boolean slashCommandsEnabled;
+
+    /** 分片數量，-1 表示使用 Discord 建議的數量 */
+    @Value("${discord.shards.total:-1}")
+    private int shardsTotal;
+
+    /** 是否在啟動流程中等待所有分片就緒，關閉時分片在背景連線 */
+    @Value("${discord.startup.await-ready:true}")
+    private boolean awaitReady;
+
+    /** 分片健康報告的間隔，0 表示不定期報告 */
+    @Value("${discord.shards.health-report-interval-seconds:300}")
+    private long healthReportIntervalSeconds;
+
     private final DiscordEventController discordEventController;
-    private JDA jda;
+    private final ResolutionExecutor resolutionExecutor;
+    private final StartupTimingReport startupTimingReport;
+    private ShardManager shardManager;
+    private ScheduledExecutorService healthReporter;
 
     @Autowired
-    public DiscordBotService(DiscordEventController discordEventController) {
+    public DiscordBotService(DiscordEventController discordEventController, ResolutionExecutor resolutionExecutor,
+                             StartupTimingReport startupTimingReport) {
         this.discordEventController = discordEventController;
+        this.resolutionExecutor = resolutionExecutor;
+        this.startupTimingReport = startupTimingReport;
     }
 
     public void startBot() {
         try {
             logger.info("正在啟動 Discord 音樂機器人...");
 
-            JDABuilder builder = JDABuilder.createDefault(botToken);
+            DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createDefault(botToken);
             builder.addEventListeners(discordEventController);
-            builder.enableIntents(GatewayIntent.MESSAGE_CONTENT, GatewayIntent.GUILD_VOICE_STATES);
+            builder.setShardsTotal(shardsTotal);
+            configureGateway(builder);
+            if (!prefixCommandsEnabled && !slashCommandsEnabled) {
+                logger.warn("⚠️ 前綴指令與斜線指令都已關閉，機器人不會回應任何指令");
+            }
 
-            this.jda = builder.build();
-            this.jda.awaitReady();
+            startupTimingReport.time("閘道登入", () -> this.shardManager = builder.build());
 
             // 添加關閉鉤子，確保程式結束時機器人正確關閉
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -43,27 +88,194 @@ public class DiscordBotService {
                 shutdown();
             }));
 
-            logger.info("🎵 Discord 音樂機器人啟動成功！");
-            logger.info("支援指令：!play, !stop, !pause, !resume, !skip, !queue, !playlist, !help");
+            if (awaitReady) {
+                onShardsReady();
+            } else {
+                // 不阻塞啟動流程，Spring 可以立即完成啟動並開始背景初始化
+                Thread.ofVirtual().name("shard-startup").start(() -> {
+                    try {
+                        onShardsReady();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        logger.error("等待分片就緒時發生錯誤", e);
+                    }
+                });
+            }
         } catch (Exception e) {
             logger.error("機器人啟動失敗", e);
             throw new RuntimeException("Failed to start Discord bot", e);
         }
     }
 
+    /**
+     * 等待所有分片就緒後註冊斜線指令、啟動健康報告並輸出啟動時間報告
+     */
+    private void onShardsReady() throws InterruptedException {
+        long start = System.nanoTime();
+        awaitShardsReady();
+        startupTimingReport.record("分片就緒", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        registerSlashCommands();
+        startHealthReports();
+
+        logger.info("🎵 Discord 音樂機器人啟動成功！（{} 個分片，{} 個伺服器）",
+                shardManager.getShardsTotal(), shardManager.getGuildCache().size());
+        logger.info("支援指令：!play, !stop, !pause, !resume, !skip, !queue, !playlist, !help（前綴指令{}，斜線指令{}）",
+                prefixCommandsEnabled ? "已啟用" : "已關閉", slashCommandsEnabled ? "已啟用" : "已關閉");
+        startupTimingReport.logReport();
+    }
+
+    /**
+     * 等待所有分片連線完成
+     * 分片依照 Discord 的登入速率限制逐一啟動，還在排隊的分片不會出現在 getShards() 中
+     */
+    private void awaitShardsReady() throws InterruptedException {
+        while (shardManager.getShardsQueued() > 0 || shardManager.getShards().size() < shardManager.getShardsTotal()) {
+            Thread.sleep(500);
+        }
+        for (JDA shard : shardManager.getShards()) {
+            shard.awaitReady();
+        }
+    }
+
+    /**
+     * 設定閘道訂閱與快取
+     *
+     * 音樂機器人只需要知道誰在語音頻道中：
+     * - 成員快取只保留在語音頻道中的成員，不在啟動時向 Discord 請求完整成員列表（chunking）
+     * - 關閉用不到的快取（表情符號、貼圖、活動、成員權限覆寫等）與對應的事件訂閱
+     * 伺服器數量多時可以大幅縮短啟動時間並降低記憶體用量。
+     */
+    private void configureGateway(DefaultShardManagerBuilder builder) {
+        builder.enableIntents(GatewayIntent.GUILD_VOICE_STATES);
+        builder.disableIntents(GatewayIntent.GUILD_MESSAGE_REACTIONS, GatewayIntent.DIRECT_MESSAGE_REACTIONS,
+                GatewayIntent.GUILD_MESSAGE_TYPING, GatewayIntent.DIRECT_MESSAGE_TYPING,
+                GatewayIntent.GUILD_INVITES, GatewayIntent.GUILD_SCHEDULED_EVENTS);
+        if (prefixCommandsEnabled) {
+            builder.enableIntents(GatewayIntent.MESSAGE_CONTENT);
+        } else {
+            // 只使用斜線指令時不需要任何訊息事件，Discord 不會再推送伺服器中的聊天訊息
+            builder.disableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.DIRECT_MESSAGES);
+        }
+
+        builder.setMemberCachePolicy(MemberCachePolicy.VOICE);
+        builder.setChunkingFilter(ChunkingFilter.NONE);
+        builder.setLargeThreshold(50);
+        builder.enableCache(CacheFlag.VOICE_STATE);
+        builder.disableCache(CacheFlag.EMOJI, CacheFlag.STICKER, CacheFlag.SCHEDULED_EVENTS,
+                CacheFlag.MEMBER_OVERRIDES, CacheFlag.ACTIVITY, CacheFlag.CLIENT_STATUS, CacheFlag.ONLINE_STATUS);
+    }
+
+    /**
+     * 向 Discord 註冊全域斜線指令
+     * 關閉斜線指令時清空已註冊的指令，避免使用者看到沒有回應的指令
+     * 全域指令屬於整個應用程式，只需要透過其中一個分片註冊
+     */
+    private void registerSlashCommands() {
+        JDA shard = shardManager.getShards().get(0);
+        if (slashCommandsEnabled) {
+            shard.updateCommands().addCommands(SlashCommands.definitions()).queue(
+                    commands -> logger.info("已註冊 {} 個斜線指令", commands.size()),
+                    error -> logger.error("註冊斜線指令失敗", error));
+        } else {
+            shard.updateCommands().queue(
+                    commands -> logger.info("斜線指令已關閉，已清除註冊的斜線指令"),
+                    error -> logger.error("清除斜線指令失敗", error));
+        }
+    }
+
+    /**
+     * 啟動定期的分片健康報告
+     */
+    private void startHealthReports() {
+        if (healthReportIntervalSeconds <= 0) {
+            return;
+        }
+        healthReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthReporter.scheduleWithFixedDelay(this::logShardHealth,
+                healthReportIntervalSeconds, healthReportIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 記錄分片健康報告，有分片未連線時記錄警告
+     */
+    private void logShardHealth() {
+        try {
+            ShardManager manager = shardManager;
+            if (manager == null) {
+                return;
+            }
+            List<JDA> shards = manager.getShards();
+            String report = formatShardHealth(shards);
+            if (shards.stream().allMatch(shard -> shard.getStatus() == JDA.Status.CONNECTED)) {
+                logger.info(report);
+            } else {
+                logger.warn(report);
+            }
+        } catch (Exception e) {
+            logger.error("產生分片健康報告時發生錯誤", e);
+        }
+    }
+
+    /**
+     * 獲取目前的分片健康報告
+     *
+     * @return 每個分片的狀態、閘道延遲與伺服器數量，機器人未啟動時返回 null
+     */
+    public String getShardHealthReport() {
+        ShardManager manager = shardManager;
+        return manager != null ? formatShardHealth(manager.getShards()) : null;
+    }
+
+    /**
+     * 產生分片健康報告
+     *
+     * @param shards 所有分片
+     * @return 依分片 ID 排序的報告
+     */
+    public static String formatShardHealth(List<JDA> shards) {
+        StringBuilder report = new StringBuilder("分片健康報告：");
+        shards.stream()
+                .sorted(Comparator.comparingInt(shard -> shard.getShardInfo().getShardId()))
+                .forEach(shard -> report.append(String.format("%n  分片 %d/%d：%s，延遲 %dms，伺服器 %d 個",
+                        shard.getShardInfo().getShardId(), shard.getShardInfo().getShardTotal(),
+                        shard.getStatus(), shard.getGatewayPing(), shard.getGuildCache().size())));
+        return report.toString();
+    }
+
     /**
      * 強制關閉機器人
      * 當應用程式關閉時會自動調用此方法
      */
     @PreDestroy
     public void shutdown() {
-        if (jda != null) {
+        if (healthReporter != null) {
+            healthReporter.shutdownNow();
+        }
+
+        ShardManager manager = shardManager;
+        if (manager != null) {
+            shardManager = null;
             logger.info("正在強制關閉 Discord 連接...");
             try {
-                // 立即強制關閉，不等待
-                jda.shutdownNow();
-                // 只等待 3 秒確認關閉
-                if (jda.awaitShutdown(3, java.util.concurrent.TimeUnit.SECONDS)) {
+                List<JDA> shards = manager.getShards();
+                // 立即強制關閉所有分片，不等待
+                shards.forEach(JDA::shutdownNow);
+                manager.shutdown();
+
+                // 所有分片總共只等待 3 秒確認關閉
+                long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+                boolean allClosed = true;
+                for (JDA shard : shards) {
+                    long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                    allClosed &= shard.awaitShutdown(remaining, TimeUnit.MILLISECONDS);
+                }
+                if (allClosed) {
                     logger.info("✅ Discord 機器人已成功關閉");
                 } else {
                     logger.warn("⚠️ 機器人可能未完全關閉，但已強制終止");
@@ -71,9 +283,10 @@ public class DiscordBotService {
             } catch (InterruptedException e) {
                 logger.warn("機器人關閉被中斷，強制終止");
                 Thread.currentThread().interrupt();
-            } finally {
-                jda = null;
             }
         }
+
+        // Discord 連線關閉後不會再有新的請求，等待進行中的解析工作完成
+        resolutionExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -1,44 +1,107 @@
 package com.coco.bot.service;
 
-import com.coco.bot.handler.AudioPlayerSendHandler;
+import com.coco.bot.config.StartupTimingReport;
+import com.coco.bot.handler.GuildMusicManager;
 import com.coco.bot.handler.MusicQueue;
+import com.coco.bot.handler.OrderedTrackLoader;
 import com.coco.bot.handler.YouTubeResolver;
 import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
-import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
-import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import net.dv8tion.jda.api.managers.AudioManager;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 音樂服務類
  * 處理音樂播放相關的業務邏輯
+ *
+ * 每個伺服器都有獨立的 GuildMusicManager（播放器 + 發送處理器 + 佇列），
+ * 在第一次使用時建立，語音連線關閉並閒置一段時間後自動移除。
  */
 @Service
 public class MusicService {
     private static final Logger logger = LoggerFactory.getLogger(MusicService.class);
 
+    /** !queue 每頁顯示的音軌數量 */
+    private static final int QUEUE_PAGE_SIZE = 10;
+
     private final AudioPlayerManager audioPlayerManager;
-    private final AudioPlayer audioPlayer;
-    private final AudioPlayerSendHandler sendHandler;
-    private final MusicQueue musicQueue;
     private final YouTubeResolver youTubeResolver;
+    private final StartupTimingReport startupTimingReport;
+    private final MeterRegistry meterRegistry;
+
+    /** 音源管理器是否已註冊，延遲註冊時在第一次載入音軌前才註冊 */
+    private volatile boolean sourceManagersRegistered;
+
+    /** 伺服器 ID 對應的音樂管理器 */
+    private final Map<Long, GuildMusicManager> musicManagers = new ConcurrentHashMap<>();
+
+    /** 定期清理閒置伺服器管理器的排程器 */
+    private final ScheduledExecutorService evictionScheduler;
+
+    /** 語音連線關閉後保留管理器的時間（毫秒） */
+    private final long idleTimeoutMillis;
+
+    /** 播放整個播放清單時，同時載入中的音軌上限 */
+    private final int playlistLoadConcurrency;
+
+    /** 發送處理器取幀的最長等待時間（毫秒），0 表示不等待 */
+    private final long provideTimeoutMs;
+
+    /** 發送處理器預先緩衝的音頻長度（毫秒），0 表示不預先緩衝 */
+    private final int prebufferMs;
+
+    /** 已移除的管理器累積的幀數，讓總數不會因為管理器被移除而倒退 */
+    private final LongAdder retiredProvidedFrames = new LongAdder();
+    private final LongAdder retiredMissedFrames = new LongAdder();
 
     @Autowired
-    public MusicService(MusicQueue musicQueue, YouTubeResolver youTubeResolver) {
-        this.musicQueue = musicQueue;
+    public MusicService(YouTubeResolver youTubeResolver, StartupTimingReport startupTimingReport, MeterRegistry meterRegistry,
+                        @Value("${music.guild.idle-timeout-seconds:300}") long idleTimeoutSeconds,
+                        @Value("${music.guild.eviction-interval-seconds:60}") long evictionIntervalSeconds,
+                        @Value("${music.playlist.max-concurrent-loads:8}") int playlistLoadConcurrency,
+                        @Value("${music.audio.provide-timeout-ms:0}") long provideTimeoutMs,
+                        @Value("${music.audio.prebuffer-ms:400}") int prebufferMs,
+                        @Value("${music.audio.lazy-source-registration:false}") boolean lazySourceRegistration) {
         this.youTubeResolver = youTubeResolver;
+        this.startupTimingReport = startupTimingReport;
+        this.meterRegistry = meterRegistry;
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        this.playlistLoadConcurrency = playlistLoadConcurrency;
+        this.provideTimeoutMs = provideTimeoutMs;
+        this.prebufferMs = prebufferMs;
+
+        FunctionCounter.builder("music.audio.frames", this, MusicService::getProvidedFrames)
+                .description("送到 Discord 的 20ms 音頻幀").tag("result", "provided").register(meterRegistry);
+        FunctionCounter.builder("music.audio.frames", this, MusicService::getMissedFrames)
+                .description("送到 Discord 的 20ms 音頻幀").tag("result", "missed").register(meterRegistry);
+        Gauge.builder("music.guilds.active", musicManagers, Map::size)
+                .description("目前存在的伺服器音樂管理器數量").register(meterRegistry);
 
         // 創建預設的音頻播放管理器
         this.audioPlayerManager = new DefaultAudioPlayerManager();
@@ -46,6 +109,46 @@ public class MusicService {
         // 配置 YouTube 來源管理器
         audioPlayerManager.getConfiguration().setFilterHotSwapEnabled(true);
 
+        // 幀緩衝直接寫入發送處理器提供的緩衝區，不為每一幀建立新的 AudioFrame 與 byte[]
+        audioPlayerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
+
+        // 快速啟動模式下延遲到第一次載入音軌時才註冊音源管理器
+        if (!lazySourceRegistration) {
+            ensureSourceManagersRegistered();
+        }
+
+        // 啟動閒置管理器清理排程
+        this.evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "guild-music-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictionScheduler.scheduleWithFixedDelay(this::evictIdleManagers,
+                evictionIntervalSeconds, evictionIntervalSeconds, TimeUnit.SECONDS);
+
+        logger.info("音樂服務初始化完成");
+    }
+
+    /**
+     * 確保音源管理器已註冊
+     * 建立 YouTube 來源管理器需要載入大量類別與建立 HTTP 客戶端，是音樂服務初始化中最慢的部分
+     */
+    private void ensureSourceManagersRegistered() {
+        if (sourceManagersRegistered) {
+            return;
+        }
+        synchronized (this) {
+            if (!sourceManagersRegistered) {
+                startupTimingReport.time("音訊來源註冊", this::registerSourceManagers);
+                sourceManagersRegistered = true;
+            }
+        }
+    }
+
+    /**
+     * 註冊音源管理器
+     */
+    private void registerSourceManagers() {
         // 註冊增強型 YouTube 來源管理器
         try {
             dev.lavalink.youtube.YoutubeAudioSourceManager ytSourceManager =
@@ -61,30 +164,112 @@ public class MusicService {
         }
 
         AudioSourceManagers.registerLocalSource(audioPlayerManager);
+    }
 
-        // 創建音頻播放器實例
-        this.audioPlayer = audioPlayerManager.createPlayer();
+    /**
+     * 獲取伺服器的音樂管理器，不存在時建立
+     * 新建立的管理器會開始閒置計時，沒有連上語音頻道時會在閒置逾時後被移除
+     *
+     * @param guild 伺服器
+     * @return 該伺服器的音樂管理器
+     */
+    public GuildMusicManager getGuildMusicManager(Guild guild) {
+        return musicManagers.computeIfAbsent(guild.getIdLong(), this::createManager);
+    }
 
-        // 創建音頻發送處理器
-        this.sendHandler = new AudioPlayerSendHandler(audioPlayer);
+    /**
+     * 查詢伺服器的音樂管理器，不會建立新的管理器
+     * 暫停、跳過、查看佇列等指令使用，避免在從未播放過的伺服器留下管理器
+     *
+     * @param guild 伺服器
+     * @return 該伺服器的音樂管理器，不存在時返回 null
+     */
+    public GuildMusicManager findGuildMusicManager(Guild guild) {
+        return musicManagers.get(guild.getIdLong());
+    }
 
-        // 註冊音頻事件監聽器
-        audioPlayer.addListener(new AudioEventAdapter() {
-            @Override
-            public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) {
-                if (endReason.mayStartNext) {
-                    AudioTrack nextTrack = musicQueue.getNextTrack();
-                    if (nextTrack != null) {
-                        player.playTrack(nextTrack);
-                        logger.info("自動播放下一首: {}", nextTrack.getInfo().title);
-                    } else {
-                        logger.info("佇列已空，播放結束");
-                    }
-                }
-            }
+    /**
+     * 取得準備播放的管理器並標記為連線中
+     * 在 ConcurrentHashMap 的原子操作中取消閒置計時，閒置清理不會移除正要連線的管理器
+     */
+    private GuildMusicManager acquireForPlayback(Guild guild) {
+        return musicManagers.compute(guild.getIdLong(), (guildId, existing) -> {
+            GuildMusicManager manager = existing != null ? existing : createManager(guildId);
+            manager.markConnected();
+            return manager;
         });
+    }
 
-        logger.info("音樂服務初始化完成");
+    private GuildMusicManager createManager(long guildId) {
+        logger.info("為伺服器 {} 建立音樂管理器 (目前共 {} 個)", guildId, musicManagers.size() + 1);
+        GuildMusicManager manager = new GuildMusicManager(guildId, audioPlayerManager, provideTimeoutMs, prebufferMs);
+        Gauge.builder("music.queue.size", manager.getMusicQueue(), MusicQueue::getQueueSize)
+                .description("伺服器佇列中等待播放的音軌數量")
+                .tag("guild", String.valueOf(guildId))
+                .register(meterRegistry);
+        return manager;
+    }
+
+    /**
+     * 移除伺服器的佇列長度指標
+     * 必須在 musicManagers 同一個 key 的 compute 內呼叫：註冊也發生在 compute 內，
+     * 兩者互斥才不會在管理器被重新建立後，誤刪新管理器的指標或讓新指標沿用舊佇列
+     */
+    private void removeQueueGauge(long guildId) {
+        Gauge gauge = meterRegistry.find("music.queue.size")
+                .tag("guild", String.valueOf(guildId)).gauge();
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    /**
+     * 銷毀已從 musicManagers 移除的管理器，並把它的幀數併入累積總數
+     */
+    private void retire(GuildMusicManager manager) {
+        manager.destroy();
+        retiredProvidedFrames.add(manager.getSendHandler().getProvidedFrames());
+        retiredMissedFrames.add(manager.getSendHandler().getMissedFrames());
+    }
+
+    /**
+     * 所有伺服器（包含已移除的）送出的音頻幀總數
+     */
+    public long getProvidedFrames() {
+        long total = retiredProvidedFrames.sum();
+        for (GuildMusicManager manager : musicManagers.values()) {
+            total += manager.getSendHandler().getProvidedFrames();
+        }
+        return total;
+    }
+
+    /**
+     * 所有伺服器（包含已移除的）播放中沒有幀可送出的總次數
+     */
+    public long getMissedFrames() {
+        long total = retiredMissedFrames.sum();
+        for (GuildMusicManager manager : musicManagers.values()) {
+            total += manager.getSendHandler().getMissedFrames();
+        }
+        return total;
+    }
+
+    /**
+     * 記錄一次音軌載入結果
+     *
+     * @param outcome loaded / playlist / no_matches / failed
+     */
+    private void recordLoadOutcome(String outcome) {
+        meterRegistry.counter("music.track.load", "outcome", outcome).increment();
+    }
+
+    /**
+     * 獲取目前存在的伺服器音樂管理器數量
+     *
+     * @return 管理器數量
+     */
+    public int getActiveGuildCount() {
+        return musicManagers.size();
     }
 
     /**
@@ -95,45 +280,124 @@ public class MusicService {
      * @param url 音樂網址
      */
     public void playMusic(VoiceChannel voiceChannel, TextChannel textChannel, String url) {
+        GuildMusicManager manager = acquireForPlayback(voiceChannel.getGuild());
+
         // 連接到語音頻道
-        connectToVoiceChannel(voiceChannel.getGuild().getAudioManager(), voiceChannel);
+        connectToVoiceChannel(voiceChannel.getGuild().getAudioManager(), voiceChannel, manager);
 
         // 載入並播放音樂
-        loadAndPlay(textChannel, url);
+        loadAndPlay(manager, textChannel, url);
+    }
+
+    /**
+     * 播放多首音樂（例如整個播放清單）
+     *
+     * 所有網址會並行載入（同時載入中的數量有上限），但依照原本的順序加入佇列；
+     * 第一首載入完成就會開始播放，不必等待其餘音軌。
+     *
+     * @param voiceChannel 語音頻道
+     * @param textChannel 文字頻道
+     * @param urls 音樂網址（依播放順序）
+     */
+    public void playAll(VoiceChannel voiceChannel, TextChannel textChannel, List<String> urls) {
+        GuildMusicManager manager = acquireForPlayback(voiceChannel.getGuild());
+        connectToVoiceChannel(voiceChannel.getGuild().getAudioManager(), voiceChannel, manager);
+
+        ensureSourceManagersRegistered();
+        new OrderedTrackLoader(audioPlayerManager, urls, playlistLoadConcurrency, new OrderedTrackLoader.Listener() {
+            @Override
+            public void onTrackLoaded(int index, AudioTrack track) {
+                recordLoadOutcome("loaded");
+                if (manager.getMusicQueue().setCurrentTrackIfIdle(track)) {
+                    manager.getAudioPlayer().playTrack(track);
+                    textChannel.sendMessage("🎵 **正在播放:** " + track.getInfo().title +
+                            " (" + formatDuration(track.getDuration()) + ")").queue();
+                } else {
+                    manager.getMusicQueue().addTrack(track);
+                }
+            }
+
+            @Override
+            public void onTrackFailed(int index, String url, String reason) {
+                recordLoadOutcome("failed");
+                logger.warn("❌ 播放清單第 {} 首載入失敗: {} - {}", index + 1, url, reason);
+            }
+
+            @Override
+            public void onComplete(int loaded, int failed) {
+                String message = "✅ 已載入 " + loaded + " 首歌曲";
+                if (failed > 0) {
+                    message += "，" + failed + " 首載入失敗";
+                }
+                textChannel.sendMessage(message).queue();
+                logger.info("播放清單載入完成: 成功 {} 首，失敗 {} 首", loaded, failed);
+            }
+        }).start();
     }
 
     /**
      * 停止音樂播放
+     *
+     * @param guild 伺服器
      */
-    public void stopMusic() {
-        audioPlayer.stopTrack();
-        musicQueue.clearQueue();
+    public void stopMusic(Guild guild) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager == null) {
+            return;
+        }
+        manager.getAudioPlayer().stopTrack();
+        manager.getMusicQueue().clearQueue();
     }
 
     /**
      * 暫停音樂播放
+     *
+     * @param guild 伺服器
      */
-    public void pauseMusic() {
-        audioPlayer.setPaused(true);
+    public void pauseMusic(Guild guild) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager != null) {
+            manager.getAudioPlayer().setPaused(true);
+        }
     }
 
     /**
      * 恢復音樂播放
+     *
+     * @param guild 伺服器
      */
-    public void resumeMusic() {
-        audioPlayer.setPaused(false);
+    public void resumeMusic(Guild guild) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager != null) {
+            manager.getAudioPlayer().setPaused(false);
+        }
     }
 
     /**
      * 跳過當前音樂
      *
+     * @param guild 伺服器
      * @return 跳過結果訊息
      */
-    public String skipMusic() {
+    public String skipMusic(Guild guild) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager == null) {
+            return "❌ 目前沒有正在播放的音樂";
+        }
+        MusicQueue musicQueue = manager.getMusicQueue();
+        AudioPlayer audioPlayer = manager.getAudioPlayer();
+
         AudioTrack currentTrack = musicQueue.getCurrentTrack();
         if (currentTrack != null) {
             String currentTitle = currentTrack.getInfo().title;
-            AudioTrack nextTrack = musicQueue.skipCurrentTrack();
+            AudioTrack nextTrack = musicQueue.advanceFrom(currentTrack);
+
+            AudioTrack playingNow = musicQueue.getCurrentTrack();
+            if (nextTrack == null && playingNow != null) {
+                // 這首音軌剛好自然結束，下一首已經自動開始播放
+                logger.info("跳過音軌: {} 已被其他操作更換", currentTitle);
+                return "⏭️ **" + currentTitle + "** 已播放完畢\n🎵 正在播放: **" + playingNow.getInfo().title + "**";
+            }
 
             if (nextTrack != null) {
                 audioPlayer.playTrack(nextTrack);
@@ -150,11 +414,38 @@ public class MusicService {
     }
 
     /**
-     * 獲取佇列資訊
+     * 獲取佇列資訊（第一頁）
      *
+     * @param guild 伺服器
      * @return 佇列資訊字串
      */
-    public String getQueueInfo() {
+    public String getQueueInfo(Guild guild) {
+        return getQueueInfo(guild, 1);
+    }
+
+    /**
+     * 獲取佇列資訊的指定頁
+     *
+     * @param guild 伺服器
+     * @param page 頁碼（從 1 開始）
+     * @return 佇列資訊字串
+     */
+    public String getQueueInfo(Guild guild, int page) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager == null) {
+            return "🎵 **播放佇列:**\n🔄 **目前播放:** 無\n📜 **佇列:** 空的";
+        }
+        return formatQueuePage(manager.getMusicQueue(), page);
+    }
+
+    /**
+     * 將佇列的指定頁格式化為 !queue 的回覆內容
+     *
+     * @param musicQueue 播放佇列
+     * @param page 頁碼（從 1 開始，超出範圍時使用最接近的頁）
+     * @return 佇列資訊字串
+     */
+    public static String formatQueuePage(MusicQueue musicQueue, int page) {
         StringBuilder queueInfo = new StringBuilder();
         queueInfo.append("🎵 **播放佇列:**\n");
 
@@ -166,44 +457,194 @@ public class MusicService {
             queueInfo.append("🔄 **目前播放:** 無\n");
         }
 
-        if (musicQueue.isEmpty()) {
+        int queueSize = musicQueue.getQueueSize();
+        if (queueSize == 0) {
             queueInfo.append("📜 **佇列:** 空的");
-        } else {
-            queueInfo.append("📜 **佇列 (").append(musicQueue.getQueueSize()).append(" 首):**\n");
-            queueInfo.append("ℹ️ 佇列中有 ").append(musicQueue.getQueueSize()).append(" 首音樂等待播放");
+            return queueInfo.toString();
+        }
+
+        int totalPages = (queueSize + QUEUE_PAGE_SIZE - 1) / QUEUE_PAGE_SIZE;
+        int currentPage = Math.max(1, Math.min(page, totalPages));
+        List<AudioTrack> tracks = musicQueue.getPage(currentPage - 1, QUEUE_PAGE_SIZE);
+
+        queueInfo.append("📜 **佇列 (").append(queueSize).append(" 首):**\n");
+        int position = (currentPage - 1) * QUEUE_PAGE_SIZE;
+        for (AudioTrack track : tracks) {
+            queueInfo.append(++position).append(". ").append(track.getInfo().title)
+                    .append(" (").append(formatDuration(track.getDuration())).append(")\n");
+        }
+        queueInfo.append("📄 第 ").append(currentPage).append(" / ").append(totalPages).append(" 頁");
+        if (currentPage < totalPages) {
+            queueInfo.append("，使用 `!queue ").append(currentPage + 1).append("` 查看下一頁");
         }
 
         return queueInfo.toString();
     }
 
+    /**
+     * 移動佇列中的音樂
+     *
+     * @param guild 伺服器
+     * @param from 原本的位置（從 1 開始）
+     * @param to 移動後的位置（從 1 開始）
+     * @return 結果訊息
+     */
+    public String moveTrack(Guild guild, int from, int to) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager == null) {
+            return "❌ 無效的位置！佇列中有 0 首音樂";
+        }
+        MusicQueue musicQueue = manager.getMusicQueue();
+        AudioTrack moved = musicQueue.moveTrack(from - 1, to - 1);
+        if (moved == null) {
+            return "❌ 無效的位置！佇列中有 " + musicQueue.getQueueSize() + " 首音樂";
+        }
+        return "↕️ 已將 **" + moved.getInfo().title + "** 移到第 " + to + " 首";
+    }
+
+    /**
+     * 移除佇列中的音樂
+     *
+     * @param guild 伺服器
+     * @param position 位置（從 1 開始）
+     * @return 結果訊息
+     */
+    public String removeTrack(Guild guild, int position) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        if (manager == null) {
+            return "❌ 無效的位置！佇列中有 0 首音樂";
+        }
+        MusicQueue musicQueue = manager.getMusicQueue();
+        AudioTrack removed = musicQueue.removeTrack(position - 1);
+        if (removed == null) {
+            return "❌ 無效的位置！佇列中有 " + musicQueue.getQueueSize() + " 首音樂";
+        }
+        return "🗑️ 已從佇列移除: **" + removed.getInfo().title + "**";
+    }
+
+    /**
+     * 隨機打亂佇列
+     *
+     * @param guild 伺服器
+     * @return 結果訊息
+     */
+    public String shuffleQueue(Guild guild) {
+        GuildMusicManager manager = findGuildMusicManager(guild);
+        MusicQueue musicQueue = manager != null ? manager.getMusicQueue() : null;
+        if (musicQueue == null || musicQueue.getQueueSize() < 2) {
+            return "❌ 佇列中的音樂不足，無法隨機排序";
+        }
+        musicQueue.shuffle();
+        return "🔀 已隨機排序 " + musicQueue.getQueueSize() + " 首音樂";
+    }
+
+    /**
+     * 處理機器人的語音連線關閉
+     * 立即釋放該伺服器佇列中的音軌，管理器則在閒置逾時後才移除
+     *
+     * @param guildId 伺服器 ID
+     */
+    public void onVoiceConnectionClosed(long guildId) {
+        GuildMusicManager manager = musicManagers.get(guildId);
+        if (manager != null) {
+            manager.markDisconnected(System.currentTimeMillis());
+            logger.info("伺服器 {} 的語音連線已關閉，佇列已釋放", guildId);
+        }
+    }
+
+    /**
+     * 立即移除伺服器的音樂管理器（例如機器人被移出伺服器時）
+     *
+     * @param guildId 伺服器 ID
+     */
+    public void removeGuild(long guildId) {
+        GuildMusicManager[] removed = new GuildMusicManager[1];
+        musicManagers.computeIfPresent(guildId, (id, manager) -> {
+            removeQueueGauge(id);
+            removed[0] = manager;
+            return null;
+        });
+        GuildMusicManager manager = removed[0];
+        if (manager != null) {
+            retire(manager);
+            logger.info("已移除伺服器 {} 的音樂管理器", guildId);
+        }
+    }
+
+    /**
+     * 移除語音連線已關閉且閒置超時的伺服器管理器
+     */
+    private void evictIdleManagers() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Long guildId : musicManagers.keySet()) {
+                GuildMusicManager[] evicted = new GuildMusicManager[1];
+                musicManagers.computeIfPresent(guildId, (id, manager) -> {
+                    if (manager.isEvictable(now, idleTimeoutMillis)) {
+                        removeQueueGauge(id);
+                        evicted[0] = manager;
+                        return null;
+                    }
+                    return manager;
+                });
+                if (evicted[0] != null) {
+                    retire(evicted[0]);
+                    logger.info("伺服器 {} 閒置超時，已移除音樂管理器 (剩餘 {} 個)", guildId, musicManagers.size());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("清理閒置音樂管理器時發生錯誤", e);
+        }
+    }
+
+    /**
+     * 關閉服務時銷毀所有播放器
+     */
+    @PreDestroy
+    public void shutdown() {
+        evictionScheduler.shutdownNow();
+        musicManagers.values().forEach(GuildMusicManager::destroy);
+        musicManagers.clear();
+        audioPlayerManager.shutdown();
+    }
+
     /**
      * 連接到語音頻道
+     * 管理器已由 acquireForPlayback 標記為連線中；無法開啟連線時恢復閒置計時，讓管理器可以被移除
      */
-    private void connectToVoiceChannel(AudioManager audioManager, VoiceChannel voiceChannel) {
-        audioManager.setSendingHandler(sendHandler);
-        audioManager.openAudioConnection(voiceChannel);
+    private void connectToVoiceChannel(AudioManager audioManager, VoiceChannel voiceChannel, GuildMusicManager manager) {
+        audioManager.setSendingHandler(manager.getSendHandler());
+        try {
+            audioManager.openAudioConnection(voiceChannel);
+        } catch (RuntimeException e) {
+            manager.markDisconnected(System.currentTimeMillis());
+            throw e;
+        }
     }
 
     /**
      * 載入並播放音樂
      * 現在直接使用 LavaPlayer 的 YouTube 來源管理器，不再需要 yt-dlp 解析
      */
-    private void loadAndPlay(TextChannel channel, String trackUrl) {
+    private void loadAndPlay(GuildMusicManager manager, TextChannel channel, String trackUrl) {
+        ensureSourceManagersRegistered();
         audioPlayerManager.loadItem(trackUrl, new AudioLoadResultHandler() {
             @Override
             public void trackLoaded(AudioTrack track) {
-                handleTrackLoaded(channel, track, track.getInfo().title, track.getDuration());
+                recordLoadOutcome("loaded");
+                handleTrackLoaded(manager, channel, track, track.getInfo().title, track.getDuration());
                 logger.info("✅ 成功載入音軌: {}", track.getInfo().title);
             }
 
             @Override
             public void playlistLoaded(AudioPlaylist playlist) {
+                recordLoadOutcome("playlist");
                 AudioTrack firstTrack = playlist.getSelectedTrack();
                 if (firstTrack == null && !playlist.getTracks().isEmpty()) {
                     firstTrack = playlist.getTracks().get(0);
                 }
                 if (firstTrack != null) {
-                    handleTrackLoaded(channel, firstTrack, firstTrack.getInfo().title, firstTrack.getDuration());
+                    handleTrackLoaded(manager, channel, firstTrack, firstTrack.getInfo().title, firstTrack.getDuration());
                     logger.info("✅ 成功載入播放清單首曲: {}", firstTrack.getInfo().title);
                 } else {
                     channel.sendMessage("❌ 播放清單為空。").queue();
@@ -212,12 +653,14 @@ public class MusicService {
 
             @Override
             public void noMatches() {
+                recordLoadOutcome("no_matches");
                 channel.sendMessage("❌ 找不到該音樂。請檢查網址是否正確。").queue();
                 logger.warn("❌ 無法找到匹配的音軌: {}", trackUrl);
             }
 
             @Override
             public void loadFailed(FriendlyException exception) {
+                recordLoadOutcome("failed");
                 channel.sendMessage("❌ 載入音樂時發生錯誤: " + exception.getMessage()).queue();
                 logger.error("❌ 載入音軌失敗: {} - {}", trackUrl, exception.getMessage(), exception);
             }
@@ -227,9 +670,11 @@ public class MusicService {
     /**
      * 處理音軌載入完成
      */
-    private void handleTrackLoaded(TextChannel channel, AudioTrack track, String title, long duration) {
-        if (audioPlayer.getPlayingTrack() == null) {
-            musicQueue.setCurrentTrack(track);
+    private void handleTrackLoaded(GuildMusicManager manager, TextChannel channel, AudioTrack track, String title, long duration) {
+        AudioPlayer audioPlayer = manager.getAudioPlayer();
+        MusicQueue musicQueue = manager.getMusicQueue();
+
+        if (musicQueue.setCurrentTrackIfIdle(track)) {
             audioPlayer.playTrack(track);
             channel.sendMessage("🎵 **正在播放:** " + title +
                     " (" + formatDuration(duration) + ")").queue();
@@ -246,7 +691,7 @@ public class MusicService {
     /**
      * 格式化時長
      */
-    private String formatDuration(long duration) {
+    private static String formatDuration(long duration) {
         if (duration == Long.MAX_VALUE) return "🔴 LIVE";
 
         long seconds = duration / 1000;
@@ -0,0 +1,116 @@
+package com.coco.bot.service;
+
+import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.entity.PlaylistItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 播放清單順序鍵維護
+ *
+ * 移動歌曲時會取兩個相鄰順序鍵的中間值，多次移動到同一個位置後間隔會越來越小。
+ * 間隔變小的播放清單會被標記，並在背景定期重新編號；間隔用完時則立即重新編號。
+ */
+@Component
+public class PlaylistOrderMaintainer {
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistOrderMaintainer.class);
+
+    private record PlaylistKey(String userId, String playlistName) {
+    }
+
+    private final PlaylistDao playlistDao;
+    private final long renumberIntervalSeconds;
+    private final Set<PlaylistKey> fragmentedPlaylists = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public PlaylistOrderMaintainer(PlaylistDao playlistDao,
+                                   @Value("${playlist.order.renumber-interval-seconds:300}") long renumberIntervalSeconds) {
+        this.playlistDao = playlistDao;
+        this.renumberIntervalSeconds = renumberIntervalSeconds;
+    }
+
+    /**
+     * 啟動背景重新編號排程
+     */
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "playlist-renumber");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::renumberFragmentedPlaylists,
+                renumberIntervalSeconds, renumberIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 標記播放清單的順序鍵間隔已變小，等待背景重新編號
+     */
+    public void markFragmented(String userId, String playlistName) {
+        if (fragmentedPlaylists.add(new PlaylistKey(userId, playlistName))) {
+            logger.debug("播放清單順序鍵間隔變小，排入重新編號: userId={}, playlistName={}", userId, playlistName);
+        }
+    }
+
+    /**
+     * 立即重新編號播放清單
+     *
+     * @return 重新編號成功返回 true
+     */
+    public boolean renumberNow(String userId, String playlistName) {
+        fragmentedPlaylists.remove(new PlaylistKey(userId, playlistName));
+        boolean success = playlistDao.renumberPlaylist(userId, playlistName, PlaylistItem.ORDER_GAP);
+        if (success) {
+            logger.info("播放清單已重新編號: userId={}, playlistName={}", userId, playlistName);
+        } else {
+            logger.warn("播放清單重新編號失敗: userId={}, playlistName={}", userId, playlistName);
+        }
+        return success;
+    }
+
+    /**
+     * 重新編號所有被標記的播放清單
+     *
+     * @return 重新編號成功的數量
+     */
+    public int renumberFragmentedPlaylists() {
+        List<PlaylistKey> pending = new ArrayList<>(fragmentedPlaylists);
+        int renumbered = 0;
+        for (PlaylistKey key : pending) {
+            try {
+                if (renumberNow(key.userId(), key.playlistName())) {
+                    renumbered++;
+                }
+            } catch (Exception e) {
+                logger.error("背景重新編號播放清單時發生錯誤: {}", key, e);
+            }
+        }
+        return renumbered;
+    }
+
+    public int getFragmentedCount() {
+        return fragmentedPlaylists.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.coco.bot.service;
 
+import com.coco.bot.controller.CommandContext;
 import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.dto.PlaylistSummary;
 import com.coco.bot.entity.PlaylistItem;
+import com.coco.bot.handler.ResolutionException;
+import com.coco.bot.handler.ResolutionExecutor;
 import com.coco.bot.handler.YouTubeResolver;
 import com.coco.bot.util.CommandParser;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
-import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * 播放清單服務類
- * 使用 DAO 層進行數據庫操作並處理 Discord 事件
+ * 使用 DAO 層進行數據庫操作並處理播放清單指令
  */
 @Service
 @Transactional
@@ -26,11 +37,22 @@ public class PlaylistService {
 
     private final PlaylistDao playlistDao;
     private final YouTubeResolver youTubeResolver;
+    private final ResolutionExecutor resolutionExecutor;
+    private final PlaylistOrderMaintainer orderMaintainer;
+
+    /** 移動後相鄰順序鍵的間隔小於此值時，排入背景重新編號 */
+    private static final int FRAGMENTED_GAP_THRESHOLD = 8;
+
+    /** 目標位置前後的順序鍵之間已沒有剩餘間隔 */
+    private static final int NO_GAP = Integer.MIN_VALUE;
 
     @Autowired
-    public PlaylistService(PlaylistDao playlistDao, YouTubeResolver youTubeResolver) {
+    public PlaylistService(PlaylistDao playlistDao, YouTubeResolver youTubeResolver,
+                           ResolutionExecutor resolutionExecutor, PlaylistOrderMaintainer orderMaintainer) {
         this.playlistDao = playlistDao;
         this.youTubeResolver = youTubeResolver;
+        this.resolutionExecutor = resolutionExecutor;
+        this.orderMaintainer = orderMaintainer;
     }
 
     /**
@@ -38,7 +60,7 @@ public class PlaylistService {
      */
     public boolean createPlaylist(String userId, String playlistName, String songTitle, String songUrl, Long duration) {
         try {
-            PlaylistItem item = new PlaylistItem(userId, playlistName, songTitle, songUrl, duration != null ? duration : 0, 1);
+            PlaylistItem item = new PlaylistItem(userId, playlistName, songTitle, songUrl, duration != null ? duration : 0, PlaylistItem.ORDER_GAP);
             return playlistDao.save(item);
         } catch (Exception e) {
             logger.error("創建播放清單失敗: userId={}, playlistName={}", userId, playlistName, e);
@@ -51,10 +73,9 @@ public class PlaylistService {
      */
     public boolean addSongToPlaylist(String userId, String playlistName, String songTitle, String songUrl, Long duration) {
         try {
+            // 接在最後一首之後並保留間隔（MAX 查詢走 idx_song_order 索引）
             Integer maxOrder = playlistDao.findMaxSongOrderByUserIdAndPlaylistName(userId, playlistName);
-
-            // 如果是第一首真正的歌曲（maxOrder為0），則從1開始
-            Integer nextOrder = (maxOrder == 0) ? 1 : maxOrder + 1;
+            int nextOrder = (maxOrder == null ? 0 : maxOrder) + PlaylistItem.ORDER_GAP;
 
             PlaylistItem item = new PlaylistItem(userId, playlistName, songTitle, songUrl, duration != null ? duration : 0, nextOrder);
             return playlistDao.save(item);
@@ -64,6 +85,18 @@ public class PlaylistService {
         }
     }
 
+    /**
+     * 批次添加多首歌曲到播放清單
+     */
+    public boolean addSongsToPlaylist(String userId, String playlistName, List<PlaylistItem> songs) {
+        try {
+            return playlistDao.addSongsToPlaylist(userId, playlistName, songs);
+        } catch (Exception e) {
+            logger.error("批次添加歌曲到播放清單失敗: userId={}, playlistName={}, count={}", userId, playlistName, songs.size(), e);
+            return false;
+        }
+    }
+
     /**
      * 獲取用戶的所有播放清單名稱
      */
@@ -71,6 +104,13 @@ public class PlaylistService {
         return playlistDao.findDistinctPlaylistNamesByUserId(userId);
     }
 
+    /**
+     * 獲取用戶所有播放清單的摘要（一次查詢）
+     */
+    public List<PlaylistSummary> getPlaylistSummaries(String userId) {
+        return playlistDao.findPlaylistSummariesByUserId(userId);
+    }
+
     /**
      * 獲取播放清單的所有歌曲
      */
@@ -92,13 +132,87 @@ public class PlaylistService {
 
     /**
      * 從播放清單中移除特定歌曲
+     * 只刪除該筆資料，其他歌曲的序號在讀取時依位置計算，不需要重新排序
+     *
+     * @param position 歌曲序號（從 1 開始）
+     */
+    public boolean removeSongFromPlaylist(String userId, String playlistName, int position) {
+        PlaylistItem song = playlistDao.findSongAtPosition(userId, playlistName, position - 1);
+        if (song == null) {
+            return false;
+        }
+        return playlistDao.deleteSong(song);
+    }
+
+    /**
+     * 移動播放清單中的歌曲
+     * 新的順序鍵取目標位置前後兩首歌的中間值，只更新被移動的那一筆資料
+     *
+     * @param from 原本的序號（從 1 開始）
+     * @param to 移動後的序號（從 1 開始）
+     */
+    public boolean moveSongInPlaylist(String userId, String playlistName, int from, int to) {
+        PlaylistItem song = playlistDao.findSongAtPosition(userId, playlistName, from - 1);
+        if (song == null || to < 1) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+
+        Integer newOrder = orderBetweenNeighbours(userId, playlistName, from, to);
+        if (newOrder == null) {
+            return false;
+        }
+        if (newOrder == NO_GAP) {
+            // 目標位置前後沒有剩餘間隔，重新編號後再計算一次
+            if (!orderMaintainer.renumberNow(userId, playlistName)) {
+                return false;
+            }
+            newOrder = orderBetweenNeighbours(userId, playlistName, from, to);
+            if (newOrder == null || newOrder == NO_GAP) {
+                return false;
+            }
+        }
+        return playlistDao.updateSongOrder(song, newOrder);
+    }
+
+    /**
+     * 計算移動到目標位置後的順序鍵
+     *
+     * @return 新的順序鍵；目標位置無效時返回 null；前後沒有剩餘間隔時返回 NO_GAP
      */
-    public boolean removeSongFromPlaylist(String userId, String playlistName, int songOrder) {
-        boolean deleted = playlistDao.deleteBySongOrder(userId, playlistName, songOrder);
-        if (deleted) {
-            playlistDao.reorderSongsAfterDeletion(userId, playlistName, songOrder);
+    private Integer orderBetweenNeighbours(String userId, String playlistName, int from, int to) {
+        // 移除被移動的歌曲後，目標位置前後的兩首歌
+        PlaylistItem previous;
+        PlaylistItem next;
+        if (to < from) {
+            previous = to > 1 ? playlistDao.findSongAtPosition(userId, playlistName, to - 2) : null;
+            next = playlistDao.findSongAtPosition(userId, playlistName, to - 1);
+        } else {
+            previous = playlistDao.findSongAtPosition(userId, playlistName, to - 1);
+            next = playlistDao.findSongAtPosition(userId, playlistName, to);
+            if (previous == null) {
+                return null;
+            }
+        }
+
+        if (previous == null) {
+            return next.getSongOrder() - PlaylistItem.ORDER_GAP;
         }
-        return deleted;
+        if (next == null) {
+            return previous.getSongOrder() + PlaylistItem.ORDER_GAP;
+        }
+
+        int lower = previous.getSongOrder();
+        int upper = next.getSongOrder();
+        if (upper - lower < 2) {
+            return NO_GAP;
+        }
+        if (upper - lower < FRAGMENTED_GAP_THRESHOLD) {
+            orderMaintainer.markFragmented(userId, playlistName);
+        }
+        return lower + (upper - lower) / 2;
     }
 
     /**
@@ -113,35 +227,35 @@ public class PlaylistService {
     /**
      * 處理創建播放清單指令
      */
-    public void handleCreatePlaylist(MessageReceivedEvent event, List<String> args, String userId) {
+    public void handleCreatePlaylist(CommandContext context, List<String> args, String userId) {
         if (args.size() < 1) {
-            event.getChannel().sendMessage("❌ 使用方法：`!playlist create <播放清單名稱> [歌曲網址]`").queue();
+            context.reply("❌ 使用方法：`!playlist create <播放清單名稱> [歌曲網址]`");
             return;
         }
 
         String playlistName = args.get(0);
 
         if (playlistExists(userId, playlistName)) {
-            event.getChannel().sendMessage("❌ 播放清單 **" + playlistName + "** 已存在！").queue();
+            context.reply("❌ 播放清單 **" + playlistName + "** 已存在！");
             return;
         }
 
         // 檢查是否有提供歌曲網址
         if (args.size() >= 2) {
             String songUrl = args.get(1);
-            loadSongInfoAndCreatePlaylist(event, userId, playlistName, songUrl);
+            loadSongInfoAndCreatePlaylist(context, userId, playlistName, songUrl);
         } else {
             // 創建空的播放清單
-            createEmptyPlaylist(event, userId, playlistName);
+            createEmptyPlaylist(context, userId, playlistName);
         }
     }
 
     /**
      * 處理添加歌曲到播放清單指令
      */
-    public void handleAddToPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
+    public void handleAddToPlaylist(CommandContext context, List<String> args, String userId) {
         if (args.size() < 2) {
-            event.getChannel().sendMessage("❌ 使用方法：`!playlist add <播放清單名稱> <歌曲網址>`").queue();
+            context.reply("❌ 使用方法：`!playlist add <播放清單名稱> <歌曲網址>`");
             return;
         }
 
@@ -149,41 +263,63 @@ public class PlaylistService {
         String songUrl = args.get(1);
 
         if (!playlistExists(userId, playlistName)) {
-            event.getChannel().sendMessage("❌ 播放清單 **" + playlistName + "** 不存在！\n使用 `!playlist create " + playlistName + " <網址>` 來創建。").queue();
+            context.reply("❌ 播放清單 **" + playlistName + "** 不存在！\n使用 `!playlist create " + playlistName + " <網址>` 來創建。");
+            return;
+        }
+
+        loadSongInfoAndAddToPlaylist(context, userId, playlistName, songUrl);
+    }
+
+    /**
+     * 處理匯入多首歌曲指令；播放清單不存在時會自動創建
+     */
+    public void handleImportPlaylist(CommandContext context, List<String> args, String userId) {
+        // 斜線指令的網址選項是一整個字串，這裡統一再以空白切開
+        List<String> songUrls = args.stream()
+                .skip(1)
+                .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+                .filter(url -> !url.isEmpty())
+                .toList();
+        if (songUrls.isEmpty()) {
+            context.reply("❌ 使用方法：`!playlist import <播放清單名稱> <網址或 YouTube 播放清單網址>...`");
             return;
         }
 
-        loadSongInfoAndAddToPlaylist(event, userId, playlistName, songUrl);
+        loadSongInfoAndImport(context, userId, args.get(0), songUrls);
     }
 
     /**
      * 處理列出播放清單指令
      */
-    public void handleListPlaylists(MessageReceivedEvent event, String userId) {
-        List<String> playlists = getUserPlaylists(userId);
+    public void handleListPlaylists(CommandContext context, String userId) {
+        List<PlaylistSummary> playlists = getPlaylistSummaries(userId);
 
         if (playlists.isEmpty()) {
-            event.getChannel().sendMessage("📝 你還沒有創建任何播放清單。\n使用 `!playlist create <名稱> <網址>` 來創建第一個播放清單！").queue();
+            context.reply("📝 你還沒有創建任何播放清單。\n使用 `!playlist create <名稱> <網址>` 來創建第一個播放清單！");
             return;
         }
 
         StringBuilder message = new StringBuilder("🎵 **你的播放清單：**\n");
         for (int i = 0; i < playlists.size(); i++) {
-            String playlistName = playlists.get(i);
-            List<PlaylistItem> songs = getPlaylistSongs(userId, playlistName);
-            message.append(String.format("%d. **%s** (%d 首歌)\n", i + 1, playlistName, songs.size()));
+            PlaylistSummary playlist = playlists.get(i);
+            if (playlist.getTotalDuration() > 0) {
+                message.append(String.format("%d. **%s** (%d 首歌，%s)\n", i + 1, playlist.getPlaylistName(),
+                        playlist.getSongCount(), CommandParser.formatDuration(playlist.getTotalDuration())));
+            } else {
+                message.append(String.format("%d. **%s** (%d 首歌)\n", i + 1, playlist.getPlaylistName(), playlist.getSongCount()));
+            }
         }
         message.append("\n使用 `!playlist show <名稱>` 查看播放清單內容");
 
-        event.getChannel().sendMessage(message.toString()).queue();
+        context.reply(message.toString());
     }
 
     /**
      * 處理顯示播放清單內容指令
      */
-    public void handleShowPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
+    public void handleShowPlaylist(CommandContext context, List<String> args, String userId) {
         if (args.isEmpty()) {
-            event.getChannel().sendMessage("❌ 使用方法：`!playlist show <播放清單名稱>`").queue();
+            context.reply("❌ 使用方法：`!playlist show <播放清單名稱>`");
             return;
         }
 
@@ -191,84 +327,119 @@ public class PlaylistService {
         List<PlaylistItem> songs = getPlaylistSongs(userId, playlistName);
 
         if (songs.isEmpty()) {
-            event.getChannel().sendMessage("❌ 播放清單 **" + playlistName + "** 不存在或為空！").queue();
+            context.reply("❌ 播放清單 **" + playlistName + "** 不存在或為空！");
             return;
         }
 
         StringBuilder message = new StringBuilder("🎵 **播放清單：" + playlistName + "**\n");
-        for (PlaylistItem song : songs) {
+        for (int i = 0; i < songs.size(); i++) {
+            PlaylistItem song = songs.get(i);
             message.append(String.format("%d. **%s** (%s)\n",
-                    song.getSongOrder(),
+                    i + 1,
                     song.getSongTitle(),
                     CommandParser.formatDuration(song.getDuration())));
         }
         message.append("\n使用 `!playlist play ").append(playlistName).append("` 播放整個清單");
 
-        event.getChannel().sendMessage(message.toString()).queue();
+        context.reply(message.toString());
     }
 
     /**
      * 處理刪除播放清單指令
      */
-    public void handleDeletePlaylist(MessageReceivedEvent event, List<String> args, String userId) {
+    public void handleDeletePlaylist(CommandContext context, List<String> args, String userId) {
         if (args.isEmpty()) {
-            event.getChannel().sendMessage("❌ 使用方法：`!playlist delete <播放清單名稱>`").queue();
+            context.reply("❌ 使用方法：`!playlist delete <播放清單名稱>`");
             return;
         }
 
         String playlistName = args.get(0);
 
         if (!playlistExists(userId, playlistName)) {
-            event.getChannel().sendMessage("❌ 播放清單 **" + playlistName + "** 不存在！").queue();
+            context.reply("❌ 播放清單 **" + playlistName + "** 不存在！");
             return;
         }
 
         boolean success = deletePlaylist(userId, playlistName);
         if (success) {
-            event.getChannel().sendMessage("✅ 播放清單 **" + playlistName + "** 已刪除！").queue();
+            context.reply("✅ 播放清單 **" + playlistName + "** 已刪除！");
         } else {
-            event.getChannel().sendMessage("❌ 刪除播放清單時發生錯誤，請稍後再試。").queue();
+            context.reply("❌ 刪除播放清單時發生錯誤，請稍後再試。");
         }
     }
 
     /**
      * 處理從播放清單移除歌曲指令
      */
-    public void handleRemoveFromPlaylist(MessageReceivedEvent event, List<String> args, String userId) {
+    public void handleRemoveFromPlaylist(CommandContext context, List<String> args, String userId) {
         if (args.size() < 2) {
-            event.getChannel().sendMessage("❌ 使用方法：`!playlist remove <播放清單名稱> <歌曲序號>`").queue();
+            context.reply("❌ 使用方法：`!playlist remove <播放清單名稱> <歌曲序號>`");
             return;
         }
 
         String playlistName = args.get(0);
-        int songOrder;
+        int position;
 
         try {
-            songOrder = Integer.parseInt(args.get(1));
+            position = Integer.parseInt(args.get(1));
         } catch (NumberFormatException e) {
-            event.getChannel().sendMessage("❌ 歌曲序號必須是數字！").queue();
+            context.reply("❌ 歌曲序號必須是數字！");
             return;
         }
 
         if (!playlistExists(userId, playlistName)) {
-            event.getChannel().sendMessage("❌ 播放清單 **" + playlistName + "** 不存在！").queue();
+            context.reply("❌ 播放清單 **" + playlistName + "** 不存在！");
             return;
         }
 
-        boolean success = removeSongFromPlaylist(userId, playlistName, songOrder);
+        boolean success = removeSongFromPlaylist(userId, playlistName, position);
         if (success) {
-            event.getChannel().sendMessage("✅ 已從播放清單 **" + playlistName + "** 移除第 " + songOrder + " 首歌！").queue();
+            context.reply("✅ 已從播放清單 **" + playlistName + "** 移除第 " + position + " 首歌！");
         } else {
-            event.getChannel().sendMessage("❌ 移除歌曲失敗，請檢查歌曲序號是否正確。").queue();
+            context.reply("❌ 移除歌曲失敗，請檢查歌曲序號是否正確。");
+        }
+    }
+
+    /**
+     * 處理移動播放清單歌曲指令
+     */
+    public void handleMoveInPlaylist(CommandContext context, List<String> args, String userId) {
+        if (args.size() < 3) {
+            context.reply("❌ 使用方法：`!playlist move <播放清單名稱> <原序號> <新序號>`");
+            return;
+        }
+
+        String playlistName = args.get(0);
+        int from;
+        int to;
+
+        try {
+            from = Integer.parseInt(args.get(1));
+            to = Integer.parseInt(args.get(2));
+        } catch (NumberFormatException e) {
+            context.reply("❌ 歌曲序號必須是數字！");
+            return;
+        }
+
+        if (!playlistExists(userId, playlistName)) {
+            context.reply("❌ 播放清單 **" + playlistName + "** 不存在！");
+            return;
+        }
+
+        boolean success = moveSongInPlaylist(userId, playlistName, from, to);
+        if (success) {
+            context.reply("✅ 已將播放清單 **" + playlistName + "** 的第 " + from + " 首歌移到第 " + to + " 首！");
+        } else {
+            context.reply("❌ 移動歌曲失敗，請檢查歌曲序號是否正確。");
         }
     }
 
     /**
      * 處理播放播放清單指令
      */
-    public void handlePlayPlaylist(MessageReceivedEvent event, List<String> args, String userId, MusicService musicService) {
+    public void handlePlayPlaylist(CommandContext context, List<String> args, String userId, MusicService musicService) {
         if (args.isEmpty()) {
-            event.getChannel().sendMessage("❌ 使用方法：`!playlist play <播放清單名稱>`").queue();
+            context.reply("❌ 使用方法：`!playlist play <播放清單名稱>`");
             return;
         }
 
@@ -276,135 +447,224 @@ public class PlaylistService {
         List<PlaylistItem> songs = getPlaylistSongs(userId, playlistName);
 
         if (songs.isEmpty()) {
-            event.getChannel().sendMessage("❌ 播放清單 **" + playlistName + "** 不存在或為空！").queue();
+            context.reply("❌ 播放清單 **" + playlistName + "** 不存在或為空！");
             return;
         }
 
-        Member member = event.getMember();
+        Member member = context.getMember();
         if (member == null || member.getVoiceState() == null || member.getVoiceState().getChannel() == null) {
-            event.getChannel().sendMessage("❌ 您需要先加入一個語音頻道！").queue();
+            context.reply("❌ 您需要先加入一個語音頻道！");
             return;
         }
 
         VoiceChannel voiceChannel = member.getVoiceState().getChannel().asVoiceChannel();
-        event.getChannel().sendMessage("🎵 **開始播放播放清單：" + playlistName + "** (" + songs.size() + " 首歌)").queue();
+        context.reply("🎵 **開始播放播放清單：" + playlistName + "** (" + songs.size() + " 首歌)");
 
-        // 播放第一首歌並將其餘歌曲加入佇列
-        for (int i = 0; i < songs.size(); i++) {
-            PlaylistItem song = songs.get(i);
-            if (i == 0) {
-                musicService.playMusic(voiceChannel, event.getChannel().asTextChannel(), song.getSongUrl());
-            } else {
-                // 這裡需要添加到佇列的方法
-                // musicService.addToQueue(song.getSongUrl());
-            }
-        }
+        // 並行載入所有歌曲，依照播放清單順序加入佇列，第一首載入完成即開始播放
+        List<String> urls = songs.stream()
+                .map(PlaylistItem::getSongUrl)
+                .collect(java.util.stream.Collectors.toList());
+        musicService.playAll(voiceChannel, context.getTextChannel(), urls);
     }
 
     /**
      * 處理播放清單幫助指令
      */
-    public void handlePlaylistHelp(MessageReceivedEvent event) {
+    public void handlePlaylistHelp(CommandContext context) {
         String helpMessage = "🎵 **播放清單指令：**\n" +
                 "`!playlist create <名稱> [網址]` - 創建新的播放清單（網址可選）\n" +
                 "`!playlist add <名稱> <網址>` - 添加歌曲到播放清單\n" +
+                "`!playlist import <名稱> <網址>...` - 一次匯入多首歌曲或 YouTube 播放清單\n" +
                 "`!playlist list` - 列出你的所有播放清單\n" +
                 "`!playlist show <名稱>` - 查看播放清單內容\n" +
                 "`!playlist play <名稱>` - 播放整個播放清單\n" +
                 "`!playlist remove <名稱> <序號>` - 移除播放清單中的歌曲\n" +
+                "`!playlist move <名稱> <原序號> <新序號>` - 移動播放清單中的歌曲\n" +
                 "`!playlist delete <名稱>` - 刪除播放清單\n\n" +
                 "📝 **範例：**\n" +
                 "`!playlist create 我的最愛` - 創建空播放清單\n" +
                 "`!playlist create 我的最愛 https://www.youtube.com/watch?v=dQw4w9WgXcQ` - 創建並添加歌曲\n" +
                 "`!playlist add 我的最愛 https://www.youtube.com/watch?v=fJ9rUzIMcZQ`";
 
-        event.getChannel().sendMessage(helpMessage).queue();
+        context.reply(helpMessage);
     }
 
     /**
      * 載入歌曲信息並創建播放清單
      */
-    private void loadSongInfoAndCreatePlaylist(MessageReceivedEvent event, String userId, String playlistName, String songUrl) {
-        new Thread(() -> {
-            try {
-                if (songUrl.contains("youtube.com") || songUrl.contains("youtu.be")) {
-                    YouTubeResolver.TrackInfo trackInfo = youTubeResolver.resolveYouTubeUrl(songUrl);
-                    if (trackInfo != null) {
-                        boolean success = createPlaylist(userId, playlistName, trackInfo.title, trackInfo.url, trackInfo.duration);
-                        if (success) {
-                            event.getChannel().sendMessage("✅ 播放清單 **" + playlistName + "** 創建成功！\n🎵 已添加：**" + trackInfo.title + "**").queue();
-                        } else {
-                            event.getChannel().sendMessage("❌ 創建播放清單失敗，請稍後再試。").queue();
-                        }
-                    } else {
-                        event.getChannel().sendMessage("❌ 無法解析該 YouTube 影片，請檢查網址。").queue();
-                    }
-                } else {
-                    boolean success = createPlaylist(userId, playlistName, "Unknown Title", songUrl, 0L);
-                    if (success) {
-                        event.getChannel().sendMessage("✅ 播放清單 **" + playlistName + "** 創建成功！\n🎵 已添加歌曲").queue();
+    private void loadSongInfoAndCreatePlaylist(CommandContext context, String userId, String playlistName, String songUrl) {
+        submitResolution(context, "創建播放清單 " + playlistName + ": " + songUrl, () -> resolveSongInfo(songUrl)
+                .thenAccept(trackInfo -> {
+                    boolean success = createPlaylist(userId, playlistName, trackInfo.title, songUrl, trackInfo.duration);
+                    if (!success) {
+                        context.reply("❌ 創建播放清單失敗，請稍後再試。");
+                    } else if (isYouTubeUrl(songUrl)) {
+                        context.reply("✅ 播放清單 **" + playlistName + "** 創建成功！\n🎵 已添加：**" + trackInfo.title + "**");
                     } else {
-                        event.getChannel().sendMessage("❌ 創建播放清單失敗，請稍後再試。").queue();
+                        context.reply("✅ 播放清單 **" + playlistName + "** 創建成功！\n🎵 已添加歌曲");
                     }
-                }
-            } catch (Exception e) {
-                logger.error("創建播放清單時發生錯誤", e);
-                event.getChannel().sendMessage("❌ 創建播放清單時發生錯誤，請稍後再試。").queue();
-            }
-        }).start();
+                })
+                .exceptionally(error -> replyResolutionFailure(context, error, "創建播放清單時發生錯誤")));
     }
 
     /**
      * 載入歌曲信息並添加到播放清單
      */
-    private void loadSongInfoAndAddToPlaylist(MessageReceivedEvent event, String userId, String playlistName, String songUrl) {
-        new Thread(() -> {
-            try {
-                if (songUrl.contains("youtube.com") || songUrl.contains("youtu.be")) {
-                    YouTubeResolver.TrackInfo trackInfo = youTubeResolver.resolveYouTubeUrl(songUrl);
-                    if (trackInfo != null) {
-                        boolean success = addSongToPlaylist(userId, playlistName, trackInfo.title, trackInfo.url, trackInfo.duration);
-                        if (success) {
-                            event.getChannel().sendMessage("✅ 已添加到播放清單 **" + playlistName + "**：\n🎵 **" + trackInfo.title + "**").queue();
-                        } else {
-                            event.getChannel().sendMessage("❌ 添加歌曲失敗，請稍後再試。").queue();
-                        }
+    private void loadSongInfoAndAddToPlaylist(CommandContext context, String userId, String playlistName, String songUrl) {
+        submitResolution(context, "添加歌曲到播放清單 " + playlistName + ": " + songUrl, () -> resolveSongInfo(songUrl)
+                .thenAccept(trackInfo -> {
+                    boolean success = addSongToPlaylist(userId, playlistName, trackInfo.title, songUrl, trackInfo.duration);
+                    if (!success) {
+                        context.reply("❌ 添加歌曲失敗，請稍後再試。");
+                    } else if (isYouTubeUrl(songUrl)) {
+                        context.reply("✅ 已添加到播放清單 **" + playlistName + "**：\n🎵 **" + trackInfo.title + "**");
                     } else {
-                        event.getChannel().sendMessage("❌ 無法解析該 YouTube 影片，請檢查網址。").queue();
+                        context.reply("✅ 已添加歌曲到播放清單 **" + playlistName + "**");
                     }
-                } else {
-                    boolean success = addSongToPlaylist(userId, playlistName, "Unknown Title", songUrl, 0L);
-                    if (success) {
-                        event.getChannel().sendMessage("✅ 已添加歌曲到播放清單 **" + playlistName + "**").queue();
-                    } else {
-                        event.getChannel().sendMessage("❌ 添加歌曲失敗，請稍後再試。").queue();
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("添加歌曲到播放清單時發生錯誤", e);
-                event.getChannel().sendMessage("❌ 添加歌曲時發生錯誤，請稍後再試。").queue();
+                })
+                .exceptionally(error -> replyResolutionFailure(context, error, "添加歌曲時發生錯誤")));
+    }
+
+    /**
+     * 以一次 yt-dlp 批次解析所有 YouTube 網址，再依照輸入順序一次寫入播放清單
+     */
+    private void loadSongInfoAndImport(CommandContext context, String userId, String playlistName, List<String> songUrls) {
+        // (輸入位置, 歌曲)；播放清單展開的歌曲共用同一個位置，依到達順序排在一起
+        List<Map.Entry<Integer, PlaylistItem>> imported = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failed = new AtomicInteger();
+
+        List<String> youTubeUrls = new ArrayList<>();
+        List<Integer> youTubeIndexes = new ArrayList<>();
+        for (int i = 0; i < songUrls.size(); i++) {
+            String songUrl = songUrls.get(i);
+            if (isYouTubeUrl(songUrl)) {
+                youTubeUrls.add(songUrl);
+                youTubeIndexes.add(i);
+            } else {
+                imported.add(Map.entry(i, new PlaylistItem(userId, playlistName, "Unknown Title", songUrl, 0L, 0)));
             }
-        }).start();
+        }
+
+        YouTubeResolver.BatchListener listener = new YouTubeResolver.BatchListener() {
+            @Override
+            public void onResolved(int index, String url, YouTubeResolver.TrackInfo trackInfo) {
+                // 保存影片網址而不是會過期的串流網址
+                imported.add(Map.entry(youTubeIndexes.get(index),
+                        new PlaylistItem(userId, playlistName, trackInfo.title, url, trackInfo.duration, 0)));
+            }
+
+            @Override
+            public void onFailed(int index, String url, ResolutionException error) {
+                logger.warn("匯入歌曲解析失敗 ({}): {} - {}", error.getReason(), url, error.getMessage());
+                failed.incrementAndGet();
+            }
+
+            @Override
+            public void onPlaylistEntryFailed(String url, ResolutionException error) {
+                logger.warn("匯入播放清單歌曲解析失敗: {} - {}", url, error.getMessage());
+                failed.incrementAndGet();
+            }
+        };
+
+        submitResolution(context, "匯入 " + songUrls.size() + " 個網址到播放清單 " + playlistName,
+                () -> youTubeResolver.resolveBatchAsync(youTubeUrls, listener)
+                        .thenRun(() -> {
+                            List<PlaylistItem> songs;
+                            synchronized (imported) {
+                                songs = imported.stream()
+                                        .sorted(Map.Entry.comparingByKey())
+                                        .map(Map.Entry::getValue)
+                                        .toList();
+                            }
+                            if (songs.isEmpty()) {
+                                context.reply("❌ 沒有可以匯入的歌曲，請檢查網址。");
+                            } else if (!addSongsToPlaylist(userId, playlistName, new ArrayList<>(songs))) {
+                                context.reply("❌ 匯入歌曲失敗，請稍後再試。");
+                            } else if (failed.get() > 0) {
+                                context.reply("✅ 已匯入 " + songs.size() + " 首歌曲到播放清單 **" + playlistName + "**\n⚠️ "
+                                        + failed.get() + " 個網址或歌曲無法解析");
+                            } else {
+                                context.reply("✅ 已匯入 " + songs.size() + " 首歌曲到播放清單 **" + playlistName + "**");
+                            }
+                        })
+                        .exceptionally(error -> replyResolutionFailure(context, error, "匯入歌曲時發生錯誤")));
+    }
+
+    private static boolean isYouTubeUrl(String songUrl) {
+        return songUrl.contains("youtube.com") || songUrl.contains("youtu.be");
+    }
+
+    /**
+     * 解析歌曲資訊；YouTube 以外的網址不解析，直接使用原網址
+     * 播放清單只保存影片網址、標題與時長，因此只需要影片資訊，串流 URL 過期也不必重新解析
+     */
+    private CompletableFuture<YouTubeResolver.TrackInfo> resolveSongInfo(String songUrl) {
+        if (isYouTubeUrl(songUrl)) {
+            return youTubeResolver.resolveMetadataAsync(songUrl);
+        }
+        return CompletableFuture.completedFuture(new YouTubeResolver.TrackInfo("Unknown Title", songUrl, 0L));
+    }
+
+    /**
+     * 依照失敗原因回覆使用者
+     *
+     * @param error 解析或儲存時的錯誤
+     * @param operation 非解析失敗時回覆與記錄的操作描述
+     */
+    private Void replyResolutionFailure(CommandContext context, Throwable error, String operation) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ResolutionException resolution) {
+            logger.warn("歌曲解析失敗 ({}): {}", resolution.getReason(), resolution.getMessage());
+            context.reply(resolutionFailureMessage(resolution.getReason()));
+        } else {
+            logger.error(operation, cause);
+            context.reply("❌ " + operation + "，請稍後再試。");
+        }
+        return null;
+    }
+
+    /**
+     * 解析失敗原因對應的回覆
+     */
+    static String resolutionFailureMessage(ResolutionException.Reason reason) {
+        return switch (reason) {
+            case INVALID_URL -> "❌ 網址無效，請檢查網址。";
+            case UNAVAILABLE -> "❌ 無法解析該 YouTube 影片，請檢查網址。";
+            case TIMEOUT -> "❌ 解析影片逾時，請稍後再試。";
+            case MALFORMED_OUTPUT, PROCESS_ERROR -> "❌ 解析服務暫時無法使用，請稍後再試。";
+        };
+    }
+
+    /**
+     * 把解析工作交給共用的解析執行器，並在排隊或被拒絕時通知使用者
+     */
+    private void submitResolution(CommandContext context, String description, Supplier<CompletableFuture<Void>> task) {
+        ResolutionExecutor.Submission submission = resolutionExecutor.submitAsync(description, task);
+        if (submission == ResolutionExecutor.Submission.QUEUED) {
+            context.reply("⏳ 目前解析請求較多，你的請求已排隊，完成後會通知你。");
+        } else if (submission == ResolutionExecutor.Submission.REJECTED) {
+            context.reply("❌ 目前解析請求過多，請稍後再試。");
+        }
     }
 
     /**
      * 創建空的播放清單
      */
-    private void createEmptyPlaylist(MessageReceivedEvent event, String userId, String playlistName) {
+    private void createEmptyPlaylist(CommandContext context, String userId, String playlistName) {
         try {
             // 創建一個空的播放清單項目作為標記
             PlaylistItem emptyItem = new PlaylistItem(userId, playlistName, "", "", 0L, 0);
             boolean success = playlistDao.save(emptyItem);
 
             if (success) {
-                event.getChannel().sendMessage("✅ 空播放清單 **" + playlistName + "** 創建成功！\n" +
-                    "使用 `!playlist add " + playlistName + " <網址>` 來添加歌曲。").queue();
+                context.reply("✅ 空播放清單 **" + playlistName + "** 創建成功！\n" +
+                    "使用 `!playlist add " + playlistName + " <網址>` 來添加歌曲。");
             } else {
-                event.getChannel().sendMessage("❌ 創建播放清單失敗，請稍後再試。").queue();
+                context.reply("❌ 創建播放清單失敗，請稍後再試。");
             }
         } catch (Exception e) {
             logger.error("創建空播放清單時發生錯誤", e);
-            event.getChannel().sendMessage("❌ 創建播放清單時發生錯誤，請稍後再試。").queue();
+            context.reply("❌ 創建播放清單時發生錯誤，請稍後再試。");
         }
     }
 }
\ No newline at end of file
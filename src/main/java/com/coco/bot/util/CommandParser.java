@@ -4,22 +4,31 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * 指令解析工具類
  * 處理 Discord 機器人指令的解析，包括自動處理缺少空格的情況
+ *
+ * 機器人會收到每個伺服器的每一則訊息，因此解析只掃描一次訊息：
+ * - 第一個字元不是 '!' 的訊息立即拒絕，不配置任何物件
+ * - 指令以字典樹（trie）比對，不需要建立小寫字串或逐一比較指令列表
+ * - 參數以手寫的掃描器切割，只有在參數包含 "://" 時才使用預先編譯的 URL 正規表達式
  */
 public class CommandParser {
     private static final Logger logger = LoggerFactory.getLogger(CommandParser.class);
     
     // 支援的指令列表
-    private static final List<String> COMMANDS = Arrays.asList(
-        "!play", "!stop", "!pause", "!resume", "!skip", "!queue", "!help", "!playlist"
+    private static final Set<String> COMMANDS = Set.of(
+        "!play", "!stop", "!pause", "!resume", "!skip", "!queue", "!move", "!remove", "!shuffle",
+        "!help", "!playlist"
     );
+
+    // 指令字典樹（不包含開頭的 '!'）
+    private static final CommandTrie COMMAND_TRIE = new CommandTrie(COMMANDS);
     
     // URL 模式匹配
     private static final Pattern URL_PATTERN = Pattern.compile(
@@ -27,6 +36,17 @@ public class CommandParser {
         Pattern.CASE_INSENSITIVE
     );
 
+    /**
+     * 快速判斷訊息是否可能是指令
+     * 不是指令的訊息（絕大多數聊天訊息）只需要檢查第一個字元
+     *
+     * @param message 原始訊息
+     * @return true 如果訊息以 '!' 開頭
+     */
+    public static boolean isCommandCandidate(String message) {
+        return message != null && !message.isEmpty() && message.charAt(0) == '!';
+    }
+
     /**
      * 解析指令和參數
      * 
@@ -34,24 +54,29 @@ public class CommandParser {
      * @return ParsedCommand 物件
      */
     public static ParsedCommand parseCommand(String message) {
-        if (message == null || message.trim().isEmpty() || !message.startsWith("!")) {
+        if (!isCommandCandidate(message)) {
             return new ParsedCommand(null, new ArrayList<>(), message);
         }
-        
-        message = message.trim();
+
+        // 開頭是 '!'，只需要去除結尾的空白
+        int end = message.length();
+        while (end > 0 && message.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end == 1) {
+            return new ParsedCommand(null, new ArrayList<>(), message);
+        }
+        message = end == message.length() ? message : message.substring(0, end);
         logger.debug("解析指令: {}", message);
-        
-        // 首先嘗試正常的空格分割
-        String[] parts = message.split("\\s+", 2);
-        String command = parts[0].toLowerCase();
-        
-        // 檢查是否為有效指令
-        if (COMMANDS.contains(command)) {
-            List<String> args = new ArrayList<>();
-            if (parts.length > 1) {
-                args.addAll(parseArguments(parts[1]));
-            }
-            return new ParsedCommand(command, args, message);
+
+        // 首先比對以空白分隔的第一個詞
+        int tokenEnd = 1;
+        while (tokenEnd < end && !isWhitespace(message.charAt(tokenEnd))) {
+            tokenEnd++;
+        }
+        String command = COMMAND_TRIE.match(message, 1, tokenEnd);
+        if (command != null) {
+            return new ParsedCommand(command, parseArguments(message, tokenEnd, end), message);
         }
         
         // 如果不是有效指令，可能是缺少空格的情況
@@ -68,87 +93,98 @@ public class CommandParser {
 
     /**
      * 修正缺少空格的指令
+     * 從最長的指令開始嘗試，例如 "!playlistlist" 解析為 !playlist 而不是 !play
      * 
-     * @param message 原始訊息
+     * @param message 已去除結尾空白的訊息
      * @return 修正後的 ParsedCommand，如果無法修正則返回 null
      */
     private static ParsedCommand fixMissingSpaces(String message) {
-        for (String cmd : COMMANDS) {
-            if (message.toLowerCase().startsWith(cmd) && message.length() > cmd.length()) {
-                String remaining = message.substring(cmd.length());
-                
-                // 檢查剩餘部分是否看起來像參數
-                if (isValidArgument(remaining)) {
-                    List<String> args = parseArguments(remaining);
-                    return new ParsedCommand(cmd, args, message);
-                }
+        int matchEnd = COMMAND_TRIE.longestPrefix(message, 1, message.length());
+        while (matchEnd > 1) {
+            String command = COMMAND_TRIE.match(message, 1, matchEnd);
+            if (command != null && isValidArgument(message, matchEnd, message.length())) {
+                return new ParsedCommand(command, parseArguments(message, matchEnd, message.length()), message);
             }
+            matchEnd = COMMAND_TRIE.longestPrefix(message, 1, matchEnd - 1);
         }
         return null;
     }
 
     /**
-     * 檢查字串是否看起來像有效的參數
+     * 檢查字串區段是否看起來像有效的參數（包含英文字母或數字，URL 也一定符合）
      * 
-     * @param arg 參數字串
      * @return true 如果看起來像有效參數
      */
-    private static boolean isValidArgument(String arg) {
-        if (arg == null || arg.trim().isEmpty()) {
-            return false;
-        }
-        
-        // 檢查是否為 URL
-        if (URL_PATTERN.matcher(arg).find()) {
-            return true;
-        }
-        
-        // 檢查是否為播放清單相關參數
-        if (arg.matches(".*[a-zA-Z0-9].*")) {
-            return true;
+    private static boolean isValidArgument(String message, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = message.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                return true;
+            }
         }
-        
         return false;
     }
 
     /**
      * 解析參數字串
+     * URL 會被切成獨立的參數，即使前後沒有空白
      * 
-     * @param argString 參數字串
+     * @param message 訊息
+     * @param from 參數開始位置
+     * @param to 參數結束位置（不包含）
      * @return 參數列表
      */
-    private static List<String> parseArguments(String argString) {
+    private static List<String> parseArguments(String message, int from, int to) {
         List<String> args = new ArrayList<>();
         
-        if (argString == null || argString.trim().isEmpty()) {
-            return args;
+        // 只有包含 "://" 時才需要尋找 URL
+        int scheme = message.indexOf("://", from);
+        if (scheme >= 0 && scheme < to) {
+            Matcher urlMatcher = URL_PATTERN.matcher(message).region(from, to);
+            if (urlMatcher.find()) {
+                // 如果有 URL，先處理 URL 前的部分，再加入 URL 與 URL 後的部分
+                splitWhitespace(message, from, urlMatcher.start(), args);
+                args.add(urlMatcher.group(1));
+                splitWhitespace(message, urlMatcher.end(), to, args);
+                return args;
+            }
         }
-        
-        argString = argString.trim();
-        
-        // 檢查是否包含 URL
-        Matcher urlMatcher = URL_PATTERN.matcher(argString);
-        if (urlMatcher.find()) {
-            // 如果有 URL，先處理 URL 前的部分
-            String beforeUrl = argString.substring(0, urlMatcher.start()).trim();
-            if (!beforeUrl.isEmpty()) {
-                args.addAll(Arrays.asList(beforeUrl.split("\\s+")));
+
+        // 沒有 URL，正常分割
+        splitWhitespace(message, from, to, args);
+        return args;
+    }
+
+    /**
+     * 去除字串區段前後的空白（與 String.trim() 相同）後，以空白切割並加入參數列表
+     */
+    private static void splitWhitespace(String message, int from, int to, List<String> args) {
+        while (from < to && message.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && message.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        int i = from;
+        while (i < to) {
+            while (i < to && isWhitespace(message.charAt(i))) {
+                i++;
             }
-            
-            // 添加 URL
-            args.add(urlMatcher.group(1));
-            
-            // 處理 URL 後的部分
-            String afterUrl = argString.substring(urlMatcher.end()).trim();
-            if (!afterUrl.isEmpty()) {
-                args.addAll(Arrays.asList(afterUrl.split("\\s+")));
+            int start = i;
+            while (i < to && !isWhitespace(message.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                args.add(message.substring(start, i));
             }
-        } else {
-            // 沒有 URL，正常分割
-            args.addAll(Arrays.asList(argString.split("\\s+")));
         }
-        
-        return args;
+    }
+
+    /**
+     * 與正規表達式的 \s 相同的空白字元
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     /**
@@ -193,6 +229,76 @@ public class CommandParser {
         }
     }
 
+    /**
+     * 指令字典樹
+     * 只接受英文字母（不分大小寫），每個節點以陣列索引子節點，比對時不配置任何物件
+     */
+    private static final class CommandTrie {
+        private static final class Node {
+            private final Node[] children = new Node[26];
+            private String command;
+        }
+
+        private final Node root = new Node();
+
+        CommandTrie(Set<String> commands) {
+            for (String command : commands) {
+                Node node = root;
+                for (int i = 1; i < command.length(); i++) {
+                    int index = command.charAt(i) - 'a';
+                    if (node.children[index] == null) {
+                        node.children[index] = new Node();
+                    }
+                    node = node.children[index];
+                }
+                node.command = command;
+            }
+        }
+
+        /**
+         * 比對整個區段是否剛好是一個指令
+         *
+         * @return 指令（小寫，包含 '!'），不是指令時返回 null
+         */
+        String match(String text, int from, int to) {
+            Node node = root;
+            for (int i = from; i < to && node != null; i++) {
+                node = child(node, text.charAt(i));
+            }
+            return node != null ? node.command : null;
+        }
+
+        /**
+         * 找出區段開頭符合的最長指令
+         *
+         * @return 最長指令在文字中的結束位置，沒有符合的指令時返回 from
+         */
+        int longestPrefix(String text, int from, int to) {
+            Node node = root;
+            int matchEnd = from;
+            for (int i = from; i < to; i++) {
+                node = child(node, text.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.command != null) {
+                    matchEnd = i + 1;
+                }
+            }
+            return matchEnd;
+        }
+
+        private static Node child(Node node, char c) {
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c < 'a' || c > 'z') {
+                return null;
+            }
+            return node.children[c - 'a'];
+        }
+    }
+
     /**
      * 解析後的指令物件
      */
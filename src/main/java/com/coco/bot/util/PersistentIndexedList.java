@@ -0,0 +1,375 @@
+package com.coco.bot.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 不可變的索引串列（隱式 treap）
+ *
+ * 每次修改都會返回新的串列，只複製被修改路徑上的節點，舊的串列不受影響。
+ * 因此可以放在 AtomicReference 中以 compareAndSet 更新，讀取端永遠看到一致的快照。
+ *
+ * 時間複雜度（期望值）：
+ * get / insert / remove / move 為 O(log n)，
+ * 從任意位置開始走訪 k 個元素為 O(log n + k)，
+ * 由集合建立與洗牌為 O(n)。
+ *
+ * @param <T> 元素型別
+ */
+public final class PersistentIndexedList<T> implements Iterable<T> {
+
+    private static final PersistentIndexedList<?> EMPTY = new PersistentIndexedList<>(null);
+
+    private final Node<T> root;
+
+    private PersistentIndexedList(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * 返回空串列
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentIndexedList<T> empty() {
+        return (PersistentIndexedList<T>) EMPTY;
+    }
+
+    /**
+     * 依照集合的順序建立串列
+     *
+     * @param values 元素
+     * @return 新的串列
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentIndexedList<T> of(Collection<? extends T> values) {
+        return build((T[]) values.toArray(), ThreadLocalRandom.current());
+    }
+
+    /**
+     * 串列大小
+     */
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * 取得指定位置的元素
+     *
+     * @param index 位置
+     * @return 元素
+     */
+    public T get(int index) {
+        checkIndex(index, size());
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 在尾端加入元素
+     *
+     * @param value 元素
+     * @return 新的串列
+     */
+    public PersistentIndexedList<T> add(T value) {
+        return new PersistentIndexedList<>(merge(root, newNode(value)));
+    }
+
+    /**
+     * 在指定位置插入元素，原本該位置之後的元素往後移
+     *
+     * @param index 插入位置（0 到 size）
+     * @param value 元素
+     * @return 新的串列
+     */
+    public PersistentIndexedList<T> insert(int index, T value) {
+        checkIndex(index, size() + 1);
+        Split<T> parts = split(root, index);
+        return new PersistentIndexedList<>(merge(merge(parts.left, newNode(value)), parts.right));
+    }
+
+    /**
+     * 移除指定位置的元素
+     *
+     * @param index 位置
+     * @return 新的串列
+     */
+    public PersistentIndexedList<T> remove(int index) {
+        checkIndex(index, size());
+        Split<T> parts = split(root, index);
+        Split<T> rest = split(parts.right, 1);
+        return new PersistentIndexedList<>(merge(parts.left, rest.right));
+    }
+
+    /**
+     * 把元素從一個位置移到另一個位置
+     *
+     * @param from 原本的位置
+     * @param to 移動後的位置
+     * @return 新的串列
+     */
+    public PersistentIndexedList<T> move(int from, int to) {
+        int size = size();
+        checkIndex(from, size);
+        checkIndex(to, size);
+        if (from == to) {
+            return this;
+        }
+        T value = get(from);
+        return remove(from).insert(to, value);
+    }
+
+    /**
+     * 隨機打亂元素順序
+     *
+     * @param random 亂數來源
+     * @return 新的串列
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentIndexedList<T> shuffle(Random random) {
+        Object[] values = toArray();
+        // Fisher-Yates
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Object tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return build((T[]) values, random);
+    }
+
+    /**
+     * 取得一段連續的元素
+     *
+     * @param from 起始位置（包含）
+     * @param to 結束位置（不包含）
+     * @return 元素清單
+     */
+    public List<T> slice(int from, int to) {
+        int size = size();
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("範圍 [" + from + ", " + to + ") 超出大小 " + size);
+        }
+        List<T> result = new ArrayList<>(to - from);
+        Iterator<T> iterator = iterator(from);
+        for (int i = from; i < to; i++) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    /**
+     * 轉成一般的 List
+     */
+    public List<T> toList() {
+        return slice(0, size());
+    }
+
+    public Object[] toArray() {
+        Object[] values = new Object[size()];
+        int i = 0;
+        for (T value : this) {
+            values[i++] = value;
+        }
+        return values;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 從指定位置開始依序走訪
+     *
+     * @param fromIndex 起始位置（0 到 size）
+     * @return 迭代器
+     */
+    public Iterator<T> iterator(int fromIndex) {
+        checkIndex(fromIndex, size() + 1);
+        return new InOrderIterator<>(root, fromIndex);
+    }
+
+    private static <T> Node<T> newNode(T value) {
+        return new Node<>(value, ThreadLocalRandom.current().nextInt(), null, null);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("位置 " + index + " 超出範圍 0.." + (bound - 1));
+        }
+    }
+
+    /**
+     * 把樹分成前 count 個元素與其餘元素
+     */
+    private static <T> Split<T> split(Node<T> node, int count) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        int leftSize = size(node.left);
+        if (count <= leftSize) {
+            Split<T> parts = split(node.left, count);
+            return new Split<>(parts.left, node.with(parts.right, node.right));
+        } else {
+            Split<T> parts = split(node.right, count - leftSize - 1);
+            return new Split<>(node.with(node.left, parts.left), parts.right);
+        }
+    }
+
+    /**
+     * 合併兩棵樹（left 的所有元素排在 right 之前）
+     */
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        } else {
+            return right.with(merge(left, right.left), right.right);
+        }
+    }
+
+    /**
+     * 以 O(n) 的堆疊演算法建立笛卡兒樹，再轉成不可變節點
+     */
+    private static <T> PersistentIndexedList<T> build(T[] values, Random random) {
+        int n = values.length;
+        if (n == 0) {
+            return empty();
+        }
+
+        int[] priorities = new int[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int[] stack = new int[n];
+        int top = -1;
+
+        for (int i = 0; i < n; i++) {
+            priorities[i] = random.nextInt();
+            left[i] = -1;
+            right[i] = -1;
+
+            int last = -1;
+            while (top >= 0 && priorities[stack[top]] < priorities[i]) {
+                last = stack[top--];
+            }
+            left[i] = last;
+            if (top >= 0) {
+                right[stack[top]] = i;
+            }
+            stack[++top] = i;
+        }
+
+        return new PersistentIndexedList<>(freeze(stack[0], values, priorities, left, right));
+    }
+
+    private static <T> Node<T> freeze(int index, T[] values, int[] priorities, int[] left, int[] right) {
+        if (index < 0) {
+            return null;
+        }
+        Node<T> leftNode = freeze(left[index], values, priorities, left, right);
+        Node<T> rightNode = freeze(right[index], values, priorities, left, right);
+        return new Node<>(values[index], priorities[index], leftNode, rightNode);
+    }
+
+    /**
+     * 樹節點，建立後不再修改
+     */
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        final int size;
+        final Node<T> left;
+        final Node<T> right;
+
+        Node(T value, int priority, Node<T> left, Node<T> right) {
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + PersistentIndexedList.size(left) + PersistentIndexedList.size(right);
+        }
+
+        Node<T> with(Node<T> newLeft, Node<T> newRight) {
+            if (newLeft == left && newRight == right) {
+                return this;
+            }
+            return new Node<>(value, priority, newLeft, newRight);
+        }
+    }
+
+    private record Split<T>(Node<T> left, Node<T> right) {
+    }
+
+    /**
+     * 中序走訪的迭代器，以堆疊記錄尚未走訪的祖先節點
+     */
+    private static final class InOrderIterator<T> implements Iterator<T> {
+        private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+        InOrderIterator(Node<T> root, int fromIndex) {
+            Node<T> node = root;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (fromIndex < leftSize) {
+                    stack.push(node);
+                    node = node.left;
+                } else if (fromIndex == leftSize) {
+                    stack.push(node);
+                    break;
+                } else {
+                    fromIndex -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack.pop();
+            Node<T> next = node.right;
+            while (next != null) {
+                stack.push(next);
+                next = next.left;
+            }
+            return node.value;
+        }
+    }
+}
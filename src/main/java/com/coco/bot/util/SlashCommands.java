@@ -0,0 +1,153 @@
+package com.coco.bot.util;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 斜線指令定義
+ *
+ * 每個前綴指令都有對應的斜線指令（!play 對應 /play），選項依照前綴指令的參數順序宣告，
+ * 轉換成與 {@link CommandParser} 相同的指令名稱與參數列表後交給同一套處理器處理。
+ * 斜線指令不需要讀取訊息內容，關閉前綴指令後機器人可以不訂閱 MESSAGE_CONTENT。
+ */
+public class SlashCommands {
+
+    // 斜線指令名稱 -> 指令定義
+    private static final Map<String, SlashCommandData> DEFINITIONS = buildDefinitions();
+
+    private SlashCommands() {
+    }
+
+    private static Map<String, SlashCommandData> buildDefinitions() {
+        Map<String, SlashCommandData> definitions = new LinkedHashMap<>();
+        register(definitions, Commands.slash("play", "播放音樂（支援 YouTube、SoundCloud 等）")
+                .addOption(OptionType.STRING, "url", "音樂網址", true));
+        register(definitions, Commands.slash("stop", "停止播放並清空佇列"));
+        register(definitions, Commands.slash("pause", "暫停播放"));
+        register(definitions, Commands.slash("resume", "恢復播放"));
+        register(definitions, Commands.slash("skip", "跳過目前音樂"));
+        register(definitions, Commands.slash("queue", "查看播放佇列")
+                .addOptions(position("page", "頁碼", false)));
+        register(definitions, Commands.slash("move", "移動佇列中的音樂")
+                .addOptions(position("from", "原位置", true), position("to", "新位置", true)));
+        register(definitions, Commands.slash("remove", "從佇列移除音樂")
+                .addOptions(position("position", "位置", true)));
+        register(definitions, Commands.slash("shuffle", "隨機排序佇列"));
+        register(definitions, Commands.slash("help", "顯示幫助訊息"));
+        register(definitions, Commands.slash("playlist", "播放清單管理")
+                .addSubcommands(
+                        new SubcommandData("create", "創建新的播放清單")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true)
+                                .addOption(OptionType.STRING, "url", "第一首歌的網址", false),
+                        new SubcommandData("add", "添加歌曲到播放清單")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true)
+                                .addOption(OptionType.STRING, "url", "歌曲網址", true),
+                        new SubcommandData("import", "一次匯入多首歌曲或 YouTube 播放清單")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true)
+                                .addOption(OptionType.STRING, "urls", "以空白分隔的歌曲或播放清單網址", true),
+                        new SubcommandData("list", "列出你的所有播放清單"),
+                        new SubcommandData("show", "查看播放清單內容")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true),
+                        new SubcommandData("play", "播放整個播放清單")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true),
+                        new SubcommandData("remove", "移除播放清單中的歌曲")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true)
+                                .addOptions(position("position", "歌曲序號", true)),
+                        new SubcommandData("move", "移動播放清單中的歌曲")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true)
+                                .addOptions(position("from", "原序號", true), position("to", "新序號", true)),
+                        new SubcommandData("delete", "刪除播放清單")
+                                .addOption(OptionType.STRING, "name", "播放清單名稱", true)));
+        return Collections.unmodifiableMap(definitions);
+    }
+
+    private static void register(Map<String, SlashCommandData> definitions, SlashCommandData command) {
+        definitions.put(command.getName(), command);
+    }
+
+    /**
+     * 從 1 開始的位置或頁碼選項，由 Discord 在客戶端檢查範圍
+     */
+    private static OptionData position(String name, String description, boolean required) {
+        return new OptionData(OptionType.INTEGER, name, description, required).setMinValue(1);
+    }
+
+    /**
+     * 獲取所有斜線指令定義，用於向 Discord 註冊
+     */
+    public static List<SlashCommandData> definitions() {
+        return new ArrayList<>(DEFINITIONS.values());
+    }
+
+    /**
+     * 將斜線指令名稱轉換為前綴指令名稱
+     *
+     * @param name 斜線指令名稱（例如 "play"）
+     * @return 前綴指令名稱（例如 "!play"），不是本機器人的指令時返回 null
+     */
+    public static String toPrefixCommand(String name) {
+        return DEFINITIONS.containsKey(name) ? "!" + name : null;
+    }
+
+    /**
+     * 將斜線指令的選項轉換為前綴指令的參數列表
+     *
+     * @param event 斜線指令事件
+     * @return 參數列表，與 {@link CommandParser#parseCommand(String)} 解析出的參數順序相同
+     */
+    public static List<String> toArguments(SlashCommandInteractionEvent event) {
+        return toArguments(event.getName(), event.getSubcommandName(), optionName -> {
+            OptionMapping option = event.getOption(optionName);
+            return option != null ? option.getAsString() : null;
+        });
+    }
+
+    /**
+     * 將斜線指令的選項轉換為前綴指令的參數列表
+     *
+     * 選項依照定義的順序排列（Discord 送來的選項順序是使用者填寫的順序），
+     * 有子指令時子指令名稱是第一個參數，未填寫的選用選項會略過。
+     *
+     * @param name 斜線指令名稱
+     * @param subcommandName 子指令名稱，沒有子指令時為 null
+     * @param optionValues 依選項名稱取得選項值，未填寫時返回 null
+     * @return 參數列表，未知的指令返回空列表
+     */
+    public static List<String> toArguments(String name, String subcommandName, Function<String, String> optionValues) {
+        SlashCommandData command = DEFINITIONS.get(name);
+        List<String> args = new ArrayList<>();
+        if (command == null) {
+            return args;
+        }
+
+        List<OptionData> options = command.getOptions();
+        if (subcommandName != null) {
+            args.add(subcommandName);
+            options = command.getSubcommands().stream()
+                    .filter(subcommand -> subcommand.getName().equals(subcommandName))
+                    .findFirst()
+                    .map(SubcommandData::getOptions)
+                    .orElse(Collections.emptyList());
+        }
+
+        for (OptionData option : options) {
+            String value = optionValues.apply(option.getName());
+            if (value != null) {
+                args.add(value);
+            }
+        }
+        return args;
+    }
+}
@@ -0,0 +1,14 @@
+-- Discord Music Bot - 播放清單項目表（基準版本）
+-- 既有資料庫會以此版本作為基準（baseline），不會重新執行；新資料庫則由此建立。
+
+CREATE TABLE IF NOT EXISTS playlist_items (
+    id BIGINT NOT NULL PRIMARY KEY,
+    user_id VARCHAR(20) NOT NULL COMMENT 'Discord 用戶 ID',
+    playlist_name VARCHAR(100) NOT NULL COMMENT '播放清單名稱',
+    song_title VARCHAR(500) NOT NULL COMMENT '歌曲標題',
+    song_url VARCHAR(2000) NOT NULL COMMENT '歌曲 URL',
+    duration BIGINT DEFAULT 0 COMMENT '歌曲時長（毫秒）',
+    song_order INT DEFAULT 1 COMMENT '歌曲在播放清單中的順序',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '創建時間',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='播放清單項目表';
@@ -0,0 +1,13 @@
+-- Discord Music Bot - PlaylistItem ID 產生器
+-- PlaylistItem 改用 TABLE 產生器（pooled，每次保留 50 個 ID）以支援批次 INSERT。
+-- 可重複執行：表已存在時只會把產生器推進到既有資料的最大 ID 之後。
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY COMMENT '產生器名稱',
+    gen_value BIGINT NOT NULL COMMENT '目前已分配到的最大值'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='ID 產生器表';
+
+-- 從既有資料的最大 ID 之後開始分配（多加一個區塊避免與既有 ID 重疊）
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'playlist_items', COALESCE(MAX(id), 0) + 51 FROM playlist_items
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
@@ -0,0 +1,49 @@
+-- Discord Music Bot - 播放清單查詢索引與播放清單表頭
+-- 所有播放清單查詢都以 (user_id, playlist_name) 篩選並依 song_order 排序。
+-- InnoDB 的次要索引會附帶主鍵，因此 (user_id, playlist_name, song_order) 同時涵蓋 ORDER BY song_order, id，
+-- 查詢會變成索引範圍掃描，MAX(song_order) 也只需要讀取索引的最後一筆。
+-- MySQL 不支援 CREATE INDEX IF NOT EXISTS，以 information_schema 判斷後再執行。
+
+SET @ddl := IF(
+    (SELECT COUNT(*) FROM information_schema.statistics
+     WHERE table_schema = DATABASE() AND table_name = 'playlist_items' AND index_name = 'idx_song_order') = 0,
+    'CREATE INDEX idx_song_order ON playlist_items (user_id, playlist_name, song_order)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 舊的設定腳本建立的 (user_id) 與 (user_id, playlist_name) 索引是上面索引的前綴，只會增加寫入成本
+SET @ddl := IF(
+    (SELECT COUNT(*) FROM information_schema.statistics
+     WHERE table_schema = DATABASE() AND table_name = 'playlist_items' AND index_name = 'idx_user_playlist') > 0,
+    'DROP INDEX idx_user_playlist ON playlist_items',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF(
+    (SELECT COUNT(*) FROM information_schema.statistics
+     WHERE table_schema = DATABASE() AND table_name = 'playlist_items' AND index_name = 'idx_user_id') > 0,
+    'DROP INDEX idx_user_id ON playlist_items',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 播放清單表頭：每個用戶的每個播放清單一筆，檢查存在與列出名稱時不必掃描歌曲項目
+CREATE TABLE IF NOT EXISTS playlist_headers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id VARCHAR(20) NOT NULL COMMENT 'Discord 用戶 ID',
+    playlist_name VARCHAR(100) NOT NULL COMMENT '播放清單名稱',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '創建時間',
+
+    UNIQUE KEY uk_playlist_headers_user_name (user_id, playlist_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='播放清單表頭';
+
+-- 從既有的播放清單項目建立表頭
+INSERT IGNORE INTO playlist_headers (user_id, playlist_name, created_at)
+SELECT user_id, playlist_name, COALESCE(MIN(created_at), CURRENT_TIMESTAMP)
+FROM playlist_items
+GROUP BY user_id, playlist_name;
@@ -0,0 +1,99 @@
+#!/usr/bin/env python3
+# -*- coding: utf-8 -*-
+"""
+yt-dlp 常駐解析工作程序
+
+由 YtDlpWorkerPool 啟動，透過 stdin/stdout 以「一行一個 JSON」的協定溝通，
+避免每次解析都重新啟動 Python 直譯器與載入 yt_dlp 模組。
+
+協定：
+- 啟動完成：{"id": 0, "ok": true, "ready": true}
+- 解析請求：{"id": 1, "op": "resolve", "url": "..."}
+  回應：    {"id": 1, "ok": true, "title": "...", "url": "...", "duration": 212,
+             "thumbnail": "...", "uploader": "...", "is_live": false}
+  失敗：    {"id": 1, "ok": false, "error": "..."}
+- 健康檢查：{"id": 2, "op": "ping"} -> {"id": 2, "ok": true, "pong": true}
+"""
+import json
+import sys
+
+# 協定只使用原本的 stdout，yt-dlp 的任何輸出都導向 stderr
+protocol_out = sys.stdout
+sys.stdout = sys.stderr
+
+
+def write(message):
+    protocol_out.write(json.dumps(message, ensure_ascii=False) + "\n")
+    protocol_out.flush()
+
+
+def stream_url(info):
+    if info.get("url"):
+        return info["url"]
+    for fmt in info.get("requested_formats") or []:
+        if fmt.get("url"):
+            return fmt["url"]
+    return None
+
+
+def resolve(ydl, request_id, url):
+    try:
+        info = ydl.extract_info(url, download=False)
+    except Exception as e:  # yt_dlp.utils.DownloadError 以及其他錯誤
+        return {"id": request_id, "ok": False, "error": str(e)}
+
+    direct_url = stream_url(info)
+    if not direct_url:
+        return {"id": request_id, "ok": False, "error": "no stream url"}
+
+    return {
+        "id": request_id,
+        "ok": True,
+        "title": info.get("title"),
+        "url": direct_url,
+        "duration": info.get("duration") or 0,
+        "thumbnail": info.get("thumbnail"),
+        "uploader": info.get("uploader"),
+        "is_live": bool(info.get("is_live")),
+    }
+
+
+def main():
+    try:
+        import yt_dlp
+    except ImportError as e:
+        write({"id": 0, "ok": False, "error": "yt_dlp not available: %s" % e})
+        return 1
+
+    ydl = yt_dlp.YoutubeDL({
+        "format": "bestaudio/best",
+        "noplaylist": True,
+        "quiet": True,
+        "no_warnings": True,
+        "skip_download": True,
+    })
+    write({"id": 0, "ok": True, "ready": True})
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            request = json.loads(line)
+        except ValueError:
+            write({"id": None, "ok": False, "error": "invalid request"})
+            continue
+
+        request_id = request.get("id")
+        op = request.get("op")
+        if op == "ping":
+            write({"id": request_id, "ok": True, "pong": True})
+        elif op == "resolve":
+            write(resolve(ydl, request_id, request.get("url")))
+        else:
+            write({"id": request_id, "ok": False, "error": "unknown op: %s" % op})
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -11,8 +11,19 @@ import org.junit.platform.suite.api.Suite;
 @SelectClasses({
     BotConfigTest.class,
     MusicQueueTest.class,
+    GuildMusicManagerTest.class,
     AudioPlayerSendHandlerTest.class,
-    YouTubeResolverTest.class
+    YouTubeResolverTest.class,
+    YtDlpWorkerPoolTest.class,
+    TrackInfoCacheTest.class,
+    OrderedTrackLoaderTest.class,
+    CommandDispatcherTest.class,
+    ResolutionExecutorTest.class,
+    PlaylistSchemaVerifierTest.class,
+    OpusFrameRingTest.class,
+    StartupTimingReportTest.class,
+    NativeRuntimeHintsTest.class,
+    PrometheusScrapeServerTest.class
 })
 @DisplayName("Discord 音樂機器人測試套件")
 public class AllTests {
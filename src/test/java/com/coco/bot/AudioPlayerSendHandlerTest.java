@@ -1,7 +1,13 @@
 package com.coco.bot;
 
 import com.coco.bot.handler.AudioPlayerSendHandler;
+import com.coco.bot.handler.OpusFrameRing;
+import com.sedmelluq.discord.lavaplayer.filter.PcmFilterFactory;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
 import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,10 +15,16 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -93,4 +105,345 @@ class AudioPlayerSendHandlerTest {
         
         verify(mockAudioPlayer, times(3)).provide(any(MutableAudioFrame.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("幀計數應該只把播放中沒有幀可送出的情況算作漏送")
+    void frameCountersShouldOnlyCountMissesWhilePlaying() {
+        AudioTrack track = mock(AudioTrack.class);
+        when(mockAudioPlayer.provide(any(MutableAudioFrame.class))).thenReturn(true, false, false, false);
+        when(mockAudioPlayer.getPlayingTrack()).thenReturn(track, track, null);
+        when(mockAudioPlayer.isPaused()).thenReturn(false, true);
+
+        sendHandler.canProvide(); // 送出
+        sendHandler.canProvide(); // 播放中漏送
+        sendHandler.canProvide(); // 暫停中
+        sendHandler.canProvide(); // 閒置
+
+        assertEquals(1, sendHandler.getProvidedFrames(), "應該記錄 1 個已送出的幀");
+        assertEquals(1, sendHandler.getMissedFrames(), "暫停與閒置時沒有幀不應該算作漏送");
+    }
+
+    @Test
+    @DisplayName("provide20MsAudio 應該每次返回同一個直接緩衝區")
+    void provide20MsAudioShouldReuseDirectBuffer() {
+        when(mockAudioPlayer.provide(any(MutableAudioFrame.class))).thenReturn(true);
+
+        sendHandler.canProvide();
+        ByteBuffer first = sendHandler.provide20MsAudio();
+        sendHandler.canProvide();
+        ByteBuffer second = sendHandler.provide20MsAudio();
+
+        assertTrue(first.isDirect(), "緩衝區應該是直接內存，JDA 不需要再複製到原生內存");
+        assertSame(first, second, "每一幀都應該重複使用同一個緩衝區");
+        assertEquals(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize(), first.capacity(),
+                "緩衝區大小應該等於 Opus 幀的最大長度");
+    }
+
+    @Test
+    @DisplayName("設定等待時間時應該使用帶逾時的 provide")
+    void canProvideShouldUseTimeoutWhenConfigured() throws Exception {
+        AudioPlayerSendHandler timedHandler = new AudioPlayerSendHandler(mockAudioPlayer, 5, 0);
+        when(mockAudioPlayer.provide(any(MutableAudioFrame.class), eq(5L), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(true)
+                .thenThrow(new TimeoutException());
+
+        assertTrue(timedHandler.canProvide(), "等待時間內取得幀應該返回 true");
+        assertFalse(timedHandler.canProvide(), "逾時應該返回 false");
+        verify(mockAudioPlayer, never()).provide(any(MutableAudioFrame.class));
+    }
+
+    @Test
+    @DisplayName("等待取幀時被中斷應該返回 false 並保留中斷狀態")
+    void canProvideShouldRestoreInterruptFlag() throws Exception {
+        AudioPlayerSendHandler timedHandler = new AudioPlayerSendHandler(mockAudioPlayer, 5, 0);
+        when(mockAudioPlayer.provide(any(MutableAudioFrame.class), anyLong(), any(TimeUnit.class)))
+                .thenThrow(new InterruptedException());
+
+        try {
+            assertFalse(timedHandler.canProvide(), "被中斷時應該返回 false");
+            assertTrue(Thread.currentThread().isInterrupted(), "中斷狀態應該被保留");
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    @DisplayName("連續發送音頻幀不應該產生每幀的垃圾物件")
+    void sendingFramesShouldNotAllocatePerFrame() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(new FixedFramePlayer(new byte[160]));
+        int checksum = sendFrames(handler, 20_000); // 預熱，讓 JIT 完成編譯
+
+        int frames = 200_000;
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        checksum += sendFrames(handler, frames);
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(220_000 * 160, checksum, "每一幀都應該完整提供");
+        assertTrue(allocated < frames, "平均每幀配置的記憶體應該少於 1 位元組，實際共配置 " + allocated + " 位元組");
+    }
+
+    @Test
+    @DisplayName("啟用預先緩衝時應該提前填滿環形緩衝並從中取幀")
+    void prebufferShouldFillRingAhead() throws Exception {
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(new FixedFramePlayer(new byte[160]), 0, 100);
+        try {
+            assertFalse(handler.isPrebuffering(), "語音連線建立前不應該啟動預先緩衝執行緒");
+            handler.start();
+            assertNotNull(handler.getFrameRing(), "啟用預先緩衝時應該建立環形緩衝");
+            assertEquals(5, handler.getFrameRing().capacity(), "100ms 應該緩衝 5 個 20ms 的幀");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (handler.getFrameRing().size() < 5 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(5, handler.getFrameRing().size(), "預先緩衝執行緒應該填滿環形緩衝");
+
+            assertTrue(handler.canProvide(), "應該取得已緩衝的幀");
+            assertEquals(160, handler.provide20MsAudio().remaining(), "應該提供完整的幀");
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("暫停時應該保留已緩衝的幀，恢復後接著送出")
+    void pauseShouldKeepPrebufferedFrames() throws Exception {
+        FixedFramePlayer player = new FixedFramePlayer(new byte[160]);
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(player, 0, 100);
+        try {
+            handler.start();
+            awaitFull(handler);
+
+            player.paused = true;
+            assertFalse(handler.canProvide(), "暫停時不應該送出幀");
+            assertEquals(5, handler.getFrameRing().size(), "暫停時不應該丟棄已緩衝的幀");
+            assertEquals(0, handler.getFrameRing().getDiscardedFrames(), "暫停不應該丟棄任何幀");
+
+            player.paused = false;
+            assertTrue(handler.canProvide(), "恢復後應該送出暫停前緩衝的幀");
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("停止預先緩衝後執行緒應該結束，並可以再次啟動")
+    void stopShouldEndPrebufferThread() throws Exception {
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(new FixedFramePlayer(new byte[160]), 0, 100);
+        try {
+            handler.start();
+            awaitFull(handler);
+
+            handler.stop();
+            assertFalse(handler.isPrebuffering(), "斷線後不應該有預先緩衝執行緒");
+            assertFalse(handler.canProvide(), "斷線時應該丟棄已緩衝的幀");
+
+            handler.start();
+            awaitFull(handler);
+            assertTrue(handler.isPrebuffering(), "重新連線後應該再次預先緩衝");
+        } finally {
+            handler.close();
+        }
+        assertFalse(handler.isPrebuffering(), "關閉後不應該有預先緩衝執行緒");
+        handler.start();
+        assertFalse(handler.isPrebuffering(), "關閉後不應該再次啟動");
+    }
+
+    @Test
+    @DisplayName("停止時不應該等待卡在取幀的執行緒，新的生產者要等它結束才寫入")
+    void stopShouldNotWaitForBlockedProducer() throws Exception {
+        FixedFramePlayer player = new FixedFramePlayer(new byte[160]);
+        player.gate = new CountDownLatch(1);
+        player.blocked = new CountDownLatch(1);
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(player, 0, 100);
+        try {
+            handler.start();
+            assertTrue(player.blocked.await(5, TimeUnit.SECONDS), "預先緩衝執行緒應該卡在取幀");
+
+            long begin = System.nanoTime();
+            handler.stop();
+            handler.start();
+            assertTrue(System.nanoTime() - begin < TimeUnit.MILLISECONDS.toNanos(200),
+                    "停止與重新啟動不應該阻塞呼叫者");
+            assertTrue(handler.isPrebuffering(), "重新連線後應該有新的預先緩衝執行緒");
+
+            Thread.sleep(100);
+            assertEquals(0, handler.getFrameRing().size(), "舊的執行緒結束前新的生產者不應該寫入");
+
+            player.gate.countDown();
+            awaitFull(handler);
+        } finally {
+            player.gate.countDown();
+            handler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("發送迴圈停止取幀超過一整個緩衝的時間應該計為一次 overrun")
+    void stalledConsumerShouldCountOverrun() throws Exception {
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(new FixedFramePlayer(new byte[160]), 0, 40);
+        try {
+            handler.start();
+            awaitFull(handler);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (handler.getFrameRing().getOverruns() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            assertEquals(1, handler.getFrameRing().getOverruns(), "同一次停滯只應計為一次");
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("未啟用預先緩衝時不應該建立環形緩衝")
+    void prebufferShouldBeDisabledByDefault() {
+        assertNull(sendHandler.getFrameRing(), "預設不應該預先緩衝");
+        assertDoesNotThrow(() -> {
+            sendHandler.flush();
+            sendHandler.close();
+        });
+    }
+
+    private static void awaitFull(AudioPlayerSendHandler handler) throws InterruptedException {
+        OpusFrameRing ring = handler.getFrameRing();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ring.size() < ring.capacity() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(ring.capacity(), ring.size(), "預先緩衝執行緒應該填滿環形緩衝");
+    }
+
+    private static int sendFrames(AudioPlayerSendHandler handler, int frames) {
+        int total = 0;
+        for (int i = 0; i < frames; i++) {
+            if (handler.canProvide()) {
+                total += handler.provide20MsAudio().remaining();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 每次都提供同一段 Opus 數據的播放器，只用於量測發送處理器本身的記憶體配置
+     */
+    private static class FixedFramePlayer implements AudioPlayer {
+        private final byte[] opusFrame;
+
+        /** 暫停時與 LavaPlayer 相同，不提供任何幀 */
+        volatile boolean paused;
+
+        /** 設定時 provide 會一直阻塞到放行，模擬卡住的解碼 */
+        volatile CountDownLatch gate;
+
+        /** 第一次在 gate 上阻塞時放行 */
+        volatile CountDownLatch blocked;
+
+        FixedFramePlayer(byte[] opusFrame) {
+            this.opusFrame = opusFrame;
+        }
+
+        @Override
+        public boolean provide(MutableAudioFrame targetFrame) {
+            if (paused) {
+                return false;
+            }
+            CountDownLatch latch = gate;
+            if (latch != null && blocked != null) {
+                blocked.countDown();
+            }
+            while (latch != null && latch.getCount() > 0) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    // 與卡住的解碼相同，不理會中斷
+                }
+            }
+            targetFrame.store(opusFrame, 0, opusFrame.length);
+            return true;
+        }
+
+        @Override
+        public boolean provide(MutableAudioFrame targetFrame, long timeout, TimeUnit unit) {
+            return provide(targetFrame);
+        }
+
+        @Override
+        public AudioFrame provide() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AudioFrame provide(long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AudioTrack getPlayingTrack() {
+            return null;
+        }
+
+        @Override
+        public void playTrack(AudioTrack track) {
+        }
+
+        @Override
+        public boolean startTrack(AudioTrack track, boolean noInterrupt) {
+            return false;
+        }
+
+        @Override
+        public void stopTrack() {
+        }
+
+        @Override
+        public int getVolume() {
+            return 100;
+        }
+
+        @Override
+        public void setVolume(int volume) {
+        }
+
+        @Override
+        public void setFilterFactory(PcmFilterFactory factory) {
+        }
+
+        @Override
+        public void setFrameBufferDuration(Integer duration) {
+        }
+
+        @Override
+        public boolean isPaused() {
+            return paused;
+        }
+
+        @Override
+        public void setPaused(boolean value) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void addListener(AudioEventListener listener) {
+        }
+
+        @Override
+        public void removeListener(AudioEventListener listener) {
+        }
+
+        @Override
+        public void checkCleanup(long threshold) {
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.coco.bot;
+
+import com.coco.bot.controller.CommandDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CommandDispatcher 類別的單元測試
+ */
+class CommandDispatcherTest {
+
+    private static final long GUILD_A = 1L;
+    private static final long GUILD_B = 2L;
+
+    private CommandDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new CommandDispatcher(2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("指令應該在虛擬執行緒上執行")
+    void shouldRunOnVirtualThreads() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+
+        dispatcher.dispatch(GUILD_A, "!test", () -> virtual.set(Thread.currentThread().isVirtual()))
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(virtual.get(), "指令應該在虛擬執行緒上執行");
+    }
+
+    @Test
+    @DisplayName("同一個伺服器的指令應該依照收到的順序執行")
+    void shouldPreserveOrderWithinGuild() throws Exception {
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> expected = new ArrayList<>();
+        CompletableFuture<Void> last = null;
+
+        for (int i = 0; i < 200; i++) {
+            int index = i;
+            expected.add(i);
+            last = dispatcher.dispatch(GUILD_A, "!test", () -> {
+                if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                    sleep(1);
+                }
+                executed.add(index);
+            });
+        }
+        last.get(10, TimeUnit.SECONDS);
+
+        assertEquals(expected, executed, "指令應該依照順序執行");
+    }
+
+    @Test
+    @DisplayName("一個伺服器的慢指令不應該阻塞其他伺服器")
+    void slowGuildShouldNotBlockOtherGuilds() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = dispatcher.dispatch(GUILD_A, "!slow", () -> await(release));
+
+        dispatcher.dispatch(GUILD_B, "!fast", () -> { }).get(5, TimeUnit.SECONDS);
+
+        assertFalse(slow.isDone(), "慢指令應該仍在執行中");
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("指令拋出例外後同一個伺服器的後續指令仍應該執行")
+    void failureShouldNotBreakGuildChain() throws Exception {
+        dispatcher.dispatch(GUILD_A, "!fail", () -> {
+            throw new IllegalStateException("boom");
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+
+        dispatcher.dispatch(GUILD_A, "!next", () -> ran.set(true)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(ran.get(), "後續指令應該執行");
+        assertEquals(1, dispatcher.getFailedCount());
+        assertEquals(1, dispatcher.getCompletedCount());
+    }
+
+    @Test
+    @DisplayName("指令拋出 Error 後同一個伺服器的後續指令仍應該執行且排隊深度歸零")
+    void errorShouldNotBreakGuildChain() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(GUILD_A, "!block", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch(GUILD_A, "!fail", () -> {
+            throw new NoClassDefFoundError("com/example/Missing");
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Void> next = dispatcher.dispatch(GUILD_A, "!next", () -> ran.set(true));
+
+        release.countDown();
+        next.get(5, TimeUnit.SECONDS);
+
+        assertTrue(ran.get(), "Error 之後排隊的指令應該執行");
+        assertEquals(1, dispatcher.getFailedCount());
+        assertEquals(0, dispatcher.getQueueDepth(), "所有指令結束後排隊深度應該歸零");
+    }
+
+    @Test
+    @DisplayName("應該記錄排隊深度與處理時間")
+    void shouldRecordQueueDepthAndLatency() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(GUILD_A, "!slow", () -> {
+            await(release);
+            sleep(20);
+        });
+        dispatcher.dispatch(GUILD_A, "!queued", () -> { });
+        CompletableFuture<Void> last = dispatcher.dispatch(GUILD_A, "!queued", () -> { });
+
+        assertEquals(3, dispatcher.getQueueDepth(), "三個指令都應該在排隊中");
+        assertEquals(1, dispatcher.getActiveKeyCount());
+
+        release.countDown();
+        last.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, dispatcher.getQueueDepth(), "完成後排隊深度應該歸零");
+        assertEquals(3, dispatcher.getMaxQueueDepth());
+        assertEquals(3, dispatcher.getDispatchedCount());
+        assertEquals(3, dispatcher.getCompletedCount());
+        assertTrue(dispatcher.getMaxLatencyMillis() >= 20, "最長處理時間應該包含慢指令");
+        assertTrue(dispatcher.getAverageWaitMillis() > 0, "排隊中的指令應該有等待時間");
+    }
+
+    @Test
+    @DisplayName("關閉後分派的指令不應該執行")
+    void shouldRejectAfterShutdown() {
+        dispatcher.shutdown();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CompletableFuture<Void> future = dispatcher.dispatch(GUILD_A, "!late", () -> ran.set(true));
+
+        assertTrue(future.isCompletedExceptionally(), "關閉後的指令應該失敗");
+        assertFalse(ran.get());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.coco.bot;
+
+import com.coco.bot.handler.GuildMusicManager;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * GuildMusicManager 類別的單元測試
+ */
+class GuildMusicManagerTest {
+
+    private GuildMusicManager manager;
+
+    @Mock
+    private AudioPlayerManager mockPlayerManager;
+
+    @Mock
+    private AudioPlayer mockAudioPlayer;
+
+    @Mock
+    private AudioTrack mockTrack;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockPlayerManager.createPlayer()).thenReturn(mockAudioPlayer);
+        when(mockTrack.getInfo()).thenReturn(
+                new AudioTrackInfo("Test Song", "Test Artist", 180000, "test-id", false, "test-uri"));
+
+        manager = new GuildMusicManager(42L, mockPlayerManager);
+    }
+
+    @Test
+    @DisplayName("建構子應該為伺服器建立獨立的播放器與佇列")
+    void constructorShouldCreatePerGuildComponents() {
+        assertEquals(42L, manager.getGuildId());
+        assertSame(mockAudioPlayer, manager.getAudioPlayer());
+        assertNotNull(manager.getSendHandler(), "發送處理器不應為 null");
+        assertTrue(manager.getMusicQueue().isEmpty(), "新的佇列應該是空的");
+        verify(mockAudioPlayer).addListener(any());
+    }
+
+    @Test
+    @DisplayName("連線中的管理器不應該被移除")
+    void connectedManagerShouldNotBeEvictable() {
+        manager.markConnected();
+
+        assertFalse(manager.isEvictable(System.currentTimeMillis(), 0), "連線中的管理器不應該被移除");
+    }
+
+    @Test
+    @DisplayName("從未連線的管理器在閒置逾時後應該可以被移除")
+    void neverConnectedManagerShouldBeEvictableAfterTimeout() {
+        long now = System.currentTimeMillis();
+
+        assertFalse(manager.isEvictable(now, 60_000L), "剛建立的管理器未超過閒置時間不應該被移除");
+        assertTrue(manager.isEvictable(now + 60_000L, 60_000L), "建立後一直沒有連線，超過閒置時間應該可以被移除");
+    }
+
+    @Test
+    @DisplayName("斷線超過閒置時間後才可以被移除")
+    void disconnectedManagerShouldBeEvictableAfterTimeout() {
+        manager.markDisconnected(1_000L);
+
+        assertFalse(manager.isEvictable(1_500L, 1_000L), "未超過閒置時間不應該被移除");
+        assertTrue(manager.isEvictable(2_000L, 1_000L), "超過閒置時間應該可以被移除");
+    }
+
+    @Test
+    @DisplayName("重新連線後應該取消閒置計時")
+    void reconnectShouldCancelIdleTimer() {
+        manager.markDisconnected(1_000L);
+        manager.markConnected();
+
+        assertFalse(manager.isEvictable(10_000L, 1_000L), "重新連線後不應該被移除");
+    }
+
+    @Test
+    @DisplayName("斷線時應該釋放佇列並停止播放")
+    void disconnectShouldReleaseQueue() {
+        manager.getMusicQueue().addTrack(mockTrack);
+        manager.getMusicQueue().setCurrentTrack(mockTrack);
+
+        manager.markDisconnected(1_000L);
+
+        assertTrue(manager.getMusicQueue().isEmpty(), "斷線後佇列應該是空的");
+        assertFalse(manager.getMusicQueue().hasCurrentTrack(), "斷線後不應該有目前音軌");
+        verify(mockAudioPlayer).stopTrack();
+    }
+
+    @Test
+    @DisplayName("銷毀時應該銷毀播放器")
+    void destroyShouldDestroyPlayer() {
+        manager.destroy();
+
+        verify(mockAudioPlayer).destroy();
+    }
+}
@@ -8,6 +8,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -146,4 +157,244 @@ class MusicQueueTest {
         musicQueue.getNextTrack();
         assertEquals(0, musicQueue.getQueueSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("目前音軌已被更換時，advanceFrom 不應該前進也不應該遺失音軌")
+    void advanceFromShouldNotAdvanceWhenTrackAlreadyChanged() {
+        musicQueue.setCurrentTrack(mockTrack2);
+        musicQueue.addTrack(mockTrack3);
+
+        AudioTrack result = musicQueue.advanceFrom(mockTrack1);
+
+        assertNull(result, "過時的音軌不應該讓佇列前進");
+        assertEquals(mockTrack2, musicQueue.getCurrentTrack(), "目前音軌不應該改變");
+        assertEquals(1, musicQueue.getQueueSize(), "佇列不應該改變");
+        assertEquals(mockTrack3, musicQueue.getNextTrack(), "下一首應該仍在最前面");
+    }
+
+    @Test
+    @DisplayName("沒有音軌在播放時才應該設定目前音軌")
+    void setCurrentTrackIfIdleShouldOnlySucceedWhenIdle() {
+        assertTrue(musicQueue.setCurrentTrackIfIdle(mockTrack1), "閒置時應該設定成功");
+        assertFalse(musicQueue.setCurrentTrackIfIdle(mockTrack2), "已有音軌時應該設定失敗");
+        assertEquals(mockTrack1, musicQueue.getCurrentTrack());
+    }
+
+    @Test
+    @DisplayName("跳過與自然結束同時發生時只應該前進一首")
+    void concurrentAdvanceShouldOnlyAdvanceOnce() throws Exception {
+        int rounds = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                MusicQueue queue = new MusicQueue();
+                queue.setCurrentTrack(mockTrack1);
+                queue.addTrack(mockTrack2);
+                queue.addTrack(mockTrack3);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<AudioTrack>> results = new ArrayList<>();
+                for (int t = 0; t < 2; t++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return queue.advanceFrom(mockTrack1);
+                    }));
+                }
+                start.countDown();
+
+                int advanced = 0;
+                for (Future<AudioTrack> future : results) {
+                    AudioTrack next = future.get(5, TimeUnit.SECONDS);
+                    if (next != null) {
+                        advanced++;
+                        assertEquals(mockTrack2, next, "勝出的一方應該拿到下一首");
+                    }
+                }
+
+                assertEquals(1, advanced, "只應該有一方成功前進");
+                assertEquals(mockTrack2, queue.getCurrentTrack(), "目前音軌應該是下一首");
+                assertEquals(1, queue.getQueueSize(), "第三首應該仍在佇列中");
+                assertEquals(mockTrack3, queue.getNextTrack(), "第三首不應該被跳過");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("並行前進時讀取端不應該看到少一首的佇列")
+    void concurrentAdvanceShouldNeverExposeShortQueue() throws Exception {
+        int rounds = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                MusicQueue queue = new MusicQueue();
+                queue.setCurrentTrack(mockTrack1);
+                queue.addTrack(mockTrack2);
+                queue.addTrack(mockTrack3);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> advancers = new ArrayList<>();
+                for (int t = 0; t < 2; t++) {
+                    advancers.add(executor.submit(() -> {
+                        start.await();
+                        return queue.advanceFrom(mockTrack1);
+                    }));
+                }
+                AtomicBoolean done = new AtomicBoolean();
+                Future<Integer> reader = executor.submit(() -> {
+                    start.await();
+                    int smallest = Integer.MAX_VALUE;
+                    while (!done.get()) {
+                        smallest = Math.min(smallest, queue.getQueueSize());
+                    }
+                    return smallest;
+                });
+                start.countDown();
+                for (Future<?> future : advancers) {
+                    future.get(5, TimeUnit.SECONDS);
+                }
+                done.set(true);
+
+                // 取出下一首再放回的做法會讓輸掉的一方暫時少掉第三首
+                assertTrue(reader.get(5, TimeUnit.SECONDS) >= 1, "前進期間第三首應該一直在佇列中");
+                assertEquals(List.of(mockTrack3), queue.getPage(0, 10), "第三首應該是唯一等待中的音軌");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("清空佇列與前進同時發生時不應該留下舊的音軌")
+    void clearRacingAdvanceShouldLeaveQueueEmpty() throws Exception {
+        int rounds = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                MusicQueue queue = new MusicQueue();
+                queue.setCurrentTrack(mockTrack1);
+                queue.addTrack(mockTrack2);
+                queue.addTrack(mockTrack3);
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<AudioTrack> advance = executor.submit(() -> {
+                    start.await();
+                    return queue.advanceFrom(mockTrack1);
+                });
+                Future<?> clear = executor.submit(() -> {
+                    start.await();
+                    queue.clearQueue();
+                    return null;
+                });
+                start.countDown();
+                advance.get(5, TimeUnit.SECONDS);
+                clear.get(5, TimeUnit.SECONDS);
+
+                assertTrue(queue.isEmpty(), "!stop 之後佇列不應該留下音軌");
+                assertFalse(queue.hasCurrentTrack(), "!stop 之後不應該有目前音軌");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("多個執行緒同時加入音軌時不應該遺失音軌")
+    void concurrentAddShouldKeepAllTracks() throws Exception {
+        int threads = 4;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        musicQueue.addTrack(mockTrack1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, musicQueue.getQueueSize(), "所有音軌都應該在佇列中");
+    }
+
+    @Test
+    @DisplayName("應該能夠移動與移除佇列中的音軌")
+    void shouldMoveAndRemoveTracks() {
+        musicQueue.addTrack(mockTrack1);
+        musicQueue.addTrack(mockTrack2);
+        musicQueue.addTrack(mockTrack3);
+
+        assertEquals(mockTrack3, musicQueue.moveTrack(2, 0), "應該返回被移動的音軌");
+        assertEquals(List.of(mockTrack3, mockTrack1, mockTrack2), musicQueue.getPage(0, 10));
+
+        assertEquals(mockTrack1, musicQueue.removeTrack(1), "應該返回被移除的音軌");
+        assertEquals(List.of(mockTrack3, mockTrack2), musicQueue.getPage(0, 10));
+        assertEquals(2, musicQueue.getQueueSize());
+
+        assertNull(musicQueue.removeTrack(5), "超出範圍的位置應該返回 null");
+        assertNull(musicQueue.moveTrack(0, 2), "超出範圍的位置應該返回 null");
+        assertEquals(2, musicQueue.getQueueSize(), "無效的操作不應該改變佇列");
+    }
+
+    @Test
+    @DisplayName("大型佇列應該支援索引、移動、移除與分頁")
+    void largeQueueShouldSupportIndexedOperations() {
+        List<AudioTrack> tracks = createTracks(10_000);
+        for (AudioTrack track : tracks) {
+            musicQueue.addTrack(track);
+        }
+
+        assertEquals(tracks.get(5_000), musicQueue.getTrack(5_000));
+        assertEquals(tracks.subList(9_990, 10_000), musicQueue.getPage(999, 10), "最後一頁應該是最後 10 首");
+        assertTrue(musicQueue.getPage(1_000, 10).isEmpty(), "超出範圍的頁應該是空的");
+
+        musicQueue.moveTrack(9_999, 0);
+        assertEquals(tracks.get(9_999), musicQueue.getTrack(0), "移動後應該在最前面");
+        assertEquals(tracks.get(0), musicQueue.getTrack(1));
+
+        musicQueue.removeTrack(5_000);
+        assertEquals(9_999, musicQueue.getQueueSize());
+        assertEquals(tracks.get(5_000), musicQueue.getTrack(5_000), "移除後後面的音軌應該往前移");
+
+        assertEquals(tracks.get(9_999), musicQueue.getNextTrack(), "播放順序應該反映移動的結果");
+    }
+
+    @Test
+    @DisplayName("洗牌應該保留所有音軌且不影響目前播放的音軌")
+    void shuffleShouldKeepTracksAndCurrentTrack() {
+        List<AudioTrack> tracks = createTracks(1_000);
+        musicQueue.setCurrentTrack(mockTrack1);
+        for (AudioTrack track : tracks) {
+            musicQueue.addTrack(track);
+        }
+
+        musicQueue.shuffle(new Random(3));
+
+        List<AudioTrack> shuffled = musicQueue.getPage(0, 1_000);
+        assertEquals(mockTrack1, musicQueue.getCurrentTrack(), "目前音軌不應該改變");
+        assertEquals(1_000, shuffled.size());
+        assertNotEquals(tracks, shuffled, "洗牌後順序應該改變");
+        assertTrue(shuffled.containsAll(tracks), "洗牌後不應該遺失音軌");
+    }
+
+    private static List<AudioTrack> createTracks(int count) {
+        List<AudioTrack> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AudioTrack track = mock(AudioTrack.class);
+            when(track.getInfo()).thenReturn(new AudioTrackInfo("Track " + i, "Test Artist", 180000, "id-" + i, false, "uri-" + i));
+            tracks.add(track);
+        }
+        return tracks;
+    }
+}
@@ -0,0 +1,58 @@
+package com.coco.bot;
+
+import com.coco.bot.config.NativeRuntimeHints;
+import com.coco.bot.dto.PlaylistSummary;
+import com.coco.bot.entity.PlaylistItem;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NativeRuntimeHints 單元測試
+ */
+class NativeRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("應該包含啟動與執行時從 classpath 讀取的資源")
+    void shouldRegisterClasspathResources() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("logback.xml").test(hints), "應該包含 logback 設定");
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V1__playlist_items.sql").test(hints),
+                "應該包含資料庫遷移腳本");
+        assertTrue(RuntimeHintsPredicates.resource().forResource("ytdlp/resolver_worker.py").test(hints),
+                "應該包含 yt-dlp 工作程序腳本");
+        assertTrue(RuntimeHintsPredicates.resource().forResource("natives/linux-x86-64/libconnector.so").test(hints),
+                "應該包含 LavaPlayer 的原生函式庫");
+    }
+
+    @Test
+    @DisplayName("JPQL 建構子表達式使用的類別應該可以反射建立")
+    void shouldRegisterConstructorExpressionType() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(PlaylistSummary.class.getConstructor(String.class, Long.class, Long.class))
+                .test(hints), "PlaylistSummary 的建構子應該可以反射呼叫");
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PlaylistItem.class).test(hints),
+                "PlaylistItem 實體應該註冊反射");
+    }
+
+    @Test
+    @DisplayName("JDA 事件分派查找的 onXxx 方法應該可以反射存取")
+    void shouldRegisterListenerAdapterMethods() {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ListenerAdapter.class, "onMessageReceived").test(hints),
+                "ListenerAdapter 的事件方法應該註冊反射");
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ListenerAdapter.class, "onSlashCommandInteraction").test(hints),
+                "斜線指令事件方法應該註冊反射");
+    }
+}
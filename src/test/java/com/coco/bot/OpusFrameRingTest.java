@@ -0,0 +1,158 @@
+package com.coco.bot;
+
+import com.coco.bot.handler.OpusFrameRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OpusFrameRing 類別的單元測試
+ */
+class OpusFrameRingTest {
+
+    private OpusFrameRing ring;
+    private ByteBuffer target;
+
+    @BeforeEach
+    void setUp() {
+        ring = new OpusFrameRing(4, 16);
+        target = ByteBuffer.allocateDirect(16);
+    }
+
+    @Test
+    @DisplayName("幀應該依照放入的順序取出")
+    void shouldPollFramesInOrder() {
+        offer(1, 3);
+        offer(2, 5);
+
+        assertTrue(ring.poll(target), "應該取得第一幀");
+        target.flip();
+        assertEquals(3, target.remaining(), "幀長度應該保留");
+        assertEquals(1, target.get(0), "應該先取得第一幀");
+
+        assertTrue(ring.poll(target), "應該取得第二幀");
+        target.flip();
+        assertEquals(5, target.remaining(), "幀長度應該保留");
+        assertEquals(2, target.get(0), "接著取得第二幀");
+
+        assertFalse(ring.poll(target), "緩衝已空");
+    }
+
+    @Test
+    @DisplayName("緩衝已滿時 claim 應該返回 null")
+    void claimShouldReturnNullWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            offer(i, 1);
+        }
+
+        assertNull(ring.claim(), "緩衝已滿時不應該有可寫入的位置");
+        assertEquals(4, ring.size());
+
+        assertTrue(ring.poll(target));
+        assertNotNull(ring.claim(), "取出一幀後應該有空位");
+    }
+
+    @Test
+    @DisplayName("播放中緩衝被讀空應該計為一次 underrun")
+    void shouldCountUnderrunOnlyWhileStreaming() {
+        assertFalse(ring.poll(target));
+        assertEquals(0, ring.getUnderruns(), "尚未開始播放時不應計入");
+
+        offer(1, 1);
+        assertTrue(ring.poll(target));
+        assertFalse(ring.poll(target));
+        assertFalse(ring.poll(target));
+
+        assertEquals(1, ring.getUnderruns(), "連續讀空只應計為一次");
+    }
+
+    @Test
+    @DisplayName("音軌正常結束後緩衝被讀空不應計為 underrun")
+    void endOfPlaybackShouldNotCountAsUnderrun() {
+        offer(1, 1);
+        assertTrue(ring.poll(target, true));
+        assertFalse(ring.poll(target, false), "播放結束後緩衝是空的");
+
+        offer(2, 1);
+        assertTrue(ring.poll(target, true), "下一首音軌應該重新開始計算");
+        assertFalse(ring.poll(target, true));
+
+        assertEquals(1, ring.getUnderruns(), "只有播放中的讀空應計入");
+    }
+
+    @Test
+    @DisplayName("clear 應該只丟棄呼叫前放入的幀")
+    void clearShouldDiscardOnlyEarlierFrames() {
+        offer(1, 1);
+        offer(2, 1);
+        ring.clear();
+        offer(3, 1);
+
+        assertTrue(ring.poll(target), "clear 之後放入的幀應該保留");
+        assertEquals(3, target.get(0), "應該取得 clear 之後放入的幀");
+        assertEquals(2, ring.getDiscardedFrames(), "應該丟棄兩幀");
+    }
+
+    @Test
+    @DisplayName("clear 造成的空緩衝不應計為 underrun")
+    void clearShouldNotCountAsUnderrun() {
+        offer(1, 1);
+        offer(2, 1);
+        assertTrue(ring.poll(target));
+
+        ring.clear();
+
+        assertFalse(ring.poll(target), "剩餘的幀應該被丟棄");
+        assertEquals(0, ring.getUnderruns(), "暫停或停止造成的空緩衝不是播放中斷");
+    }
+
+    @Test
+    @DisplayName("單一生產者與單一消費者同時執行時不應遺失或重複幀")
+    void shouldTransferFramesBetweenThreads() throws Exception {
+        OpusFrameRing concurrentRing = new OpusFrameRing(8, 4);
+        int frames = 100_000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < frames; i++) {
+                ByteBuffer slot;
+                while ((slot = concurrentRing.claim()) == null) {
+                    Thread.onSpinWait();
+                }
+                slot.putInt(i);
+                concurrentRing.publish(4);
+            }
+        });
+        producer.setUncaughtExceptionHandler((t, e) -> failure.set(e));
+        producer.start();
+
+        ByteBuffer received = ByteBuffer.allocate(4);
+        for (int expected = 0; expected < frames; ) {
+            if (concurrentRing.poll(received)) {
+                received.flip();
+                assertEquals(expected, received.getInt(), "幀應該依序且不重複");
+                expected++;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        producer.join(10_000);
+
+        assertNull(failure.get(), "生產者不應該拋出例外");
+        assertEquals(0, concurrentRing.size(), "所有幀都應該被取出");
+    }
+
+    private void offer(int marker, int length) {
+        ByteBuffer slot = ring.claim();
+        assertNotNull(slot, "應該有可寫入的位置");
+        for (int i = 0; i < length; i++) {
+            slot.put((byte) marker);
+        }
+        ring.publish(length);
+    }
+}
@@ -0,0 +1,134 @@
+package com.coco.bot;
+
+import com.coco.bot.handler.OrderedTrackLoader;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderedTrackLoader 類別的單元測試
+ */
+class OrderedTrackLoaderTest {
+
+    @Mock
+    private AudioPlayerManager mockPlayerManager;
+
+    /** 目前正在載入中的網址與其回呼 */
+    private final Map<String, AudioLoadResultHandler> inFlight = new LinkedHashMap<>();
+
+    /** Listener 收到的事件紀錄 */
+    private final List<String> events = new ArrayList<>();
+
+    private OrderedTrackLoader.Listener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            inFlight.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(mockPlayerManager).loadItem(anyString(), any(AudioLoadResultHandler.class));
+
+        listener = new OrderedTrackLoader.Listener() {
+            @Override
+            public void onTrackLoaded(int index, AudioTrack track) {
+                events.add("loaded:" + index);
+            }
+
+            @Override
+            public void onTrackFailed(int index, String url, String reason) {
+                events.add("failed:" + index);
+            }
+
+            @Override
+            public void onComplete(int loaded, int failed) {
+                events.add("complete:" + loaded + "/" + failed);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("同時載入中的數量不應該超過上限")
+    void shouldRespectInFlightLimit() {
+        new OrderedTrackLoader(mockPlayerManager, urls(5), 2, listener).start();
+
+        assertEquals(2, inFlight.size(), "一開始只應該載入 2 首");
+        verify(mockPlayerManager, times(2)).loadItem(anyString(), any(AudioLoadResultHandler.class));
+
+        finish("url-0");
+        assertEquals(2, inFlight.size(), "完成一首後應該補上下一首");
+        assertTrue(inFlight.containsKey("url-2"));
+    }
+
+    @Test
+    @DisplayName("無論完成順序，都應該依照原本順序輸出")
+    void shouldPublishInOriginalOrder() {
+        new OrderedTrackLoader(mockPlayerManager, urls(3), 3, listener).start();
+
+        finish("url-2");
+        finish("url-1");
+        assertTrue(events.isEmpty(), "第一首完成前不應該輸出任何結果");
+
+        finish("url-0");
+        assertEquals(List.of("loaded:0", "loaded:1", "loaded:2", "complete:3/0"), events);
+    }
+
+    @Test
+    @DisplayName("第一首完成後應該立即輸出，不必等待其他音軌")
+    void shouldPublishFirstTrackImmediately() {
+        new OrderedTrackLoader(mockPlayerManager, urls(200), 8, listener).start();
+
+        finish("url-0");
+
+        assertEquals(List.of("loaded:0"), events);
+    }
+
+    @Test
+    @DisplayName("載入失敗的音軌應該依序回報且不影響其他音軌")
+    void shouldReportFailuresInOrder() {
+        new OrderedTrackLoader(mockPlayerManager, urls(3), 3, listener).start();
+
+        inFlight.remove("url-1").noMatches();
+        inFlight.remove("url-2").loadFailed(new FriendlyException("boom", FriendlyException.Severity.COMMON, null));
+        finish("url-0");
+
+        assertEquals(List.of("loaded:0", "failed:1", "failed:2", "complete:1/2"), events);
+    }
+
+    @Test
+    @DisplayName("空的清單應該直接完成")
+    void shouldCompleteEmptyList() {
+        new OrderedTrackLoader(mockPlayerManager, List.of(), 4, listener).start();
+
+        assertEquals(List.of("complete:0/0"), events);
+        verify(mockPlayerManager, never()).loadItem(anyString(), any(AudioLoadResultHandler.class));
+    }
+
+    private void finish(String url) {
+        inFlight.remove(url).trackLoaded(mock(AudioTrack.class));
+    }
+
+    private static List<String> urls(int count) {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            urls.add("url-" + i);
+        }
+        return urls;
+    }
+}
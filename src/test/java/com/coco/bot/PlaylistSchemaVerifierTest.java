@@ -0,0 +1,66 @@
+package com.coco.bot;
+
+import com.coco.bot.config.PlaylistSchemaVerifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * PlaylistSchemaVerifier 類別的單元測試
+ */
+class PlaylistSchemaVerifierTest {
+
+    @Test
+    @DisplayName("以查詢欄位為前綴的索引應該被識別")
+    void shouldFindLookupIndexByColumnPrefix() {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        indexes.put("PRIMARY", List.of("id"));
+        indexes.put("idx_user_playlist", List.of("user_id", "playlist_name"));
+        indexes.put("idx_custom", List.of("user_id", "playlist_name", "song_order", "id"));
+
+        assertEquals("idx_custom", PlaylistSchemaVerifier.findLookupIndex(indexes), "應該找到包含完整前綴的索引");
+    }
+
+    @Test
+    @DisplayName("欄位順序不同或不完整的索引不應該被視為查詢索引")
+    void shouldRejectIndexWithWrongColumnOrder() {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        indexes.put("idx_user_playlist", List.of("user_id", "playlist_name"));
+        indexes.put("idx_reversed", List.of("playlist_name", "user_id", "song_order"));
+
+        assertNull(PlaylistSchemaVerifier.findLookupIndex(indexes), "沒有符合的索引時應該返回 null");
+    }
+
+    @Test
+    @DisplayName("要求索引但索引不存在時應該中止啟動")
+    void shouldFailStartupWhenIndexRequired() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(
+                Map.of("INDEX_NAME", "PRIMARY", "COLUMN_NAME", "id")));
+
+        assertThrows(IllegalStateException.class, () -> new PlaylistSchemaVerifier(jdbcTemplate, true).verify(),
+                "缺少索引且設定為必要時應該拋出例外");
+        assertDoesNotThrow(() -> new PlaylistSchemaVerifier(jdbcTemplate, false).verify(),
+                "預設只記錄警告");
+    }
+
+    @Test
+    @DisplayName("索引存在時應該通過檢查")
+    void shouldPassWhenIndexExists() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(
+                Map.of("INDEX_NAME", "idx_song_order", "COLUMN_NAME", "user_id"),
+                Map.of("INDEX_NAME", "idx_song_order", "COLUMN_NAME", "playlist_name"),
+                Map.of("INDEX_NAME", "idx_song_order", "COLUMN_NAME", "song_order")));
+
+        assertDoesNotThrow(() -> new PlaylistSchemaVerifier(jdbcTemplate, true).verify(), "索引存在時不應該拋出例外");
+    }
+}
@@ -0,0 +1,65 @@
+package com.coco.bot;
+
+import com.coco.bot.metrics.PrometheusScrapeServer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PrometheusScrapeServer 類別的單元測試
+ */
+class PrometheusScrapeServerTest {
+
+    private PrometheusMeterRegistry registry;
+    private PrometheusScrapeServer server;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("抓取端點應該以 Prometheus 文字格式輸出指標")
+    void shouldServeMetricsInPrometheusFormat() throws Exception {
+        registry.counter("music.track.load", "outcome", "loaded").increment(3);
+        server = new PrometheusScrapeServer(registry, true, 0, "/metrics");
+        server.start();
+        assertTrue(server.getPort() > 0, "應該監聽一個可用的連接埠");
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), "應該返回 200");
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"),
+                "應該使用 Prometheus 文字格式");
+        assertTrue(response.body().contains("music_track_load_total{outcome=\"loaded\",} 3.0"),
+                "應該包含已註冊的計數器，實際內容：" + response.body());
+    }
+
+    @Test
+    @DisplayName("關閉時不應該監聽任何連接埠")
+    void shouldNotListenWhenDisabled() {
+        server = new PrometheusScrapeServer(registry, false, 0, "/metrics");
+        server.start();
+
+        assertEquals(-1, server.getPort(), "關閉時不應該啟動抓取端點");
+    }
+}
@@ -0,0 +1,189 @@
+package com.coco.bot;
+
+import com.coco.bot.handler.ResolutionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResolutionExecutor 類別的單元測試
+ */
+class ResolutionExecutorTest {
+
+    private ResolutionExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("工作應該在虛擬執行緒上執行")
+    void shouldRunOnVirtualThreads() throws Exception {
+        executor = new ResolutionExecutor(2, 10, 5);
+        AtomicBoolean virtual = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        ResolutionExecutor.Submission submission = executor.submit("test", () -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            done.countDown();
+        });
+
+        assertEquals(ResolutionExecutor.Submission.STARTED, submission);
+        assertTrue(done.await(5, TimeUnit.SECONDS), "工作應該執行");
+        assertTrue(virtual.get(), "工作應該在虛擬執行緒上執行");
+    }
+
+    @Test
+    @DisplayName("同時執行的工作數量不應該超過上限，超過的工作應該排隊")
+    void shouldLimitConcurrencyAndQueueExcess() throws Exception {
+        executor = new ResolutionExecutor(2, 10, 5);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(6);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<ResolutionExecutor.Submission> submissions = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            submissions.add(executor.submit("task-" + i, () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                await(release);
+                running.decrementAndGet();
+                finished.countDown();
+            }));
+        }
+
+        assertEquals(ResolutionExecutor.Submission.STARTED, submissions.get(0));
+        assertEquals(ResolutionExecutor.Submission.STARTED, submissions.get(1));
+        for (int i = 2; i < 6; i++) {
+            assertEquals(ResolutionExecutor.Submission.QUEUED, submissions.get(i), "超過上限的工作應該排隊");
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS), "前兩個工作應該開始執行");
+        assertEquals(2, executor.getRunningCount());
+        assertEquals(4, executor.getPendingCount());
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS), "所有工作都應該完成");
+        assertEquals(2, peak.get(), "同時執行的工作不應該超過上限");
+        assertEquals(0, executor.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("非同步工作應該保留執行許可直到 Future 完成")
+    void asyncTaskShouldHoldPermitUntilFutureCompletes() throws Exception {
+        executor = new ResolutionExecutor(1, 10, 5);
+        CompletableFuture<Void> resolution = new CompletableFuture<>();
+        CountDownLatch secondRan = new CountDownLatch(1);
+
+        assertEquals(ResolutionExecutor.Submission.STARTED, executor.submitAsync("async", () -> resolution));
+        assertEquals(ResolutionExecutor.Submission.QUEUED, executor.submit("next", secondRan::countDown),
+                "非同步工作未完成前應該佔用唯一的執行許可");
+        assertFalse(secondRan.await(200, TimeUnit.MILLISECONDS), "排隊的工作不應該在非同步工作完成前執行");
+
+        resolution.complete(null);
+        assertTrue(secondRan.await(5, TimeUnit.SECONDS), "非同步工作完成後應該執行排隊的工作");
+    }
+
+    @Test
+    @DisplayName("排隊已滿時應該拒絕新工作")
+    void shouldRejectWhenPendingLimitReached() {
+        executor = new ResolutionExecutor(1, 1, 5);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertEquals(ResolutionExecutor.Submission.STARTED, executor.submit("running", () -> await(release)));
+        assertEquals(ResolutionExecutor.Submission.QUEUED, executor.submit("queued", () -> { }));
+        AtomicBoolean ran = new AtomicBoolean();
+        assertEquals(ResolutionExecutor.Submission.REJECTED, executor.submit("rejected", () -> ran.set(true)));
+
+        release.countDown();
+        executor.shutdown();
+        assertFalse(ran.get(), "被拒絕的工作不應該執行");
+    }
+
+    @Test
+    @DisplayName("工作拋出例外不應該佔用執行許可")
+    void failingTaskShouldReleasePermit() throws Exception {
+        executor = new ResolutionExecutor(1, 10, 5);
+        executor.submit("fail", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.submit("next", done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "後續工作應該取得執行許可");
+    }
+
+    @Test
+    @DisplayName("關閉時應該等待排隊中的工作完成，之後拒絕新工作")
+    void shutdownShouldDrainQueuedWork() {
+        executor = new ResolutionExecutor(1, 10, 5);
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            executor.submit("task-" + i, () -> {
+                sleep(20);
+                completed.incrementAndGet();
+            });
+        }
+
+        executor.shutdown();
+
+        assertEquals(3, completed.get(), "關閉前提交的工作都應該完成");
+        assertTrue(executor.isShutdown());
+        assertEquals(ResolutionExecutor.Submission.REJECTED, executor.submit("late", () -> { }));
+        executor.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("有工作在排隊時，新提交的工作不應該插隊立即執行")
+    void shouldNotStartAheadOfQueuedWork() throws Exception {
+        executor = new ResolutionExecutor(1, 10, 5);
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> queued = new CompletableFuture<>();
+        CountDownLatch queuedStarted = new CountDownLatch(1);
+
+        assertEquals(ResolutionExecutor.Submission.STARTED, executor.submitAsync("first", () -> first));
+        assertEquals(ResolutionExecutor.Submission.QUEUED, executor.submitAsync("queued", () -> {
+            queuedStarted.countDown();
+            return queued;
+        }));
+
+        // 許可歸還後，排隊中的工作可能還沒取得許可；新提交的工作仍然必須排在它後面
+        first.complete(null);
+        assertEquals(ResolutionExecutor.Submission.QUEUED, executor.submitAsync("late", () -> null),
+                "有工作在排隊時新的工作應該排隊");
+
+        assertTrue(queuedStarted.await(5, TimeUnit.SECONDS), "排隊中的工作應該開始執行");
+        queued.complete(null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
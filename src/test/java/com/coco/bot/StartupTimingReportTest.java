@@ -0,0 +1,73 @@
+package com.coco.bot;
+
+import com.coco.bot.config.StartupTimingReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StartupTimingReport 單元測試
+ */
+class StartupTimingReportTest {
+
+    @Test
+    @DisplayName("階段應該依記錄順序保存")
+    void shouldKeepPhasesInRecordingOrder() {
+        StartupTimingReport report = new StartupTimingReport();
+
+        report.record("Spring 容器", 1200);
+        report.record("閘道登入", 300);
+        report.record("分片就緒", 4500);
+
+        assertEquals(List.of("Spring 容器", "閘道登入", "分片就緒"), List.copyOf(report.getPhases().keySet()),
+                "階段應該依記錄順序排列");
+        assertEquals(Long.valueOf(4500), report.getPhases().get("分片就緒"));
+    }
+
+    @Test
+    @DisplayName("執行階段應該記錄花費時間，即使階段拋出例外")
+    void shouldTimePhaseEvenWhenItThrows() {
+        StartupTimingReport report = new StartupTimingReport();
+
+        report.time("音訊來源註冊", () -> {
+        });
+        assertThrows(IllegalStateException.class, () -> report.time("JPA 初始化（背景）", () -> {
+            throw new IllegalStateException("資料庫無法連線");
+        }));
+
+        assertTrue(report.getPhases().containsKey("音訊來源註冊"), "正常完成的階段應該被記錄");
+        assertTrue(report.getPhases().containsKey("JPA 初始化（背景）"), "失敗的階段也應該被記錄");
+    }
+
+    @Test
+    @DisplayName("同名階段的時間應該累加")
+    void shouldAccumulateRepeatedPhase() {
+        StartupTimingReport report = new StartupTimingReport();
+
+        report.record("分片就緒", 100);
+        report.record("分片就緒", 250);
+
+        assertEquals(Long.valueOf(350), report.getPhases().get("分片就緒"), "同名階段應該累加");
+    }
+
+    @Test
+    @DisplayName("報告應該列出每個階段與總啟動時間")
+    void shouldFormatReport() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        phases.put("Spring 容器", 1200L);
+        phases.put("分片就緒", 4500L);
+
+        String report = StartupTimingReport.format(phases, 6100);
+
+        String[] lines = report.split("\\R");
+        assertEquals(4, lines.length, "報告應該有標題、每個階段一行與總時間");
+        assertTrue(lines[1].contains("Spring 容器") && lines[1].contains("1200 ms"), "第一個階段應該是 Spring 容器");
+        assertTrue(lines[2].contains("分片就緒") && lines[2].contains("4500 ms"), "第二個階段應該是分片就緒");
+        assertTrue(lines[3].contains("6100 ms"), "最後一行應該是總啟動時間");
+    }
+}
@@ -0,0 +1,130 @@
+package com.coco.bot;
+
+import com.coco.bot.handler.TrackInfoCache;
+import com.coco.bot.handler.YouTubeResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TrackInfoCache 類別的單元測試
+ */
+class TrackInfoCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private TrackInfoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TrackInfoCache(2, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("不同格式的 YouTube 網址應該正規化為相同的影片 ID")
+    void shouldNormaliseYouTubeUrls() {
+        String id = "dQw4w9WgXcQ";
+
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://www.youtube.com/watch?v=dQw4w9WgXcQ"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://youtube.com/watch?feature=share&v=dQw4w9WgXcQ&t=42"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://m.youtube.com/watch?v=dQw4w9WgXcQ"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://music.youtube.com/watch?v=dQw4w9WgXcQ&list=RD"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://youtu.be/dQw4w9WgXcQ?si=abcdef"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("youtu.be/dQw4w9WgXcQ"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://www.youtube.com/shorts/dQw4w9WgXcQ"));
+        assertEquals(id, TrackInfoCache.canonicalVideoId("https://www.youtube.com/embed/dQw4w9WgXcQ?start=10"));
+    }
+
+    @Test
+    @DisplayName("非 YouTube 或無效的網址應該返回 null")
+    void shouldRejectNonYouTubeUrls() {
+        assertNull(TrackInfoCache.canonicalVideoId(null));
+        assertNull(TrackInfoCache.canonicalVideoId(""));
+        assertNull(TrackInfoCache.canonicalVideoId("https://soundcloud.com/artist/track"));
+        assertNull(TrackInfoCache.canonicalVideoId("https://www.youtube.com/watch?v=short"));
+        assertNull(TrackInfoCache.canonicalVideoId("https://notyoutube.com/watch?v=dQw4w9WgXcQ"));
+    }
+
+    @Test
+    @DisplayName("不同網址格式應該命中同一筆快取")
+    void shouldHitAcrossUrlVariants() {
+        cache.put("https://www.youtube.com/watch?v=dQw4w9WgXcQ", trackInfo(Duration.ofHours(6)));
+
+        YouTubeResolver.TrackInfo result = cache.get("https://youtu.be/dQw4w9WgXcQ");
+
+        assertNotNull(result, "應該命中快取");
+        assertEquals("Never Gonna Give You Up", result.title);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("串流 URL 過期後應該視為未命中但保留標題與時長")
+    void shouldDropExpiredStreamUrlButKeepMetadata() {
+        String url = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        cache.put(url, trackInfo(Duration.ofMinutes(1)));
+
+        assertNull(cache.get(url), "即將過期的串流 URL 不應該被使用");
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getExpiredStreamCount());
+
+        YouTubeResolver.TrackInfo metadata = cache.getMetadata(url);
+        assertNotNull(metadata, "標題與時長應該保留");
+        assertEquals("Never Gonna Give You Up", metadata.title);
+        assertEquals(212000, metadata.duration);
+        assertNull(metadata.url, "過期的串流 URL 應該被移除");
+    }
+
+    @Test
+    @DisplayName("快取應該保留縮圖、上傳者與直播旗標，並使用解析時提供的到期時間")
+    void shouldKeepExtraFieldsAndProvidedExpiry() {
+        String url = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        long expiresAt = NOW.plus(Duration.ofHours(6)).toEpochMilli();
+        cache.put(url, new YouTubeResolver.TrackInfo("Never Gonna Give You Up", "https://stream.example.com/audio",
+                212000, "https://i.ytimg.com/vi/dQw4w9WgXcQ/hqdefault.jpg", "Rick Astley", false, expiresAt));
+
+        YouTubeResolver.TrackInfo result = cache.get(url);
+
+        assertNotNull(result, "串流網址沒有 expire 參數時應該使用解析時提供的到期時間");
+        assertEquals("https://i.ytimg.com/vi/dQw4w9WgXcQ/hqdefault.jpg", result.thumbnail);
+        assertEquals("Rick Astley", result.uploader);
+        assertEquals(expiresAt, result.expiresAt);
+    }
+
+    @Test
+    @DisplayName("超過容量時應該淘汰最久未使用的項目")
+    void shouldEvictLeastRecentlyUsed() {
+        cache.put("https://youtu.be/aaaaaaaaaaa", trackInfo(Duration.ofHours(6)));
+        cache.put("https://youtu.be/bbbbbbbbbbb", trackInfo(Duration.ofHours(6)));
+        cache.get("https://youtu.be/aaaaaaaaaaa");
+        cache.put("https://youtu.be/ccccccccccc", trackInfo(Duration.ofHours(6)));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get("https://youtu.be/aaaaaaaaaaa"), "最近使用的項目應該保留");
+        assertNull(cache.get("https://youtu.be/bbbbbbbbbbb"), "最久未使用的項目應該被淘汰");
+    }
+
+    @Test
+    @DisplayName("無法辨識的網址不應該被快取")
+    void shouldIgnoreUnrecognisedUrls() {
+        cache.put("https://example.com/audio.mp3", trackInfo(Duration.ofHours(6)));
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get("https://example.com/audio.mp3"));
+        assertEquals(0, cache.getMissCount(), "無法辨識的網址不應該計入統計");
+    }
+
+    private static YouTubeResolver.TrackInfo trackInfo(Duration validFor) {
+        long expire = NOW.plus(validFor).getEpochSecond();
+        return new YouTubeResolver.TrackInfo("Never Gonna Give You Up",
+                "https://rr1---sn-example.googlevideo.com/videoplayback?expire=" + expire + "&itag=251", 212000);
+    }
+}
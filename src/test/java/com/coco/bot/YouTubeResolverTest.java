@@ -1,11 +1,28 @@
 package com.coco.bot;
 
+import com.coco.bot.handler.ResolutionException;
+import com.coco.bot.handler.TrackInfoCache;
 import com.coco.bot.handler.YouTubeResolver;
+import com.coco.bot.handler.YtDlpWorkerPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * YouTubeResolver 類別的單元測試
@@ -19,7 +36,235 @@ class YouTubeResolverTest {
 
     @BeforeEach
     void setUp() {
-        youTubeResolver = new YouTubeResolver();
+        youTubeResolver = new YouTubeResolver(null, new TrackInfoCache(10), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("工作程序回報解析失敗時應該記錄耗時與失敗次數")
+    void workerFailureShouldBeRecordedInMetrics() throws Exception {
+        YtDlpWorkerPool workerPool = mock(YtDlpWorkerPool.class);
+        when(workerPool.isAvailable()).thenReturn(true);
+        when(workerPool.resolve("https://www.youtube.com/watch?v=missing")).thenReturn(null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        YouTubeResolver resolver = new YouTubeResolver(workerPool, new TrackInfoCache(10), registry);
+
+        assertNull(resolver.resolveYouTubeUrl("https://www.youtube.com/watch?v=missing"), "解析失敗應該返回 null");
+
+        assertEquals(1, registry.get("ytdlp.resolve").tag("path", "worker").timer().count(),
+                "應該記錄一次工作程序解析耗時");
+        assertEquals(1.0, registry.get("ytdlp.resolve.failures").tag("exit_code", "worker").counter().count(),
+                "應該記錄一次工作程序解析失敗");
+    }
+
+    @Test
+    @DisplayName("串流 URL 過期後，影片資訊查詢應該直接使用快取的標題與時長，不重新解析")
+    void metadataLookupShouldUseCacheAfterStreamExpires() throws Exception {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        TrackInfoCache cache = new TrackInfoCache(10, Clock.fixed(now, ZoneOffset.UTC));
+        String url = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        cache.put(url, new YouTubeResolver.TrackInfo("Never Gonna Give You Up", "https://stream.example.com/audio",
+                212000L, null, null, false, now.minusSeconds(60).toEpochMilli()));
+        YtDlpWorkerPool workerPool = mock(YtDlpWorkerPool.class);
+        when(workerPool.isAvailable()).thenReturn(true);
+        YouTubeResolver resolver = new YouTubeResolver(workerPool, cache, new SimpleMeterRegistry());
+
+        YouTubeResolver.TrackInfo metadata = resolver.resolveMetadataAsync("https://youtu.be/dQw4w9WgXcQ").get();
+
+        assertEquals("Never Gonna Give You Up", metadata.title);
+        assertEquals(212000L, metadata.duration);
+        assertNull(metadata.url, "過期的串流 URL 不應該被返回");
+        verify(workerPool, never()).resolve(any());
+    }
+
+    @Test
+    @DisplayName("工作程序請求逾時應該以 TIMEOUT 失敗，不改用子程序重新解析")
+    void workerTimeoutShouldFailWithoutFallback() throws Exception {
+        YtDlpWorkerPool workerPool = mock(YtDlpWorkerPool.class);
+        when(workerPool.isAvailable()).thenReturn(true);
+        when(workerPool.resolve("https://www.youtube.com/watch?v=slow0000001"))
+                .thenThrow(YtDlpWorkerPool.WorkerTimeoutException.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        YouTubeResolver resolver = new YouTubeResolver(workerPool, new TrackInfoCache(10), registry);
+
+        CompletableFuture<YouTubeResolver.TrackInfo> future = resolver.resolveAsync("https://www.youtube.com/watch?v=slow0000001");
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        ResolutionException cause = assertInstanceOf(ResolutionException.class, error.getCause(), "應該以 ResolutionException 失敗");
+        assertEquals(ResolutionException.Reason.TIMEOUT, cause.getReason(), "失敗原因應該是逾時");
+        assertEquals(1.0, registry.get("ytdlp.resolve.failures").tag("exit_code", "timeout").counter().count(),
+                "應該記錄一次逾時失敗");
+        assertEquals(0, registry.get("ytdlp.resolve").tag("path", "process").timer().count(),
+                "逾時不應該改用子程序解析");
+    }
+
+    @Test
+    @DisplayName("所有工作程序都在忙碌時應該立即改用子程序，而不是以逾時失敗")
+    void busyWorkersShouldFallBackToProcess() throws Exception {
+        YtDlpWorkerPool workerPool = mock(YtDlpWorkerPool.class);
+        when(workerPool.isAvailable()).thenReturn(true);
+        when(workerPool.resolve("https://www.youtube.com/watch?v=busy0000001"))
+                .thenThrow(YtDlpWorkerPool.WorkerBusyException.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        YouTubeResolver resolver = new YouTubeResolver(workerPool, new TrackInfoCache(10), registry);
+
+        // 子程序的結果取決於環境中是否安裝 yt-dlp，這裡只檢查沒有以工作程序逾時結束
+        Throwable error = resolver.resolveAsync("https://www.youtube.com/watch?v=busy0000001")
+                .handle((trackInfo, failure) -> failure).get();
+
+        if (error != null) {
+            ResolutionException cause = assertInstanceOf(ResolutionException.class, error, "應該以 ResolutionException 失敗");
+            assertNotEquals(ResolutionException.Reason.TIMEOUT, cause.getReason(), "忙碌不應該視為逾時");
+        }
+        assertNull(registry.find("ytdlp.resolve.failures").tag("exit_code", "timeout").counter(),
+                "忙碌不應該記錄逾時失敗");
+        verify(workerPool, times(1)).resolve("https://www.youtube.com/watch?v=busy0000001");
+    }
+
+    @Test
+    @DisplayName("工作程序池仍可使用時，工作程序錯誤應該以 PROCESS_ERROR 失敗")
+    void workerErrorShouldNotFallBackWhilePoolIsAvailable() throws Exception {
+        YtDlpWorkerPool workerPool = mock(YtDlpWorkerPool.class);
+        when(workerPool.isAvailable()).thenReturn(true);
+        when(workerPool.resolve("https://www.youtube.com/watch?v=crash000001"))
+                .thenThrow(new IOException("yt-dlp 工作程序 #1 發生錯誤: 工作程序已結束"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        YouTubeResolver resolver = new YouTubeResolver(workerPool, new TrackInfoCache(10), registry);
+
+        CompletableFuture<YouTubeResolver.TrackInfo> future = resolver.resolveAsync("https://www.youtube.com/watch?v=crash000001");
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        ResolutionException cause = assertInstanceOf(ResolutionException.class, error.getCause(), "應該以 ResolutionException 失敗");
+        assertEquals(ResolutionException.Reason.PROCESS_ERROR, cause.getReason(), "失敗原因應該是處理錯誤");
+        assertEquals(0, registry.get("ytdlp.resolve").tag("path", "process").timer().count(),
+                "工作程序池仍可使用時不應該改用子程序解析");
+    }
+
+    @Test
+    @DisplayName("parseOutput 應該從 JSON 取出需要的欄位並略過其他內容")
+    void parseOutputShouldReadFieldsFromJson() {
+        String json = "{\"id\": \"dQw4w9WgXcQ\", \"title\": \"Never Gonna Give You Up\", "
+                + "\"formats\": [{\"url\": \"https://stream.example.com/other\", \"fragments\": [{\"path\": \"a\"}]}], "
+                + "\"url\": \"https://stream.example.com/audio?expire=1700000000&id=1\", \"duration\": 213.0, "
+                + "\"thumbnail\": \"https://i.ytimg.com/vi/dQw4w9WgXcQ/maxresdefault.jpg\", "
+                + "\"uploader\": \"Rick Astley\", \"is_live\": false}";
+
+        // 錯誤輸出中的警告不應該影響解析
+        YouTubeResolver.TrackInfo trackInfo = YouTubeResolver.parseOutput(0, stream(json),
+                List.of("WARNING: [youtube] Falling back to generic n function search"));
+
+        assertEquals("Never Gonna Give You Up", trackInfo.title, "標題錯誤");
+        assertEquals("https://stream.example.com/audio?expire=1700000000&id=1", trackInfo.url,
+                "串流網址應該是最上層的 url，而不是 formats 中的 url");
+        assertEquals(213000L, trackInfo.duration, "時長應該轉換為毫秒");
+        assertEquals("https://i.ytimg.com/vi/dQw4w9WgXcQ/maxresdefault.jpg", trackInfo.thumbnail, "縮圖錯誤");
+        assertEquals("Rick Astley", trackInfo.uploader, "上傳者錯誤");
+        assertFalse(trackInfo.live, "不應該是直播");
+        assertEquals(1700000000000L, trackInfo.expiresAt, "到期時間應該取自串流網址的 expire 參數");
+    }
+
+    @Test
+    @DisplayName("parseOutput 在沒有最上層 url 時應該使用 requested_formats 的第一個 url")
+    void parseOutputShouldFallBackToRequestedFormats() {
+        String json = "{\"title\": \"Live\", \"is_live\": true, \"duration\": null, "
+                + "\"requested_formats\": [{\"format_id\": \"251\", \"url\": \"https://stream.example.com/first\"}, "
+                + "{\"url\": \"https://stream.example.com/second\"}]}";
+
+        YouTubeResolver.TrackInfo trackInfo = YouTubeResolver.parseOutput(0, stream(json), List.of());
+
+        assertEquals("https://stream.example.com/first", trackInfo.url, "應該使用第一個格式的 url");
+        assertTrue(trackInfo.live, "應該是直播");
+        assertEquals(0L, trackInfo.duration, "沒有時長時應該是 0");
+    }
+
+    @Test
+    @DisplayName("yt-dlp 失敗或輸出不完整時應該拋出帶有原因的例外")
+    void parseOutputShouldReportStructuredFailures() {
+        ResolutionException failed = assertThrows(ResolutionException.class,
+                () -> YouTubeResolver.parseOutput(1, stream(""), List.of("ERROR: Video unavailable")));
+        assertEquals(ResolutionException.Reason.UNAVAILABLE, failed.getReason(), "非零退出碼應該是無法解析");
+        assertEquals(Integer.valueOf(1), failed.getExitCode(), "應該保留退出碼");
+
+        ResolutionException empty = assertThrows(ResolutionException.class,
+                () -> YouTubeResolver.parseOutput(0, stream(""), List.of()));
+        assertEquals(ResolutionException.Reason.MALFORMED_OUTPUT, empty.getReason(), "沒有 JSON 應該是輸出不完整");
+
+        ResolutionException truncated = assertThrows(ResolutionException.class,
+                () -> YouTubeResolver.parseOutput(0, stream("{\"title\": \"Cut"), List.of()));
+        assertEquals(ResolutionException.Reason.MALFORMED_OUTPUT, truncated.getReason(), "不完整的 JSON 應該是輸出不完整");
+    }
+
+    @Test
+    @DisplayName("parseJsonEntry 應該讀取影片 ID、來源網址與影片資訊")
+    void parseJsonEntryShouldReadEntry() {
+        String line = "{\"id\": \"dQw4w9WgXcQ\", \"title\": \"Never Gonna Give You Up\", "
+                + "\"url\": \"https://stream.example.com/audio\", \"duration\": 213.0, "
+                + "\"playlist_id\": \"PL1234567890\", "
+                + "\"original_url\": \"https://www.youtube.com/playlist?list=PL1234567890\", "
+                + "\"webpage_url\": \"https://www.youtube.com/watch?v=dQw4w9WgXcQ\"}";
+
+        YouTubeResolver.JsonEntry entry = YouTubeResolver.parseJsonEntry(line);
+
+        assertEquals("dQw4w9WgXcQ", entry.id(), "影片 ID 錯誤");
+        assertEquals("PL1234567890", entry.playlistId(), "播放清單 ID 錯誤");
+        assertEquals("https://www.youtube.com/watch?v=dQw4w9WgXcQ", entry.webpageUrl(), "影片網址錯誤");
+        assertEquals("Never Gonna Give You Up", entry.trackInfo().title, "標題錯誤");
+        assertEquals("https://stream.example.com/audio", entry.trackInfo().url, "串流網址錯誤");
+        assertEquals(213000L, entry.trackInfo().duration, "時長應該轉換為毫秒");
+    }
+
+    @Test
+    @DisplayName("parseJsonEntry 遇到無效 JSON 或缺少欄位時應該拋出 MALFORMED_OUTPUT")
+    void parseJsonEntryShouldRejectMalformedOutput() {
+        ResolutionException invalid = assertThrows(ResolutionException.class,
+                () -> YouTubeResolver.parseJsonEntry("[download] Downloading playlist"));
+        assertEquals(ResolutionException.Reason.MALFORMED_OUTPUT, invalid.getReason(), "無效 JSON 應該是輸出不完整");
+
+        ResolutionException missing = assertThrows(ResolutionException.class,
+                () -> YouTubeResolver.parseJsonEntry("{\"id\": \"dQw4w9WgXcQ\", \"title\": \"No stream\"}"));
+        assertEquals(ResolutionException.Reason.MALFORMED_OUTPUT, missing.getReason(), "缺少串流網址應該是輸出不完整");
+    }
+
+    @Test
+    @DisplayName("批次解析中的空白網址應該個別失敗，不需要啟動 yt-dlp")
+    void resolveBatchAsyncShouldFailBlankUrlsIndividually() throws Exception {
+        YouTubeResolver.BatchListener listener = mock(YouTubeResolver.BatchListener.class);
+
+        youTubeResolver.resolveBatchAsync(List.of(" ", ""), listener).get();
+
+        verify(listener).onFailed(eq(0), eq(" "), argThat(error -> error.getReason() == ResolutionException.Reason.INVALID_URL));
+        verify(listener).onFailed(eq(1), eq(""), argThat(error -> error.getReason() == ResolutionException.Reason.INVALID_URL));
+        verify(listener, never()).onResolved(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("播放清單與單獨網址包含同一部影片時，兩個位置應該各自收到結果")
+    void replayBatchOutputShouldRoutePlaylistEntryToPlaylist() throws Exception {
+        String playlistUrl = "https://www.youtube.com/playlist?list=PL1234567890";
+        String videoUrl = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        String output = "{\"id\": \"dQw4w9WgXcQ\", \"title\": \"Never Gonna Give You Up\", "
+                + "\"url\": \"https://stream.example.com/a\", \"playlist_id\": \"PL1234567890\", "
+                + "\"original_url\": \"" + playlistUrl + "\", \"webpage_url\": \"" + videoUrl + "\"}\n"
+                + "{\"id\": \"dQw4w9WgXcQ\", \"title\": \"Never Gonna Give You Up\", "
+                + "\"url\": \"https://stream.example.com/b\", "
+                + "\"original_url\": \"" + videoUrl + "\", \"webpage_url\": \"" + videoUrl + "\"}\n";
+        YouTubeResolver.BatchListener listener = mock(YouTubeResolver.BatchListener.class);
+
+        youTubeResolver.replayBatchOutput(List.of(playlistUrl, videoUrl),
+                new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), listener);
+
+        verify(listener).onResolved(eq(0), eq(videoUrl), argThat(info -> info.url.equals("https://stream.example.com/a")));
+        verify(listener).onResolved(eq(1), eq(videoUrl), argThat(info -> info.url.equals("https://stream.example.com/b")));
+        verify(listener, never()).onFailed(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("空白網址應該立即以 INVALID_URL 失敗")
+    void resolveAsyncShouldRejectBlankUrl() {
+        CompletableFuture<YouTubeResolver.TrackInfo> future = youTubeResolver.resolveAsync(" ");
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        ResolutionException cause = assertInstanceOf(ResolutionException.class, error.getCause(), "應該以 ResolutionException 失敗");
+        assertEquals(ResolutionException.Reason.INVALID_URL, cause.getReason(), "失敗原因應該是網址無效");
     }
 
     @Test
@@ -83,6 +328,10 @@ class YouTubeResolverTest {
         // 如果 result 為 null，表示 yt-dlp 工具不可用或網路問題，測試通過
     }
 
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * 檢查是否可以執行需要 yt-dlp 的測試
      * 這個方法會被 @EnabledIf 註解使用
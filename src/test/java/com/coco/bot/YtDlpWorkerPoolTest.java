@@ -0,0 +1,150 @@
+package com.coco.bot;
+
+import com.coco.bot.handler.TrackInfoCache;
+import com.coco.bot.handler.YouTubeResolver;
+import com.coco.bot.handler.YtDlpWorkerPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * YtDlpWorkerPool 類別的單元測試
+ *
+ * 使用 src/test/resources/ytdlp/fake_worker.py 假工作程序，不需要 yt-dlp 或網路連接，
+ * 但需要系統上有 Python
+ */
+@EnabledIf("isPythonAvailable")
+class YtDlpWorkerPoolTest {
+
+    private YtDlpWorkerPool workerPool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path script = Path.of(YtDlpWorkerPoolTest.class.getResource("/ytdlp/fake_worker.py").toURI());
+        workerPool = new YtDlpWorkerPool(true, List.of(findPython(), "-u", script.toString()), 2,
+                Duration.ofSeconds(3), Duration.ofMinutes(10));
+        workerPool.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+    }
+
+    @Test
+    @DisplayName("應該透過工作程序解析影片資訊")
+    void shouldResolveThroughWorker() throws IOException {
+        YouTubeResolver.TrackInfo result = workerPool.resolve("https://www.youtube.com/watch?v=abc123");
+
+        assertNotNull(result, "解析結果不應為 null");
+        assertEquals("Fake abc123", result.title);
+        assertEquals("https://stream.example.com/abc123", result.url);
+        assertEquals(212000, result.duration, "時長應該轉換為毫秒");
+    }
+
+    @Test
+    @DisplayName("工作程序回報解析失敗時應該返回 null")
+    void shouldReturnNullWhenWorkerReportsFailure() throws IOException {
+        assertNull(workerPool.resolve("https://www.youtube.com/watch?v=fail"), "解析失敗應該返回 null");
+    }
+
+    @Test
+    @DisplayName("請求逾時後應該拋出例外並重啟工作程序")
+    void shouldTimeoutAndRecover() throws IOException {
+        assertThrows(IOException.class, () -> workerPool.resolve("https://www.youtube.com/watch?v=hang"));
+
+        YouTubeResolver.TrackInfo result = workerPool.resolve("https://www.youtube.com/watch?v=after");
+        assertNotNull(result, "逾時後工作程序池應該仍可使用");
+        assertEquals("Fake after", result.title);
+    }
+
+    @Test
+    @DisplayName("工作程序崩潰後應該自動重啟")
+    void shouldRestartCrashedWorker() throws Exception {
+        assertThrows(IOException.class, () -> workerPool.resolve("https://www.youtube.com/watch?v=crash"));
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(workerPool.resolve("https://www.youtube.com/watch?v=again" + i),
+                    "崩潰後工作程序池應該仍可使用");
+        }
+        assertEquals(2, waitForAliveWorkers(2), "工作程序數量應該恢復");
+    }
+
+    @Test
+    @DisplayName("YouTubeResolver 應該使用工作程序池")
+    void resolverShouldUseWorkerPool() throws InterruptedException {
+        waitForAliveWorkers(1);
+        YouTubeResolver resolver = new YouTubeResolver(workerPool, new TrackInfoCache(10), new SimpleMeterRegistry());
+
+        YouTubeResolver.TrackInfo result = resolver.resolveYouTubeUrl("https://www.youtube.com/watch?v=viaPool");
+
+        assertNotNull(result, "解析結果不應為 null");
+        assertEquals("Fake viaPool", result.title);
+    }
+
+    @Test
+    @DisplayName("工作程序還沒有送出 ready 時不應該視為可用")
+    void workerShouldNotCountBeforeReady() throws InterruptedException {
+        // 模擬匯入 yt_dlp 時卡住：程序存活但永遠不送出 ready
+        YtDlpWorkerPool stuckPool = new YtDlpWorkerPool(true, List.of(findPython(), "-c", "import time; time.sleep(60)"), 1,
+                Duration.ofSeconds(3), Duration.ofMinutes(10));
+        stuckPool.start();
+        try {
+            Thread.sleep(1000);
+
+            assertEquals(0, stuckPool.getAliveWorkerCount(), "未就緒的工作程序不應該被計入");
+            assertFalse(stuckPool.isAvailable(), "沒有就緒的工作程序時應該讓呼叫者改用子程序");
+        } finally {
+            stuckPool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("停用時不應該準備工作程序腳本也不應該可用")
+    void disabledPoolShouldNotPrepareScript() {
+        YtDlpWorkerPool disabledPool = new YtDlpWorkerPool(false, "python", "", 2, 30, 60);
+        disabledPool.start();
+
+        assertFalse(disabledPool.isAvailable(), "停用的工作程序池不應該可用");
+        assertEquals(0, disabledPool.getAliveWorkerCount());
+    }
+
+    private int waitForAliveWorkers(int expected) throws InterruptedException {
+        for (int i = 0; i < 50 && workerPool.getAliveWorkerCount() < expected; i++) {
+            Thread.sleep(100);
+        }
+        return workerPool.getAliveWorkerCount();
+    }
+
+    /**
+     * 檢查系統上是否有 Python 可以執行假工作程序
+     * 這個方法會被 @EnabledIf 註解使用
+     */
+    static boolean isPythonAvailable() {
+        return findPython() != null;
+    }
+
+    private static String findPython() {
+        for (String candidate : List.of("python3", "python")) {
+            try {
+                Process process = new ProcessBuilder(candidate, "--version").start();
+                if (process.waitFor() == 0) {
+                    return candidate;
+                }
+            } catch (Exception e) {
+                // 嘗試下一個候選
+            }
+        }
+        return null;
+    }
+}
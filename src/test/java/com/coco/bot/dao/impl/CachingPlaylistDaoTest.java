@@ -0,0 +1,140 @@
+package com.coco.bot.dao.impl;
+
+import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.dto.PlaylistSummary;
+import com.coco.bot.entity.PlaylistItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CachingPlaylistDao 類別的單元測試
+ */
+class CachingPlaylistDaoTest {
+
+    private PlaylistDao delegate;
+    private CachingPlaylistDao cachingDao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PlaylistDao.class);
+        cachingDao = new CachingPlaylistDao(delegate, 100, 600, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("重複讀取同一個播放清單應該只查詢一次資料庫")
+    void shouldServeRepeatedReadsFromCache() {
+        // Arrange
+        List<PlaylistItem> songs = List.of(song(1L, "Song 1"), song(2L, "Song 2"));
+        when(delegate.findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist")).thenReturn(songs);
+
+        // Act
+        List<PlaylistItem> first = cachingDao.findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist");
+        List<PlaylistItem> second = cachingDao.findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist");
+
+        // Assert
+        assertEquals(2, first.size(), "應該返回所有歌曲");
+        assertEquals(first, second, "第二次讀取應該返回相同內容");
+        verify(delegate, times(1)).findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist");
+        assertEquals(1, cachingDao.getSongsStats().hitCount(), "第二次讀取應該命中快取");
+        assertEquals(1, cachingDao.getSongsStats().missCount(), "第一次讀取應該未命中");
+    }
+
+    @Test
+    @DisplayName("檢查播放清單是否存在應該使用快取的名稱列表")
+    void shouldAnswerExistsFromCachedNames() {
+        // Arrange
+        when(delegate.findDistinctPlaylistNamesByUserId("123456")).thenReturn(List.of("Chill", "My Playlist"));
+
+        // Act & Assert
+        assertTrue(cachingDao.existsByUserIdAndPlaylistName("123456", "My Playlist"), "播放清單應該存在");
+        assertFalse(cachingDao.existsByUserIdAndPlaylistName("123456", "Other"), "播放清單不應該存在");
+        assertEquals(List.of("Chill", "My Playlist"), cachingDao.findDistinctPlaylistNamesByUserId("123456"));
+        verify(delegate, times(1)).findDistinctPlaylistNamesByUserId("123456");
+        verify(delegate, never()).existsByUserIdAndPlaylistName(any(), any());
+    }
+
+    @Test
+    @DisplayName("寫入播放清單後應該讓該播放清單與用戶的快取失效")
+    void shouldInvalidateOnWrite() {
+        // Arrange
+        when(delegate.findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist"))
+                .thenReturn(List.of(song(1L, "Song 1")))
+                .thenReturn(List.of(song(1L, "Song 1"), song(2L, "Song 2")));
+        when(delegate.findPlaylistSummariesByUserId("123456"))
+                .thenReturn(List.of(new PlaylistSummary("My Playlist", 1L, 180000L)))
+                .thenReturn(List.of(new PlaylistSummary("My Playlist", 2L, 360000L)));
+        when(delegate.save(any(PlaylistItem.class))).thenReturn(true);
+
+        cachingDao.findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist");
+        cachingDao.findPlaylistSummariesByUserId("123456");
+
+        // Act
+        assertTrue(cachingDao.save(song(2L, "Song 2")), "寫入應該交給底層 DAO");
+
+        // Assert
+        assertEquals(2, cachingDao.findByUserIdAndPlaylistNameOrderBySongOrder("123456", "My Playlist").size(),
+                "寫入後應該重新讀取歌曲列表");
+        assertEquals(2L, cachingDao.findPlaylistSummariesByUserId("123456").get(0).getSongCount(),
+                "寫入後應該重新讀取摘要");
+    }
+
+    @Test
+    @DisplayName("寫入失敗時也應該讓快取失效")
+    void shouldInvalidateEvenWhenWriteFails() {
+        // Arrange
+        when(delegate.findDistinctPlaylistNamesByUserId("123456")).thenReturn(List.of("My Playlist"));
+        when(delegate.deleteByUserIdAndPlaylistName("123456", "My Playlist")).thenThrow(new RuntimeException("db down"));
+        cachingDao.findDistinctPlaylistNamesByUserId("123456");
+
+        // Act
+        assertThrows(RuntimeException.class, () -> cachingDao.deleteByUserIdAndPlaylistName("123456", "My Playlist"));
+        cachingDao.findDistinctPlaylistNamesByUserId("123456");
+
+        // Assert
+        verify(delegate, times(2)).findDistinctPlaylistNamesByUserId("123456");
+    }
+
+    @Test
+    @DisplayName("其他用戶的快取不應該因寫入而失效")
+    void shouldKeepOtherUsersCached() {
+        // Arrange
+        when(delegate.findDistinctPlaylistNamesByUserId("654321")).thenReturn(List.of("Theirs"));
+        when(delegate.deleteSong(any())).thenReturn(true);
+        cachingDao.findDistinctPlaylistNamesByUserId("654321");
+
+        // Act
+        cachingDao.deleteSong(song(1L, "Song 1"));
+        cachingDao.findDistinctPlaylistNamesByUserId("654321");
+
+        // Assert
+        verify(delegate, times(1)).findDistinctPlaylistNamesByUserId("654321");
+    }
+
+    @Test
+    @DisplayName("寫入前的定位查詢不應該經過快取")
+    void shouldNotCachePositionLookups() {
+        // Arrange
+        PlaylistItem song = song(1L, "Song 1");
+        when(delegate.findSongAtPosition("123456", "My Playlist", 0)).thenReturn(song);
+
+        // Act
+        cachingDao.findSongAtPosition("123456", "My Playlist", 0);
+        cachingDao.findSongAtPosition("123456", "My Playlist", 0);
+
+        // Assert
+        verify(delegate, times(2)).findSongAtPosition("123456", "My Playlist", 0);
+    }
+
+    private static PlaylistItem song(Long id, String title) {
+        PlaylistItem item = new PlaylistItem("123456", "My Playlist", title, "http://example.com/" + id, 180000L, id.intValue() * PlaylistItem.ORDER_GAP);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,62 @@
+package com.coco.bot.dao.impl;
+
+import com.coco.bot.entity.PlaylistItem;
+import com.coco.bot.repository.PlaylistHeaderRepository;
+import com.coco.bot.repository.PlaylistItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PlaylistDaoImpl 類別的單元測試
+ */
+class PlaylistDaoImplTest {
+
+    private PlaylistItemRepository itemRepository;
+    private PlaylistHeaderRepository headerRepository;
+    private PlaylistDaoImpl playlistDao;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(PlaylistItemRepository.class);
+        headerRepository = mock(PlaylistHeaderRepository.class);
+        playlistDao = new PlaylistDaoImpl(itemRepository, headerRepository);
+    }
+
+    @Test
+    @DisplayName("新增歌曲應該在方法內送出 INSERT")
+    void saveShouldFlushInsert() {
+        PlaylistItem song = song();
+
+        assertTrue(playlistDao.save(song), "儲存成功應該返回 true");
+
+        verify(itemRepository).save(song);
+        verify(itemRepository).flush();
+    }
+
+    @Test
+    @DisplayName("建立表頭應該使用不會衝突的 INSERT IGNORE，不先查詢是否存在")
+    void saveShouldCreateHeaderIdempotently() {
+        assertTrue(playlistDao.save(song()), "儲存成功應該返回 true");
+
+        verify(headerRepository).insertIfAbsent("123456", "My Playlist");
+        verify(headerRepository, never()).existsByUserIdAndPlaylistName(any(), any());
+        verify(headerRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("送出 INSERT 失敗時 save 應該返回 false")
+    void saveShouldReturnFalseWhenFlushFails() {
+        doThrow(new DataIntegrityViolationException("duplicate")).when(itemRepository).flush();
+
+        assertFalse(playlistDao.save(song()), "寫入失敗應該返回 false，而不是在提交時才失敗");
+    }
+
+    private static PlaylistItem song() {
+        return new PlaylistItem("123456", "My Playlist", "Song", "https://www.youtube.com/watch?v=dQw4w9WgXcQ", 0L, 1000);
+    }
+}
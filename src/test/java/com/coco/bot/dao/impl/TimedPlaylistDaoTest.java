@@ -0,0 +1,58 @@
+package com.coco.bot.dao.impl;
+
+import com.coco.bot.dao.PlaylistDao;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TimedPlaylistDao 類別的單元測試
+ */
+class TimedPlaylistDaoTest {
+
+    private PlaylistDao delegate;
+    private SimpleMeterRegistry registry;
+    private TimedPlaylistDao timedDao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PlaylistDao.class);
+        registry = new SimpleMeterRegistry();
+        timedDao = new TimedPlaylistDao(delegate, registry);
+    }
+
+    @Test
+    @DisplayName("每個方法應該記錄到對應 method 標籤的計時器")
+    void shouldRecordTimerPerMethod() {
+        when(delegate.findDistinctPlaylistNamesByUserId("123456")).thenReturn(List.of("My Playlist"));
+        when(delegate.deleteByUserIdAndPlaylistName("123456", "My Playlist")).thenReturn(true);
+
+        assertEquals(List.of("My Playlist"), timedDao.findDistinctPlaylistNamesByUserId("123456"),
+                "應該返回下一層的結果");
+        timedDao.findDistinctPlaylistNamesByUserId("123456");
+        assertTrue(timedDao.deleteByUserIdAndPlaylistName("123456", "My Playlist"), "應該返回下一層的結果");
+
+        Timer reads = registry.get(TimedPlaylistDao.TIMER_NAME).tag("method", "findDistinctPlaylistNamesByUserId").timer();
+        Timer deletes = registry.get(TimedPlaylistDao.TIMER_NAME).tag("method", "deleteByUserIdAndPlaylistName").timer();
+        assertEquals(2, reads.count(), "讀取應該記錄兩次");
+        assertEquals(1, deletes.count(), "刪除應該記錄一次");
+    }
+
+    @Test
+    @DisplayName("下一層拋出例外時仍然應該記錄耗時並傳出例外")
+    void shouldRecordWhenDelegateThrows() {
+        when(delegate.findPlaylistSummariesByUserId("123456")).thenThrow(new IllegalStateException("連線中斷"));
+
+        assertThrows(IllegalStateException.class, () -> timedDao.findPlaylistSummariesByUserId("123456"),
+                "例外應該傳給呼叫者");
+        assertEquals(1, registry.get(TimedPlaylistDao.TIMER_NAME)
+                .tag("method", "findPlaylistSummariesByUserId").timer().count(), "失敗的操作也應該記錄耗時");
+    }
+}
@@ -0,0 +1,50 @@
+package com.coco.bot.service;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DiscordBotService 單元測試
+ */
+class DiscordBotServiceTest {
+
+    @Test
+    @DisplayName("分片健康報告應該依分片 ID 列出狀態、延遲與伺服器數量")
+    void shouldFormatShardHealthSortedByShardId() {
+        JDA shard0 = mockShard(0, 2, JDA.Status.CONNECTED, 42, 1300);
+        JDA shard1 = mockShard(1, 2, JDA.Status.RECONNECT_QUEUED, -1, 1250);
+
+        String report = DiscordBotService.formatShardHealth(List.of(shard1, shard0));
+
+        String[] lines = report.split("\\R");
+        assertEquals(3, lines.length, "報告應該有標題與每個分片一行");
+        assertTrue(lines[1].contains("分片 0/2：CONNECTED，延遲 42ms，伺服器 1300 個"), "第一行應該是分片 0");
+        assertTrue(lines[2].contains("分片 1/2：RECONNECT_QUEUED，延遲 -1ms，伺服器 1250 個"), "第二行應該是分片 1");
+    }
+
+    @Test
+    @DisplayName("沒有分片時只輸出標題")
+    void shouldFormatEmptyShardList() {
+        assertEquals("分片健康報告：", DiscordBotService.formatShardHealth(List.of()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private JDA mockShard(int shardId, int shardTotal, JDA.Status status, long ping, long guilds) {
+        JDA shard = mock(JDA.class);
+        SnowflakeCacheView<Guild> guildCache = mock(SnowflakeCacheView.class);
+        when(guildCache.size()).thenReturn(guilds);
+        when(shard.getShardInfo()).thenReturn(new JDA.ShardInfo(shardId, shardTotal));
+        when(shard.getStatus()).thenReturn(status);
+        when(shard.getGatewayPing()).thenReturn(ping);
+        when(shard.getGuildCache()).thenReturn(guildCache);
+        return shard;
+    }
+}
@@ -1,21 +1,32 @@
 package com.coco.bot.service;
 
+import com.coco.bot.controller.CommandContext;
 import com.coco.bot.dao.PlaylistDao;
+import com.coco.bot.dto.PlaylistSummary;
 import com.coco.bot.entity.PlaylistItem;
+import com.coco.bot.handler.ResolutionException;
+import com.coco.bot.handler.ResolutionExecutor;
 import com.coco.bot.handler.YouTubeResolver;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,12 +41,22 @@ class PlaylistServiceTest {
     @Mock
     private YouTubeResolver mockYouTubeResolver;
 
+    private ResolutionExecutor resolutionExecutor;
+
     private PlaylistService playlistService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        playlistService = new PlaylistService(mockPlaylistDao, mockYouTubeResolver);
+        resolutionExecutor = new ResolutionExecutor(4, 50, 10);
+        // 不啟動背景重新編號排程，測試中不會在背景寫入資料庫
+        PlaylistOrderMaintainer orderMaintainer = new PlaylistOrderMaintainer(mockPlaylistDao, 300);
+        playlistService = new PlaylistService(mockPlaylistDao, mockYouTubeResolver, resolutionExecutor, orderMaintainer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resolutionExecutor.shutdown();
     }
 
     @Test
@@ -52,6 +73,24 @@ class PlaylistServiceTest {
         verify(mockPlaylistDao).save(any(PlaylistItem.class));
     }
 
+    @Test
+    @DisplayName("批次添加歌曲應該一次交給 DAO 處理")
+    void shouldAddSongsInBulk() {
+        // Arrange
+        List<PlaylistItem> songs = Arrays.asList(
+                new PlaylistItem(null, null, "Song 1", "http://example.com/1", 180000L, null),
+                new PlaylistItem(null, null, "Song 2", "http://example.com/2", 200000L, null));
+        when(mockPlaylistDao.addSongsToPlaylist("123456", "My Playlist", songs)).thenReturn(true);
+
+        // Act
+        boolean result = playlistService.addSongsToPlaylist("123456", "My Playlist", songs);
+
+        // Assert
+        assertTrue(result, "批次添加應該成功");
+        verify(mockPlaylistDao).addSongsToPlaylist("123456", "My Playlist", songs);
+        verify(mockPlaylistDao, never()).save(any(PlaylistItem.class));
+    }
+
     @Test
     @DisplayName("檢查播放清單存在應該返回正確結果")
     void shouldCheckPlaylistExistsCorrectly() {
@@ -82,6 +121,28 @@ class PlaylistServiceTest {
         assertEquals("Playlist 2", playlists.get(1));
     }
 
+    @Test
+    @DisplayName("列出播放清單應該只查詢一次摘要，不載入歌曲")
+    void shouldListPlaylistsWithSingleSummaryQuery() {
+        // Arrange
+        CommandContext context = mock(CommandContext.class);
+        when(mockPlaylistDao.findPlaylistSummariesByUserId("123456")).thenReturn(Arrays.asList(
+                new PlaylistSummary("Chill", 12L, 2_520_000L),
+                new PlaylistSummary("Empty", 0L, 0L)));
+
+        // Act
+        playlistService.handleListPlaylists(context, "123456");
+
+        // Assert
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(context).reply(message.capture());
+        assertTrue(message.getValue().contains("1. **Chill** (12 首歌，42:00)"), "應該顯示歌曲數量與總時長");
+        assertTrue(message.getValue().contains("2. **Empty** (0 首歌)"), "空播放清單應該顯示 0 首歌");
+        verify(mockPlaylistDao).findPlaylistSummariesByUserId("123456");
+        verify(mockPlaylistDao, never()).findDistinctPlaylistNamesByUserId(any());
+        verify(mockPlaylistDao, never()).findByUserIdAndPlaylistNameOrderBySongOrder(any(), any());
+    }
+
     @Test
     @DisplayName("獲取播放清單歌曲應該返回正確的歌曲列表")
     void shouldReturnPlaylistSongs() {
@@ -114,4 +175,204 @@ class PlaylistServiceTest {
         assertTrue(result, "刪除播放清單應該成功");
         verify(mockPlaylistDao).deleteByUserIdAndPlaylistName("123456", "My Playlist");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("移除歌曲應該只刪除該位置的一筆資料")
+    void shouldRemoveSingleRowByPosition() {
+        // Arrange
+        PlaylistItem song = song(42L, 3 * PlaylistItem.ORDER_GAP);
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 2)).thenReturn(song);
+        when(mockPlaylistDao.deleteSong(song)).thenReturn(true);
+
+        // Act
+        boolean result = playlistService.removeSongFromPlaylist("123456", "My Playlist", 3);
+
+        // Assert
+        assertTrue(result, "移除歌曲應該成功");
+        verify(mockPlaylistDao).deleteSong(song);
+        verify(mockPlaylistDao, never()).renumberPlaylist(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("移動歌曲應該只更新被移動歌曲的順序鍵")
+    void shouldMoveSongWithMidpointOrder() {
+        // Arrange: [1024, 2048, 3072, 4096]，把第 4 首移到第 2 首
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 3)).thenReturn(song(4L, 4096));
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 0)).thenReturn(song(1L, 1024));
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 1)).thenReturn(song(2L, 2048));
+        when(mockPlaylistDao.updateSongOrder(argThat(item -> item.getId() == 4L), 1536)).thenReturn(true);
+
+        // Act
+        boolean result = playlistService.moveSongInPlaylist("123456", "My Playlist", 4, 2);
+
+        // Assert
+        assertTrue(result, "移動歌曲應該成功");
+        verify(mockPlaylistDao).updateSongOrder(argThat(item -> item.getId() == 4L), 1536);
+        verify(mockPlaylistDao, never()).renumberPlaylist(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("移動到最前面或最後面應該延伸順序鍵")
+    void shouldMoveSongToEnds() {
+        // Arrange: [1024, 2048, 3072]
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 0)).thenReturn(song(1L, 1024));
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 2)).thenReturn(song(3L, 3072));
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 3)).thenReturn(null);
+        when(mockPlaylistDao.updateSongOrder(any(), anyInt())).thenReturn(true);
+
+        // Act & Assert
+        assertTrue(playlistService.moveSongInPlaylist("123456", "My Playlist", 3, 1));
+        verify(mockPlaylistDao).updateSongOrder(argThat(item -> item.getId() == 3L), 0);
+
+        assertTrue(playlistService.moveSongInPlaylist("123456", "My Playlist", 1, 3));
+        verify(mockPlaylistDao).updateSongOrder(argThat(item -> item.getId() == 1L), 3072 + PlaylistItem.ORDER_GAP);
+
+        assertFalse(playlistService.moveSongInPlaylist("123456", "My Playlist", 1, 5), "超出範圍的位置應該失敗");
+    }
+
+    @Test
+    @DisplayName("沒有剩餘間隔時應該先重新編號再移動")
+    void shouldRenumberWhenGapIsExhausted() {
+        // Arrange: 第 1、2 首的順序鍵相鄰，重新編號後恢復間隔
+        PlaylistItem first = song(1L, 10);
+        PlaylistItem second = song(2L, 11);
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 2)).thenReturn(song(3L, 12));
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 0)).thenReturn(first);
+        when(mockPlaylistDao.findSongAtPosition("123456", "My Playlist", 1)).thenReturn(second);
+        when(mockPlaylistDao.renumberPlaylist("123456", "My Playlist", PlaylistItem.ORDER_GAP)).thenAnswer(invocation -> {
+            first.setSongOrder(1024);
+            second.setSongOrder(2048);
+            return true;
+        });
+        when(mockPlaylistDao.updateSongOrder(argThat(item -> item.getId() == 3L), 1536)).thenReturn(true);
+
+        // Act
+        boolean result = playlistService.moveSongInPlaylist("123456", "My Playlist", 3, 2);
+
+        // Assert
+        assertTrue(result, "重新編號後移動應該成功");
+        verify(mockPlaylistDao).renumberPlaylist("123456", "My Playlist", PlaylistItem.ORDER_GAP);
+        verify(mockPlaylistDao).updateSongOrder(argThat(item -> item.getId() == 3L), 1536);
+    }
+
+    @Test
+    @DisplayName("解析逾時時應該回覆逾時訊息且不寫入播放清單")
+    void shouldReplyWithReasonWhenResolutionTimesOut() {
+        // Arrange
+        String url = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        CommandContext context = mock(CommandContext.class);
+        when(mockPlaylistDao.existsByUserIdAndPlaylistName("123456", "My Playlist")).thenReturn(true);
+        when(mockYouTubeResolver.resolveMetadataAsync(url)).thenReturn(CompletableFuture.failedFuture(
+                new ResolutionException(ResolutionException.Reason.TIMEOUT, "yt-dlp 超過 60 秒未完成")));
+
+        // Act
+        playlistService.handleAddToPlaylist(context, List.of("My Playlist", url), "123456");
+
+        // Assert
+        verify(context, timeout(5000)).reply("❌ 解析影片逾時，請稍後再試。");
+        verify(mockPlaylistDao, never()).save(any(PlaylistItem.class));
+    }
+
+    @Test
+    @DisplayName("解析完成後應該把歌曲加入播放清單")
+    void shouldAddResolvedSongToPlaylist() {
+        // Arrange
+        String url = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        CommandContext context = mock(CommandContext.class);
+        when(mockPlaylistDao.existsByUserIdAndPlaylistName("123456", "My Playlist")).thenReturn(true);
+        when(mockPlaylistDao.save(any(PlaylistItem.class))).thenReturn(true);
+        when(mockYouTubeResolver.resolveMetadataAsync(url)).thenReturn(CompletableFuture.completedFuture(
+                new YouTubeResolver.TrackInfo("Never Gonna Give You Up", "https://stream.example.com/audio", 213000L)));
+
+        // Act
+        playlistService.handleAddToPlaylist(context, List.of("My Playlist", url), "123456");
+
+        // Assert
+        verify(context, timeout(5000)).reply("✅ 已添加到播放清單 **My Playlist**：\n🎵 **Never Gonna Give You Up**");
+        verify(mockPlaylistDao).save(argThat(item -> "Never Gonna Give You Up".equals(item.getSongTitle())
+                && url.equals(item.getSongUrl())));
+    }
+
+    @Test
+    @DisplayName("匯入時應該以一次批次解析處理所有網址並依輸入順序寫入")
+    void shouldImportBatchResolvedSongsInInputOrder() {
+        // Arrange
+        String playlistUrl = "https://www.youtube.com/playlist?list=PL1234567890";
+        String missingUrl = "https://youtu.be/aaaaaaaaaaa";
+        String videoUrl = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        CommandContext context = mock(CommandContext.class);
+        when(mockPlaylistDao.addSongsToPlaylist(eq("123456"), eq("匯入"), anyList())).thenReturn(true);
+        when(mockYouTubeResolver.resolveBatchAsync(eq(List.of(playlistUrl, missingUrl, videoUrl)), any()))
+                .thenAnswer(invocation -> {
+                    YouTubeResolver.BatchListener listener = invocation.getArgument(1);
+                    // 結果到達的順序與輸入順序不同
+                    listener.onResolved(2, videoUrl, new YouTubeResolver.TrackInfo("Video", "https://stream/v", 213000L));
+                    listener.onFailed(1, missingUrl,
+                            new ResolutionException(ResolutionException.Reason.UNAVAILABLE, "Video unavailable"));
+                    listener.onResolved(0, "https://www.youtube.com/watch?v=list0000001",
+                            new YouTubeResolver.TrackInfo("First", "https://stream/1", 1000L));
+                    listener.onResolved(0, "https://www.youtube.com/watch?v=list0000002",
+                            new YouTubeResolver.TrackInfo("Second", "https://stream/2", 2000L));
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        // Act：斜線指令的網址選項是一整個字串
+        playlistService.handleImportPlaylist(context,
+                List.of("匯入", playlistUrl + " " + missingUrl, videoUrl), "123456");
+
+        // Assert
+        verify(context, timeout(5000)).reply("✅ 已匯入 3 首歌曲到播放清單 **匯入**\n⚠️ 1 個網址或歌曲無法解析");
+        verify(mockYouTubeResolver, never()).resolveMetadataAsync(any());
+        verify(mockPlaylistDao).addSongsToPlaylist(eq("123456"), eq("匯入"), argThat(songs ->
+                songs.stream().map(PlaylistItem::getSongTitle).toList().equals(List.of("First", "Second", "Video"))
+                        && songs.get(0).getSongUrl().equals("https://www.youtube.com/watch?v=list0000001")));
+    }
+
+    @Test
+    @DisplayName("匯入時播放清單中解析失敗的歌曲也應該計入失敗數量，重複的網址各自匯入")
+    void shouldCountFailedPlaylistEntriesAndKeepDuplicates() {
+        // Arrange
+        String playlistUrl = "https://www.youtube.com/playlist?list=PL1234567890";
+        String videoUrl = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+        CommandContext context = mock(CommandContext.class);
+        when(mockPlaylistDao.addSongsToPlaylist(eq("123456"), eq("匯入"), anyList())).thenReturn(true);
+        when(mockYouTubeResolver.resolveBatchAsync(eq(List.of(videoUrl, playlistUrl, videoUrl)), any()))
+                .thenAnswer(invocation -> {
+                    YouTubeResolver.BatchListener listener = invocation.getArgument(1);
+                    YouTubeResolver.TrackInfo video = new YouTubeResolver.TrackInfo("Video", "https://stream/v", 213000L);
+                    // 重複的網址只解析一次，但兩個位置都會收到通知
+                    listener.onResolved(0, videoUrl, video);
+                    listener.onResolved(2, videoUrl, video);
+                    listener.onResolved(1, "https://www.youtube.com/watch?v=list0000001",
+                            new YouTubeResolver.TrackInfo("First", "https://stream/1", 1000L));
+                    listener.onPlaylistEntryFailed("https://www.youtube.com/watch?v=list0000002",
+                            new ResolutionException(ResolutionException.Reason.UNAVAILABLE, "Private video"));
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        // Act
+        playlistService.handleImportPlaylist(context, List.of("匯入", videoUrl, playlistUrl, videoUrl), "123456");
+
+        // Assert
+        verify(context, timeout(5000)).reply("✅ 已匯入 3 首歌曲到播放清單 **匯入**\n⚠️ 1 個網址或歌曲無法解析");
+        verify(mockPlaylistDao).addSongsToPlaylist(eq("123456"), eq("匯入"), argThat(songs ->
+                songs.stream().map(PlaylistItem::getSongTitle).toList().equals(List.of("Video", "First", "Video"))));
+    }
+
+    @Test
+    @DisplayName("匯入時沒有網址應該回覆使用方法")
+    void shouldReplyUsageWhenImportHasNoUrls() {
+        CommandContext context = mock(CommandContext.class);
+
+        playlistService.handleImportPlaylist(context, List.of("匯入"), "123456");
+
+        verify(context).reply("❌ 使用方法：`!playlist import <播放清單名稱> <網址或 YouTube 播放清單網址>...`");
+        verifyNoInteractions(mockYouTubeResolver);
+    }
+
+    private static PlaylistItem song(Long id, int songOrder) {
+        PlaylistItem item = new PlaylistItem("123456", "My Playlist", "Song " + id, "http://example.com/" + id, 180000L, songOrder);
+        item.setId(id);
+        return item;
+    }
+}
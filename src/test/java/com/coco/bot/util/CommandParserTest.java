@@ -189,4 +189,56 @@ class CommandParserTest {
         assertEquals("!play", result.getCommand()); // 應該轉換為小寫
         assertEquals(1, result.getArguments().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("缺少空格時應該優先比對最長的指令")
+    void shouldPreferLongestCommandWhenSpaceIsMissing() {
+        CommandParser.ParsedCommand result = CommandParser.parseCommand("!playlistlist");
+
+        assertTrue(result.isValid());
+        assertEquals("!playlist", result.getCommand(), "!playlistlist 應該解析為 !playlist 而不是 !play");
+        assertEquals(1, result.getArguments().size());
+        assertEquals("list", result.getArguments().get(0));
+    }
+
+    @Test
+    @DisplayName("大小寫混合且缺少空格的指令")
+    void shouldParseMixedCaseCommandWithoutSpace() {
+        CommandParser.ParsedCommand result = CommandParser.parseCommand("!PlayHTTPS://youtu.be/dQw4w9WgXcQ");
+
+        assertTrue(result.isValid());
+        assertEquals("!play", result.getCommand());
+        assertEquals("HTTPS://youtu.be/dQw4w9WgXcQ", result.getArguments().get(0));
+    }
+
+    @Test
+    @DisplayName("參數之間的各種空白都應該被當作分隔")
+    void shouldSplitArgumentsOnAnyWhitespace() {
+        CommandParser.ParsedCommand result = CommandParser.parseCommand("!move\t3 \n 1  ");
+
+        assertTrue(result.isValid());
+        assertEquals("!move", result.getCommand());
+        assertEquals(2, result.getArguments().size());
+        assertEquals("3", result.getArguments().get(0));
+        assertEquals("1", result.getArguments().get(1));
+    }
+
+    @Test
+    @DisplayName("指令前綴後面只有符號時不應該被修正為指令")
+    void shouldRejectCommandPrefixFollowedBySymbols() {
+        assertFalse(CommandParser.parseCommand("!skip???").isValid(), "剩餘部分沒有英數字時不是指令");
+        assertFalse(CommandParser.parseCommand("!").isValid());
+        assertFalse(CommandParser.parseCommand("!   ").isValid());
+        assertFalse(CommandParser.parseCommand("!unknown").isValid());
+    }
+
+    @Test
+    @DisplayName("快速檢查應該只接受以驚嘆號開頭的訊息")
+    void shouldDetectCommandCandidates() {
+        assertTrue(CommandParser.isCommandCandidate("!play"));
+        assertFalse(CommandParser.isCommandCandidate("hello !play"));
+        assertFalse(CommandParser.isCommandCandidate(" !play"));
+        assertFalse(CommandParser.isCommandCandidate(""));
+        assertFalse(CommandParser.isCommandCandidate(null));
+    }
+}
@@ -0,0 +1,142 @@
+package com.coco.bot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PersistentIndexedList 類別的單元測試
+ */
+class PersistentIndexedListTest {
+
+    private static final int LARGE_SIZE = 10_000;
+
+    @Test
+    @DisplayName("應該依照加入順序索引元素")
+    void shouldIndexInInsertionOrder() {
+        PersistentIndexedList<Integer> list = PersistentIndexedList.empty();
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            list = list.add(i);
+        }
+
+        assertEquals(LARGE_SIZE, list.size());
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            assertEquals(i, list.get(i), "位置 " + i + " 的元素不正確");
+        }
+    }
+
+    @Test
+    @DisplayName("隨機的插入、移除與移動應該與 ArrayList 的結果一致")
+    void randomOperationsShouldMatchArrayList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>(range(LARGE_SIZE));
+        PersistentIndexedList<Integer> list = PersistentIndexedList.of(expected);
+
+        for (int op = 0; op < 20_000; op++) {
+            int choice = random.nextInt(3);
+            if (choice == 0) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, -op);
+                list = list.insert(index, -op);
+            } else if (choice == 1 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                list = list.remove(index);
+            } else if (!expected.isEmpty()) {
+                int from = random.nextInt(expected.size());
+                int to = random.nextInt(expected.size());
+                expected.add(to, expected.remove(from));
+                list = list.move(from, to);
+            }
+        }
+
+        assertEquals(expected, list.toList(), "操作結果應該與 ArrayList 相同");
+    }
+
+    @Test
+    @DisplayName("修改後舊的串列不應該改變")
+    void modificationsShouldNotAffectOldVersion() {
+        PersistentIndexedList<Integer> original = PersistentIndexedList.of(range(100));
+
+        PersistentIndexedList<Integer> modified = original.remove(0).move(10, 50).insert(5, -1).shuffle(new Random(1));
+
+        assertEquals(range(100), original.toList(), "原本的串列應該保持不變");
+        assertEquals(100, modified.size());
+    }
+
+    @Test
+    @DisplayName("洗牌後應該保留所有元素且順序改變")
+    void shuffleShouldKeepAllElements() {
+        PersistentIndexedList<Integer> list = PersistentIndexedList.of(range(LARGE_SIZE));
+
+        PersistentIndexedList<Integer> shuffled = list.shuffle(new Random(7));
+
+        assertEquals(LARGE_SIZE, shuffled.size());
+        assertNotEquals(list.toList(), shuffled.toList(), "洗牌後順序應該改變");
+        Set<Integer> values = new HashSet<>(shuffled.toList());
+        assertEquals(LARGE_SIZE, values.size(), "洗牌後不應該遺失或重複元素");
+        for (int i = 0; i < LARGE_SIZE; i += 997) {
+            assertTrue(values.contains(i));
+        }
+    }
+
+    @Test
+    @DisplayName("應該能從任意位置開始走訪與取出分頁")
+    void shouldIterateFromAnyPosition() {
+        PersistentIndexedList<Integer> list = PersistentIndexedList.of(range(LARGE_SIZE));
+
+        assertEquals(List.of(9990, 9991, 9992, 9993, 9994, 9995, 9996, 9997, 9998, 9999), list.slice(9990, 10_000));
+        assertEquals(List.of(5000, 5001, 5002), list.slice(5000, 5003));
+        assertTrue(list.slice(10_000, 10_000).isEmpty());
+
+        Iterator<Integer> iterator = list.iterator(LARGE_SIZE - 1);
+        assertTrue(iterator.hasNext());
+        assertEquals(LARGE_SIZE - 1, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    @DisplayName("超出範圍的位置應該拋出例外")
+    void shouldRejectOutOfRangeIndexes() {
+        PersistentIndexedList<Integer> list = PersistentIndexedList.of(range(3));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insert(4, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.move(0, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentIndexedList.<Integer>empty().get(0));
+    }
+
+    @Test
+    @DisplayName("由大量元素建立的樹應該保持平衡")
+    void builtTreeShouldStayShallow() {
+        PersistentIndexedList<Integer> list = PersistentIndexedList.empty();
+        for (int i = 0; i < 100_000; i++) {
+            list = list.add(i);
+        }
+        // 逐一移除最前面的元素（佇列播放的情況）不應該讓樹退化成鏈結串列
+        for (int i = 0; i < 50_000; i++) {
+            list = list.remove(0);
+        }
+
+        assertEquals(50_000, list.size());
+        assertEquals(50_000, list.get(0));
+        assertEquals(99_999, list.get(list.size() - 1));
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+}
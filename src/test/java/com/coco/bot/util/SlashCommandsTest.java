@@ -0,0 +1,78 @@
+package com.coco.bot.util;
+
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SlashCommands 單元測試
+ */
+class SlashCommandsTest {
+
+    @Test
+    @DisplayName("每個前綴指令都應該有對應的斜線指令")
+    void shouldDefineSlashCommandForEveryPrefixCommand() {
+        Set<String> names = SlashCommands.definitions().stream()
+                .map(SlashCommandData::getName)
+                .collect(Collectors.toSet());
+
+        for (String name : names) {
+            CommandParser.ParsedCommand parsed = CommandParser.parseCommand("!" + name);
+            assertTrue(parsed.isValid(), "/" + name + " 應該對應到有效的前綴指令");
+            assertEquals("!" + name, parsed.getCommand(), "/" + name + " 應該對應到同名的前綴指令");
+        }
+        assertEquals(11, names.size(), "應該定義 11 個斜線指令");
+    }
+
+    @Test
+    @DisplayName("斜線指令名稱應該轉換為前綴指令名稱")
+    void shouldConvertToPrefixCommand() {
+        assertEquals("!play", SlashCommands.toPrefixCommand("play"));
+        assertEquals("!playlist", SlashCommands.toPrefixCommand("playlist"));
+        assertNull(SlashCommands.toPrefixCommand("unknown"), "未知的指令應該返回 null");
+    }
+
+    @Test
+    @DisplayName("選項應該依照定義的順序轉換為參數")
+    void shouldOrderArgumentsByDefinition() {
+        // Discord 送來的選項順序是使用者填寫的順序，與定義順序無關
+        Map<String, String> options = Map.of("to", "1", "from", "5");
+
+        List<String> args = SlashCommands.toArguments("move", null, options::get);
+
+        assertEquals(List.of("5", "1"), args, "參數應該是 <原位置> <新位置>");
+    }
+
+    @Test
+    @DisplayName("子指令名稱應該是第一個參數")
+    void shouldPrependSubcommandName() {
+        Map<String, String> options = Map.of("url", "https://youtu.be/dQw4w9WgXcQ", "name", "我的最愛");
+
+        List<String> args = SlashCommands.toArguments("playlist", "add", options::get);
+
+        assertEquals(List.of("add", "我的最愛", "https://youtu.be/dQw4w9WgXcQ"), args);
+    }
+
+    @Test
+    @DisplayName("未填寫的選用選項應該略過")
+    void shouldSkipMissingOptionalOptions() {
+        assertEquals(List.of(), SlashCommands.toArguments("queue", null, name -> null), "未填寫頁碼時應該沒有參數");
+        assertEquals(List.of("create", "空清單"),
+                SlashCommands.toArguments("playlist", "create", Map.of("name", "空清單")::get),
+                "未填寫網址時應該只有播放清單名稱");
+        assertEquals(List.of("list"), SlashCommands.toArguments("playlist", "list", name -> null));
+    }
+
+    @Test
+    @DisplayName("未知的指令應該返回空參數列表")
+    void shouldReturnEmptyArgumentsForUnknownCommand() {
+        assertTrue(SlashCommands.toArguments("unknown", null, name -> "x").isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+#!/usr/bin/env python3
+# -*- coding: utf-8 -*-
+"""
+測試用的假 yt-dlp 工作程序，協定與 resolver_worker.py 相同但不需要網路
+
+URL 內容決定行為：
+- 包含 "fail"  -> 回傳解析失敗
+- 包含 "hang"  -> 永遠不回應（測試逾時）
+- 包含 "crash" -> 直接結束程序（測試重啟）
+- 其他        -> 回傳固定的假資料
+"""
+import json
+import sys
+import time
+
+
+def write(message):
+    sys.stdout.write(json.dumps(message, ensure_ascii=False) + "\n")
+    sys.stdout.flush()
+
+
+write({"id": 0, "ok": True, "ready": True})
+
+for line in sys.stdin:
+    request = json.loads(line)
+    request_id = request.get("id")
+    if request.get("op") == "ping":
+        write({"id": request_id, "ok": True, "pong": True})
+        continue
+
+    url = request.get("url") or ""
+    if "crash" in url:
+        sys.exit(3)
+    if "hang" in url:
+        time.sleep(3600)
+    if "fail" in url:
+        write({"id": request_id, "ok": False, "error": "Video unavailable"})
+        continue
+
+    write({
+        "id": request_id,
+        "ok": True,
+        "title": "Fake " + url.rsplit("=", 1)[-1],
+        "url": "https://stream.example.com/" + url.rsplit("=", 1)[-1],
+        "duration": 212,
+    })